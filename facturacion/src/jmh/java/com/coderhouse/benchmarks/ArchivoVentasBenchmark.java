@@ -0,0 +1,91 @@
+package com.coderhouse.benchmarks;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.coderhouse.dtos.EstadoCuentaDTO;
+import com.coderhouse.dtos.VentaDTO;
+import com.coderhouse.services.ArchivoVentasService;
+
+// Escrituras y lecturas recientes con el mismo historial antiguo en la tabla activa o movido al archivo.
+// Con el historial archivado las operaciones sobre ventas recientes no deberian depender de su tamaño
+@BenchmarkMode({ Mode.SampleTime, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ArchivoVentasBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class ContextoArchivo extends ContextoBenchmark {
+
+		// Ids del historial por encima de los que puede entregar la secuencia durante la medicion
+		private static final long PRIMER_ID_HISTORIAL = 1_000_000_000L;
+
+		@Param({ "activa", "archivo" })
+		public String historial;
+
+		@Param({ "1000000" })
+		public int ventasHistoricas;
+
+		LocalDate ultimoMes;
+
+		@Override
+		protected void alIniciar() {
+			// Una venta de una linea por minuto desde 2020, repartidas entre los clientes y productos cargados
+			JdbcTemplate jdbcTemplate = getBean(JdbcTemplate.class);
+			long primerCliente = Collections.min(clienteIds);
+			long primerProducto = Collections.min(productoIds);
+			jdbcTemplate.update("INSERT INTO ventas (id, fecha, fecha_hora, total, cliente_id) "
+					+ "SELECT ? + X, '2020/01/01', DATEADD('MINUTE', X, TIMESTAMP '2020-01-01 00:00:00'), 100, ? + MOD(X, ?) "
+					+ "FROM SYSTEM_RANGE(1, ?)", PRIMER_ID_HISTORIAL, primerCliente, CLIENTES, ventasHistoricas);
+			jdbcTemplate.update("INSERT INTO venta_producto (id, venta_id, producto_id, cantidad, precio_unitario) "
+					+ "SELECT ? + X, ? + X, ? + MOD(X, ?), 1, 100 FROM SYSTEM_RANGE(1, ?)",
+					PRIMER_ID_HISTORIAL, PRIMER_ID_HISTORIAL, primerProducto, PRODUCTOS, ventasHistoricas);
+
+			if ("archivo".equals(historial)) {
+				// Las ventas cargadas por ContextoBenchmark son de hoy: solo se archiva el historial
+				long archivadas = getBean(ArchivoVentasService.class).archivar();
+				if (archivadas != ventasHistoricas) {
+					throw new IllegalStateException(archivadas + " ventas archivadas de " + ventasHistoricas);
+				}
+			}
+			ultimoMes = LocalDate.now().minusDays(30);
+		}
+	}
+
+	@Benchmark
+	public VentaDTO newVenta(ContextoArchivo contexto) {
+		return contexto.ventaService.newVenta(contexto.clienteAlAzar(), List.of(contexto.productoAlAzar()), List.of(1));
+	}
+
+	@Benchmark
+	public VentaDTO getVentaReciente(ContextoArchivo contexto) {
+		return contexto.ventaService.getVentaById(contexto.ventaAlAzar());
+	}
+
+	@Benchmark
+	public EstadoCuentaDTO estadoCuentaUltimoMes(ContextoArchivo contexto) {
+		return contexto.ventaService.getEstadoCuenta(contexto.clienteAlAzar(), contexto.ultimoMes, null, null, 50);
+	}
+
+	// Primera pagina sin rango: con el historial archivado lee las dos tablas
+	@Benchmark
+	public EstadoCuentaDTO estadoCuentaCompleto(ContextoArchivo contexto) {
+		return contexto.ventaService.getEstadoCuenta(contexto.clienteAlAzar(), null, null, null, 50);
+	}
+}
@@ -0,0 +1,118 @@
+package com.coderhouse.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.coderhouse.services.IndiceProductos;
+
+// Busqueda por nombre sobre un catalogo sintetico de 1.000.000 de productos, sin levantar la aplicacion.
+// SampleTime informa percentiles: el objetivo es p99 por debajo de 1 ms en cada tipo de consulta
+@BenchmarkMode({ Mode.SampleTime, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(4)
+@State(Scope.Benchmark)
+public class BusquedaProductosBenchmark {
+
+	private static final String[] TIPOS = { "Remera", "Pantalón", "Camisa", "Zapatilla", "Buzo", "Campera", "Medias",
+			"Gorra", "Mochila", "Cinturón", "Bermuda", "Short", "Vestido", "Pollera", "Chaleco", "Sweater", "Musculosa",
+			"Jogging", "Bufanda", "Guantes", "Ojotas", "Botas", "Sandalias", "Calza", "Saco", "Corbata", "Pijama",
+			"Malla", "Riñonera", "Billetera" };
+	private static final String[] MATERIALES = { "algodón", "lino", "cuero", "jean", "lana", "seda", "poliéster",
+			"gabardina", "morley", "frisa", "polar", "corderoy", "gamuza", "lycra", "nylon" };
+	private static final String[] COLORES = { "azul", "negro", "blanco", "rojo", "verde", "gris", "beige", "marrón",
+			"celeste", "rosa", "violeta", "naranja", "amarillo", "bordó", "turquesa", "fucsia", "crema", "oliva",
+			"coral", "lila" };
+	private static final String[] TALLES = { "XS", "S", "M", "L", "XL", "XXL", "36", "38", "40", "42", "44", "46" };
+	private static final String[] SILABAS = { "ka", "lo", "mi", "ne", "ru", "ta", "vo", "zi", "bra", "fle", "gor",
+			"pun", "tri", "sol", "mar", "quen", "dal", "xio" };
+	private static final int MARCAS = 5_000;
+	private static final int MODELOS = 50_000;
+	private static final int CONSULTAS = 1_024;
+
+	@Param({ "1000000" })
+	public int productos;
+
+	// exacta: palabras completas; prefijo: como se tipean en caja; tipeo: una letra cambiada en la palabra mas larga
+	@Param({ "exacta", "prefijo", "tipeo" })
+	public String consulta;
+
+	private IndiceProductos indice;
+	private String[] consultas;
+
+	@Setup(Level.Trial)
+	public void preparar() {
+		String[] marcas = new String[MARCAS];
+		Random random = new Random(42);
+		for (int i = 0; i < MARCAS; i++) {
+			StringBuilder marca = new StringBuilder();
+			for (int j = 0, n = 2 + random.nextInt(2); j < n; j++) {
+				marca.append(SILABAS[random.nextInt(SILABAS.length)]);
+			}
+			marcas[i] = Character.toUpperCase(marca.charAt(0)) + marca.substring(1);
+		}
+
+		indice = new IndiceProductos();
+		indice.reconstruir(agregar -> {
+			Random nombres = new Random(7);
+			for (long id = 1; id <= productos; id++) {
+				agregar.accept(id, nombre(nombres, marcas));
+			}
+		});
+
+		Random elegir = new Random(11);
+		consultas = new String[CONSULTAS];
+		for (int i = 0; i < CONSULTAS; i++) {
+			List<String> palabras = List.of(nombre(elegir, marcas).split(" "));
+			// Tipo, marca y color: lo que suele tipear un cajero
+			String tipo = palabras.get(0);
+			String marca = palabras.get(1);
+			String color = palabras.get(3);
+			consultas[i] = switch (consulta) {
+				case "prefijo" -> prefijo(tipo, 3) + " " + prefijo(marca, 4) + " " + prefijo(color, 2);
+				case "tipeo" -> tipo + " " + conTipeo(marca, elegir) + " " + color;
+				default -> tipo + " " + marca + " " + color;
+			};
+		}
+	}
+
+	@Benchmark
+	public List<Long> buscar() {
+		return indice.buscar(consultas[ThreadLocalRandom.current().nextInt(CONSULTAS)], 20);
+	}
+
+	private static String nombre(Random random, String[] marcas) {
+		return TIPOS[random.nextInt(TIPOS.length)] + " " + marcas[random.nextInt(marcas.length)] + " "
+				+ MATERIALES[random.nextInt(MATERIALES.length)] + " " + COLORES[random.nextInt(COLORES.length)] + " "
+				+ TALLES[random.nextInt(TALLES.length)] + " MOD" + (1 + random.nextInt(MODELOS));
+	}
+
+	private static String prefijo(String palabra, int largo) {
+		return palabra.substring(0, Math.min(largo, palabra.length()));
+	}
+
+	// Cambia una letra que no sea la primera
+	private static String conTipeo(String palabra, Random random) {
+		int posicion = 1 + random.nextInt(palabra.length() - 1);
+		char reemplazo = palabra.charAt(posicion) == 'e' ? 'a' : 'e';
+		return palabra.substring(0, posicion) + reemplazo + palabra.substring(posicion + 1);
+	}
+}
@@ -0,0 +1,86 @@
+package com.coderhouse.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.coderhouse.config.ContadorSentencias;
+import com.coderhouse.dtos.VentaDTO;
+import com.coderhouse.models.Cliente;
+
+// Cache de segundo nivel de Producto y Cliente: las mismas operaciones con la cache activa y desactivada.
+// El contador auxiliar "sentencias" sale como sentencias de Hibernate por ms: dividido por el throughput
+// de la operacion da las sentencias por operacion
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CacheSegundoNivelBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class ContextoCache extends ContextoBenchmark {
+
+		@Param({ "true", "false" })
+		public boolean segundoNivel;
+
+		List<Long> productos;
+		List<Integer> cantidades;
+
+		@Override
+		protected String[] propiedadesAdicionales() {
+			return new String[] { "spring.jpa.properties.hibernate.cache.use_second_level_cache=" + segundoNivel,
+					"spring.jpa.properties.hibernate.cache.use_query_cache=" + segundoNivel };
+		}
+
+		@Override
+		protected void alIniciar() {
+			productos = productosAlAzar(new Random(7), 10);
+			cantidades = Collections.nCopies(productos.size(), 1);
+		}
+	}
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Sentencias {
+
+		public long sentencias;
+
+		void reiniciar() {
+			ContadorSentencias.reiniciar();
+		}
+
+		void sumar() {
+			sentencias += ContadorSentencias.cantidad();
+		}
+	}
+
+	@Benchmark
+	public VentaDTO newVenta(ContextoCache contexto, Sentencias sentencias) {
+		sentencias.reiniciar();
+		VentaDTO venta = contexto.ventaService.newVenta(contexto.clienteAlAzar(), contexto.productos, contexto.cantidades);
+		sentencias.sumar();
+		return venta;
+	}
+
+	@Benchmark
+	public Cliente getClienteById(ContextoCache contexto, Sentencias sentencias) {
+		sentencias.reiniciar();
+		Cliente cliente = contexto.clienteService.getClienteById(contexto.clienteAlAzar());
+		sentencias.sumar();
+		return cliente;
+	}
+}
@@ -0,0 +1,164 @@
+package com.coderhouse.benchmarks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.coderhouse.FacturacionApplication;
+import com.coderhouse.dtos.ProductoDTO;
+import com.coderhouse.dtos.ResultadoVentaDTO;
+import com.coderhouse.dtos.VentaDTO;
+import com.coderhouse.models.Cliente;
+import com.coderhouse.models.Producto;
+import com.coderhouse.repositories.ClienteRepository;
+import com.coderhouse.repositories.ProductoRepository;
+import com.coderhouse.services.ClienteService;
+import com.coderhouse.services.ProductoService;
+import com.coderhouse.services.VentaLoteService;
+import com.coderhouse.services.VentaService;
+
+// Levanta la aplicacion sin servidor web contra una base H2 en memoria y la carga con un volumen
+// de datos parecido al de produccion. Se crea una vez por fork y la comparten los benchmarks
+@State(Scope.Benchmark)
+public class ContextoBenchmark {
+
+	public static final int CLIENTES = 2_000;
+	public static final int PRODUCTOS = 1_000;
+	public static final int VENTAS = 20_000;
+	// Lineas por venta de los datos iniciales (entre 1 y este valor)
+	public static final int MAXIMO_LINEAS = 10;
+
+	// Stock alto para que las ventas de los benchmarks nunca lo agoten
+	private static final int STOCK_INICIAL = 1_000_000_000;
+	private static final int BLOQUE_CARGA = 5_000;
+
+	private ConfigurableApplicationContext contexto;
+
+	public VentaService ventaService;
+	public VentaLoteService ventaLoteService;
+	public ProductoService productoService;
+	public ClienteService clienteService;
+
+	public final List<Long> clienteIds = new ArrayList<>();
+	public final List<Long> productoIds = new ArrayList<>();
+	public final List<Long> ventaIds = new ArrayList<>();
+
+	@Setup(Level.Trial)
+	public void iniciar() {
+		contexto = new SpringApplicationBuilder(FacturacionApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties(
+						"spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+						"spring.datasource.username=sa",
+						"spring.datasource.password=",
+						"spring.jpa.hibernate.ddl-auto=create-drop",
+						"spring.jpa.show-sql=false",
+						"spring.jpa.properties.hibernate.generate_statistics=false",
+						"facturacion.fecha.sincronizacion.habilitada=false",
+						"logging.level.root=WARN")
+				.properties(propiedadesAdicionales())
+				.run();
+
+		ventaService = contexto.getBean(VentaService.class);
+		ventaLoteService = contexto.getBean(VentaLoteService.class);
+		productoService = contexto.getBean(ProductoService.class);
+		clienteService = contexto.getBean(ClienteService.class);
+
+		cargarDatos();
+		alIniciar();
+	}
+
+	// Propiedades que agregan los benchmarks que necesitan otra configuracion de la aplicacion
+	protected String[] propiedadesAdicionales() {
+		return new String[0];
+	}
+
+	// Preparacion propia de los benchmarks que extienden este estado, con los datos ya cargados
+	protected void alIniciar() {
+	}
+
+	public <T> T getBean(Class<T> tipo) {
+		return contexto.getBean(tipo);
+	}
+
+	@TearDown(Level.Trial)
+	public void cerrar() {
+		contexto.close();
+	}
+
+	private void cargarDatos() {
+		// Semilla fija para que todas las ejecuciones trabajen sobre los mismos datos
+		Random random = new Random(42);
+
+		List<Cliente> clientes = new ArrayList<>();
+		for (int i = 0; i < CLIENTES; i++) {
+			Cliente cliente = new Cliente();
+			cliente.setNombre("Nombre" + i);
+			cliente.setApellido("Apellido" + i);
+			cliente.setEmail("cliente" + i + "@benchmark.com");
+			clientes.add(cliente);
+		}
+		contexto.getBean(ClienteRepository.class).saveAll(clientes).forEach(c -> clienteIds.add(c.getId()));
+
+		List<Producto> productos = new ArrayList<>();
+		for (int i = 0; i < PRODUCTOS; i++) {
+			Producto producto = new Producto();
+			producto.setNombre("Producto " + i);
+			producto.setPrecio(100 + random.nextInt(10_000));
+			producto.setStock(STOCK_INICIAL);
+			productos.add(producto);
+		}
+		contexto.getBean(ProductoRepository.class).saveAll(productos).forEach(p -> productoIds.add(p.getId()));
+
+		List<VentaDTO> bloque = new ArrayList<>();
+		for (int i = 0; i < VENTAS; i++) {
+			int cantidadLineas = 1 + random.nextInt(MAXIMO_LINEAS);
+			List<ProductoDTO> lineas = new ArrayList<>();
+			for (Long productoId : productosAlAzar(random, cantidadLineas)) {
+				lineas.add(new ProductoDTO(productoId, null, 0, 1 + random.nextInt(5)));
+			}
+			bloque.add(new VentaDTO(null, clienteIds.get(random.nextInt(CLIENTES)), null, null, null, lineas, null));
+			if (bloque.size() == BLOQUE_CARGA || i == VENTAS - 1) {
+				for (ResultadoVentaDTO resultado : ventaLoteService.newVentas(bloque)) {
+					if (ResultadoVentaDTO.CREADA.equals(resultado.getEstado())) {
+						ventaIds.add(resultado.getVenta().getId());
+					}
+				}
+				bloque.clear();
+			}
+		}
+	}
+
+	// Productos distintos elegidos al azar, como en una venta real
+	public List<Long> productosAlAzar(Random random, int cantidad) {
+		Set<Long> elegidos = new LinkedHashSet<>();
+		while (elegidos.size() < cantidad) {
+			elegidos.add(productoIds.get(random.nextInt(productoIds.size())));
+		}
+		return new ArrayList<>(elegidos);
+	}
+
+	public Long clienteAlAzar() {
+		return clienteIds.get(ThreadLocalRandom.current().nextInt(clienteIds.size()));
+	}
+
+	public Long productoAlAzar() {
+		return productoIds.get(ThreadLocalRandom.current().nextInt(productoIds.size()));
+	}
+
+	public Long ventaAlAzar() {
+		return ventaIds.get(ThreadLocalRandom.current().nextInt(ventaIds.size()));
+	}
+}
@@ -0,0 +1,78 @@
+package com.coderhouse.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.coderhouse.models.Producto;
+import com.coderhouse.repositories.ProductoRepository;
+import com.coderhouse.services.StockService;
+
+// Descuento de stock de un mismo producto desde muchos hilos: el UPDATE ... WHERE stock >= cantidad
+// contra el codigo anterior, que leia el producto, validaba el stock en Java y lo guardaba
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(16)
+public class DescuentoStockBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class ContextoDescuento extends ContextoBenchmark {
+
+		StockService stockService;
+		ProductoRepository productoRepository;
+		TransactionTemplate transactionTemplate;
+		Map<Long, Integer> descuento;
+		Long productoId;
+
+		@Override
+		protected String[] propiedadesAdicionales() {
+			return new String[] { "spring.datasource.hikari.maximum-pool-size=20" };
+		}
+
+		@Override
+		protected void alIniciar() {
+			stockService = getBean(StockService.class);
+			productoRepository = getBean(ProductoRepository.class);
+			transactionTemplate = getBean(TransactionTemplate.class);
+
+			// Stock suficiente para que ningun descuento se rechace durante la medicion
+			Producto producto = new Producto();
+			producto.setNombre("Producto demandado");
+			producto.setPrecio(100);
+			producto.setStock(Integer.MAX_VALUE / 2);
+			productoId = productoService.newProducto(producto).getId();
+			descuento = Map.of(productoId, 1);
+		}
+	}
+
+	@Benchmark
+	public void descuentoCondicional(ContextoDescuento contexto) {
+		contexto.transactionTemplate.executeWithoutResult(s -> contexto.stockService.ajustar(contexto.descuento));
+	}
+
+	@Benchmark
+	public void lecturaYEscritura(ContextoDescuento contexto) {
+		contexto.transactionTemplate.executeWithoutResult(s -> {
+			Producto producto = contexto.productoRepository.findById(contexto.productoId).orElseThrow();
+			if (producto.getStock() < 1) {
+				throw new IllegalArgumentException("Stock insuficiente o cantidad no válida");
+			}
+			producto.setStock(producto.getStock() - 1);
+			contexto.productoRepository.save(producto);
+		});
+	}
+}
@@ -0,0 +1,126 @@
+package com.coderhouse.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.coderhouse.dtos.ProductoDTO;
+import com.coderhouse.dtos.VentaDTO;
+import com.coderhouse.dtos.VentaPaginaDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+// Serializacion de una pagina de 10.000 ventas en JSON, Smile y CBOR, con y sin gzip.
+// No levanta la aplicacion: mide solo el costo de CPU de escribir y leer el cuerpo de la respuesta.
+// Los bytes que viajan por la red salen en el contador auxiliar "bytes" de escribir
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class FormatosRespuestaBenchmark {
+
+	private static final int VENTAS = 10_000;
+	private static final int MAXIMO_LINEAS = 5;
+
+	@Param({ "json", "smile", "cbor" })
+	public String formato;
+
+	@Param({ "false", "true" })
+	public boolean gzip;
+
+	private ObjectMapper mapper;
+	private VentaPaginaDTO pagina;
+	private byte[] cuerpo;
+
+	@Setup(Level.Trial)
+	public void preparar() throws IOException {
+		// Mismo builder que usa FormatosRespuestaConfig para los conversores de la aplicacion
+		Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+		switch (formato) {
+			case "smile" -> builder.factory(new SmileFactory());
+			case "cbor" -> builder.factory(new CBORFactory());
+			default -> { }
+		}
+		mapper = builder.build();
+		pagina = paginaAlAzar(new Random(42));
+		cuerpo = serializar();
+	}
+
+	// Tamanio del cuerpo de una pagina. Se asigna en lugar de sumarse: como evento sale tal cual en el resultado
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Tamanio {
+
+		public long bytes;
+	}
+
+	@Benchmark
+	public byte[] escribir(Tamanio tamanio) throws IOException {
+		byte[] escrito = serializar();
+		tamanio.bytes = escrito.length;
+		return escrito;
+	}
+
+	private byte[] serializar() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 20);
+		try (OutputStream salida = gzip ? new GZIPOutputStream(bytes) : bytes) {
+			mapper.writeValue(salida, pagina);
+		}
+		return bytes.toByteArray();
+	}
+
+	// Lo que paga el cliente al recibir la misma pagina
+	@Benchmark
+	public VentaPaginaDTO leer() throws IOException {
+		try (InputStream entrada = gzip ? new GZIPInputStream(new ByteArrayInputStream(cuerpo))
+				: new ByteArrayInputStream(cuerpo)) {
+			return mapper.readValue(entrada, VentaPaginaDTO.class);
+		}
+	}
+
+	private static VentaPaginaDTO paginaAlAzar(Random random) {
+		List<VentaDTO> ventas = new ArrayList<>(VENTAS);
+		for (int i = 1; i <= VENTAS; i++) {
+			long clienteId = 1 + random.nextInt(1_000);
+			List<ProductoDTO> lineas = new ArrayList<>();
+			int total = 0;
+			for (int j = 0, n = 1 + random.nextInt(MAXIMO_LINEAS); j < n; j++) {
+				long productoId = 1 + random.nextInt(5_000);
+				int precio = 100 + random.nextInt(10_000);
+				int cantidad = 1 + random.nextInt(5);
+				lineas.add(new ProductoDTO(productoId, "Producto " + productoId, precio, cantidad));
+				total += precio * cantidad;
+			}
+			String fecha = String.format("%02d/%02d/2025 %02d:%02d", 1 + random.nextInt(12), 1 + random.nextInt(28),
+					random.nextInt(24), random.nextInt(60));
+			ventas.add(new VentaDTO((long) i, clienteId, "Cliente" + clienteId, "Apellido" + clienteId, fecha, lineas, total));
+		}
+		return new VentaPaginaDTO(ventas, (long) VENTAS);
+	}
+}
@@ -0,0 +1,85 @@
+package com.coderhouse.benchmarks;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.coderhouse.config.SentenciasPorPeticionFilter;
+import com.coderhouse.dtos.VentaDTO;
+
+import jakarta.servlet.ServletException;
+
+// Costo de la instrumentacion: los mismos llamados con las metricas activas y desactivadas
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class MetricasBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class ContextoInstrumentado extends ContextoBenchmark {
+
+		@Param({ "true", "false" })
+		public boolean instrumentacion;
+
+		List<Long> productos;
+		List<Integer> cantidades;
+		SentenciasPorPeticionFilter filtro;
+		MockHttpServletRequest request;
+
+		@Override
+		protected String[] propiedadesAdicionales() {
+			if (instrumentacion) {
+				return new String[0];
+			}
+			// Sin el aspecto de @Timed y con todos los medidores reemplazados por implementaciones vacias
+			return new String[] { "management.observations.annotations.enabled=false",
+					"management.metrics.enable.all=false" };
+		}
+
+		@Override
+		protected void alIniciar() {
+			productos = productosAlAzar(new Random(7), 10);
+			cantidades = Collections.nCopies(productos.size(), 1);
+			filtro = getBean(SentenciasPorPeticionFilter.class);
+			request = new MockHttpServletRequest("GET", "/api/ventas/1");
+			request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/ventas/{id}");
+		}
+	}
+
+	@Benchmark
+	public VentaDTO getVentaById(ContextoInstrumentado contexto) {
+		return contexto.ventaService.getVentaById(contexto.ventaAlAzar());
+	}
+
+	@Benchmark
+	public VentaDTO newVenta(ContextoInstrumentado contexto) {
+		return contexto.ventaService.newVenta(contexto.clienteAlAzar(), contexto.productos, contexto.cantidades);
+	}
+
+	// Lo que agrega el filtro de sentencias a cada peticion, sin el resto del procesamiento
+	@Benchmark
+	public MockHttpServletResponse filtroSentencias(ContextoInstrumentado contexto) throws ServletException, IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		contexto.filtro.doFilter(contexto.request, response, new MockFilterChain());
+		return response;
+	}
+}
@@ -0,0 +1,57 @@
+package com.coderhouse.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.coderhouse.dtos.VentaDTO;
+
+// Creacion de ventas con 1, 10 y 100 lineas
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class NuevaVentaBenchmark {
+
+	// Ventas distintas que se van alternando para no repetir siempre los mismos productos
+	private static final int VARIANTES = 64;
+
+	@Param({ "1", "10", "100" })
+	private int lineas;
+
+	private final List<List<Long>> productos = new ArrayList<>();
+	private List<Integer> cantidades;
+	private int siguiente;
+
+	@Setup(Level.Trial)
+	public void preparar(ContextoBenchmark contexto) {
+		Random random = new Random(7);
+		for (int i = 0; i < VARIANTES; i++) {
+			productos.add(contexto.productosAlAzar(random, lineas));
+		}
+		cantidades = Collections.nCopies(lineas, 1);
+	}
+
+	@Benchmark
+	public VentaDTO newVenta(ContextoBenchmark contexto) {
+		List<Long> productoIds = productos.get(siguiente++ % VARIANTES);
+		return contexto.ventaService.newVenta(contexto.clienteAlAzar(), productoIds, cantidades);
+	}
+}
@@ -0,0 +1,87 @@
+package com.coderhouse.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.coderhouse.models.Cliente;
+import com.coderhouse.models.Producto;
+
+// Alta, lectura, modificacion y baja de productos y clientes
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ProductoClienteBenchmark {
+
+	// Sufijo para que los emails de los clientes creados no se repitan
+	private static final AtomicLong SECUENCIA = new AtomicLong();
+
+	@Benchmark
+	public Producto getProductoById(ContextoBenchmark contexto) {
+		return contexto.productoService.getProductoById(contexto.productoAlAzar());
+	}
+
+	@Benchmark
+	public List<Producto> getAllProductos(ContextoBenchmark contexto) {
+		return contexto.productoService.getAllProductos();
+	}
+
+	@Benchmark
+	public Producto updateProductoById(ContextoBenchmark contexto) {
+		Producto cambios = new Producto();
+		cambios.setPrecio(100 + (int) (SECUENCIA.incrementAndGet() % 10_000));
+		cambios.setStock(1_000_000_000);
+		return contexto.productoService.updateProductoById(contexto.productoAlAzar(), cambios);
+	}
+
+	// Ciclo completo: crear, modificar y eliminar un producto nuevo
+	@Benchmark
+	public Producto crudProducto(ContextoBenchmark contexto) {
+		Producto producto = new Producto();
+		producto.setNombre("Producto benchmark");
+		producto.setPrecio(500);
+		producto.setStock(10);
+		producto = contexto.productoService.newProducto(producto);
+
+		Producto cambios = new Producto();
+		cambios.setNombre("Producto benchmark modificado");
+		cambios.setStock(20);
+		producto = contexto.productoService.updateProductoById(producto.getId(), cambios);
+
+		contexto.productoService.deleteProductoById(producto.getId());
+		return producto;
+	}
+
+	@Benchmark
+	public Cliente getClienteById(ContextoBenchmark contexto) {
+		return contexto.clienteService.getClienteById(contexto.clienteAlAzar());
+	}
+
+	// Ciclo completo: crear, modificar y eliminar un cliente nuevo
+	@Benchmark
+	public Cliente crudCliente(ContextoBenchmark contexto) {
+		long numero = SECUENCIA.incrementAndGet();
+		Cliente cliente = new Cliente();
+		cliente.setNombre("Nombre");
+		cliente.setApellido("Apellido");
+		cliente.setEmail("nuevo" + numero + "@benchmark.com");
+		cliente = contexto.clienteService.newCliente(cliente);
+
+		Cliente cambios = new Cliente();
+		cambios.setApellido("Modificado");
+		cliente = contexto.clienteService.updateClienteById(cliente.getId(), cambios);
+
+		contexto.clienteService.deleteClienteById(cliente.getId());
+		return cliente;
+	}
+}
@@ -0,0 +1,62 @@
+package com.coderhouse.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.coderhouse.dtos.VentaDTO;
+import com.coderhouse.models.Producto;
+
+// Venta flash: muchos hilos comprando el mismo producto, con el descuento condicional en la base
+// y con las reservas de stock en memoria
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(16)
+public class ProductoDemandadoBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class ContextoProductoDemandado extends ContextoBenchmark {
+
+		@Param({ "false", "true" })
+		public boolean reservas;
+
+		List<Long> productos;
+		List<Integer> cantidades;
+
+		@Override
+		protected String[] propiedadesAdicionales() {
+			return new String[] { "facturacion.stock.reservas.habilitado=" + reservas,
+					"spring.datasource.hikari.maximum-pool-size=20" };
+		}
+
+		@Override
+		protected void alIniciar() {
+			// Stock suficiente para que ninguna venta se rechace durante la medicion
+			Producto producto = new Producto();
+			producto.setNombre("Producto demandado");
+			producto.setPrecio(100);
+			producto.setStock(Integer.MAX_VALUE / 2);
+			productos = List.of(productoService.newProducto(producto).getId());
+			cantidades = List.of(1);
+		}
+	}
+
+	@Benchmark
+	public VentaDTO newVenta(ContextoProductoDemandado contexto) {
+		return contexto.ventaService.newVenta(contexto.clienteAlAzar(), contexto.productos, contexto.cantidades);
+	}
+}
@@ -0,0 +1,62 @@
+package com.coderhouse.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.coderhouse.dtos.ProductoDTO;
+import com.coderhouse.dtos.VentaDTO;
+import com.coderhouse.dtos.VentaPaginaDTO;
+
+// Lectura y actualizacion de ventas existentes
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class VentaConsultaBenchmark {
+
+	// Tamaño de pagina por defecto del endpoint GET /api/ventas
+	private static final int PAGINA = 50;
+
+	@Benchmark
+	public VentaDTO getVentaById(ContextoBenchmark contexto) {
+		return contexto.ventaService.getVentaById(contexto.ventaAlAzar());
+	}
+
+	@Benchmark
+	public VentaPaginaDTO getAllVentasPrimeraPagina(ContextoBenchmark contexto) {
+		return contexto.ventaService.getAllVentas(null, PAGINA, null);
+	}
+
+	@Benchmark
+	public VentaPaginaDTO getAllVentasPaginaAlAzar(ContextoBenchmark contexto) {
+		return contexto.ventaService.getAllVentas(contexto.ventaAlAzar(), PAGINA, null);
+	}
+
+	@Benchmark
+	public VentaPaginaDTO getAllVentasPorCliente(ContextoBenchmark contexto) {
+		return contexto.ventaService.getAllVentas(null, PAGINA, contexto.clienteAlAzar());
+	}
+
+	// Reemplaza las lineas de una venta por otras tantas con cantidades distintas
+	@Benchmark
+	public VentaDTO updateVentaById(ContextoBenchmark contexto) {
+		int cantidadLineas = 1 + ThreadLocalRandom.current().nextInt(ContextoBenchmark.MAXIMO_LINEAS);
+		List<ProductoDTO> lineas = new ArrayList<>();
+		for (int i = 0; i < cantidadLineas; i++) {
+			lineas.add(new ProductoDTO(contexto.productoAlAzar(), null, 0, 1 + ThreadLocalRandom.current().nextInt(5)));
+		}
+		return contexto.ventaService.updateVentaById(contexto.ventaAlAzar(),
+				new VentaDTO(null, null, null, null, null, lineas, null));
+	}
+}
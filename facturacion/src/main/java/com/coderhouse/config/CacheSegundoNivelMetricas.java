@@ -0,0 +1,67 @@
+package com.coderhouse.config;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+
+// Aciertos, fallos, tamaño y tasa de aciertos de cada region de la cache de segundo nivel de Hibernate,
+// para dimensionar las regiones de application.conf. Solo se registran con hibernate.generate_statistics=true
+@Component
+@ConditionalOnProperty(name = "spring.jpa.properties.hibernate.generate_statistics", havingValue = "true")
+public class CacheSegundoNivelMetricas implements MeterBinder {
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		for (String region : estadisticas.getSecondLevelCacheRegionNames()) {
+			FunctionCounter.builder("facturacion.cache.segundo.nivel", estadisticas, e -> aciertos(e, region))
+					.description("Lecturas de la cache de segundo nivel")
+					.tags("region", region, "resultado", "acierto")
+					.register(registry);
+			FunctionCounter.builder("facturacion.cache.segundo.nivel", estadisticas, e -> fallos(e, region))
+					.description("Lecturas de la cache de segundo nivel")
+					.tags("region", region, "resultado", "fallo")
+					.register(registry);
+			Gauge.builder("facturacion.cache.segundo.nivel.tasa", estadisticas, e -> tasa(e, region))
+					.description("Proporcion de lecturas resueltas desde la region")
+					.tag("region", region)
+					.register(registry);
+			Gauge.builder("facturacion.cache.segundo.nivel.entradas", estadisticas, e -> entradas(e, region))
+					.description("Entradas en memoria de la region")
+					.tag("region", region)
+					.register(registry);
+		}
+	}
+
+	private static double aciertos(Statistics estadisticas, String region) {
+		CacheRegionStatistics stats = estadisticas.getCacheRegionStatistics(region);
+		return stats == null ? 0 : stats.getHitCount();
+	}
+
+	private static double fallos(Statistics estadisticas, String region) {
+		CacheRegionStatistics stats = estadisticas.getCacheRegionStatistics(region);
+		return stats == null ? 0 : stats.getMissCount();
+	}
+
+	private static double tasa(Statistics estadisticas, String region) {
+		double lecturas = aciertos(estadisticas, region) + fallos(estadisticas, region);
+		return lecturas == 0 ? 0 : aciertos(estadisticas, region) / lecturas;
+	}
+
+	private static double entradas(Statistics estadisticas, String region) {
+		CacheRegionStatistics stats = estadisticas.getCacheRegionStatistics(region);
+		return stats == null ? 0 : Math.max(0, stats.getElementCountInMemory());
+	}
+}
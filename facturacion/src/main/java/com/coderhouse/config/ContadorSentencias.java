@@ -0,0 +1,24 @@
+package com.coderhouse.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Cuenta las sentencias SQL que prepara Hibernate en el hilo actual. Se registra con
+// hibernate.session_factory.statement_inspector; las consultas de JdbcTemplate no pasan por aca
+public class ContadorSentencias implements StatementInspector {
+
+	private static final ThreadLocal<int[]> CONTADOR = ThreadLocal.withInitial(() -> new int[1]);
+
+	@Override
+	public String inspect(String sql) {
+		CONTADOR.get()[0]++;
+		return sql;
+	}
+
+	public static void reiniciar() {
+		CONTADOR.get()[0] = 0;
+	}
+
+	public static int cantidad() {
+		return CONTADOR.get()[0];
+	}
+}
@@ -0,0 +1,70 @@
+package com.coderhouse.config;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.coderhouse.services.ResumenVentasService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+// Las ventas guardadas antes de existir fecha_hora solo tienen la fecha como texto. El estado de cuenta, el archivo
+// y los reportes filtran por fecha_hora sobre sus indices y no verian esas ventas: al iniciar se completa la columna
+// desde el texto, por bloques de ID. Las fechas que no se pueden interpretar quedan en NULL y se informan
+@Component
+public class FechasVentasInicializador {
+
+	private static final Logger log = LoggerFactory.getLogger(FechasVentasInicializador.class);
+
+	// El esquema lo crea o actualiza la fabrica de EntityManager, que se inyecta para que exista antes de completar
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Value("${facturacion.ventas.fechas.tamanio-bloque:1000}")
+	private int tamanioBloque;
+
+	@PostConstruct
+	void completar() {
+		long ultimoId = 0;
+		int completadas = 0;
+		int sinFecha = 0;
+		List<Object[]> bloque;
+		do {
+			bloque = jdbcTemplate.query("SELECT id, fecha FROM ventas WHERE fecha_hora IS NULL AND id > ? ORDER BY id LIMIT ?",
+					(rs, fila) -> new Object[] { rs.getLong("id"), rs.getString("fecha") }, ultimoId, tamanioBloque);
+			List<Object[]> actualizaciones = new ArrayList<>(bloque.size());
+			for (Object[] venta : bloque) {
+				LocalDateTime fechaHora = ResumenVentasService.parsearFecha((String) venta[1]);
+				if (fechaHora == null) {
+					sinFecha++;
+				} else {
+					actualizaciones.add(new Object[] { fechaHora, venta[0] });
+				}
+			}
+			if (!actualizaciones.isEmpty()) {
+				jdbcTemplate.batchUpdate("UPDATE ventas SET fecha_hora = ? WHERE id = ? AND fecha_hora IS NULL", actualizaciones);
+				completadas += actualizaciones.size();
+			}
+			if (!bloque.isEmpty()) {
+				ultimoId = (Long) bloque.get(bloque.size() - 1)[0];
+			}
+		} while (bloque.size() == tamanioBloque);
+
+		if (completadas > 0) {
+			log.info("fecha_hora completada en {} ventas a partir de la fecha", completadas);
+		}
+		if (sinFecha > 0) {
+			log.warn("{} ventas tienen una fecha que no se pudo interpretar y no aparecen en los filtros por fecha", sinFecha);
+		}
+	}
+}
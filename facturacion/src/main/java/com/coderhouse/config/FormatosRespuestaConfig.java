@@ -0,0 +1,135 @@
+package com.coderhouse.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+// Respuestas en CBOR (application/cbor) y Smile (application/x-jackson-smile) ademas de JSON, segun el Accept.
+// Se arman con el mismo Jackson2ObjectMapperBuilder que el JSON para que los tres formatos serialicen igual.
+// JSON sigue siendo el formato por defecto cuando el cliente acepta cualquiera.
+// Tomcat comprime toda respuesta de largo desconocido, por chica que sea: los tres convertidores juntan en memoria
+// hasta server.compression.min-response-size y, si el cuerpo termina antes, lo envian con Content-Length para que
+// salga sin comprimir. Las respuestas mas grandes se siguen escribiendo directo y no quedan enteras en memoria
+@Configuration
+public class FormatosRespuestaConfig {
+
+	@Value("${server.compression.min-response-size:2KB}")
+	private DataSize minimoCompresion;
+
+	@Bean
+	MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+		return new MappingJackson2HttpMessageConverter(objectMapper) {
+			@Override
+			protected void writeInternal(Object object, Type type, HttpOutputMessage salida) throws IOException {
+				escribirConLargo(salida, mensaje -> super.writeInternal(object, type, mensaje));
+			}
+		};
+	}
+
+	@Bean
+	MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build()) {
+			@Override
+			protected void writeInternal(Object object, Type type, HttpOutputMessage salida) throws IOException {
+				escribirConLargo(salida, mensaje -> super.writeInternal(object, type, mensaje));
+			}
+		};
+	}
+
+	// Smile guarda una referencia a los nombres de campo ya escritos, asi no se repiten en cada venta de la lista
+	@Bean
+	MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build()) {
+			@Override
+			protected void writeInternal(Object object, Type type, HttpOutputMessage salida) throws IOException {
+				escribirConLargo(salida, mensaje -> super.writeInternal(object, type, mensaje));
+			}
+		};
+	}
+
+	// Escritura de un convertidor sobre el mensaje que le pasa escribirConLargo
+	@FunctionalInterface
+	private interface Escritura {
+		void escribir(HttpOutputMessage mensaje) throws IOException;
+	}
+
+	private void escribirConLargo(HttpOutputMessage salida, Escritura escritura) throws IOException {
+		MensajeEnMemoria mensaje = new MensajeEnMemoria(salida, (int) minimoCompresion.toBytes());
+		escritura.escribir(mensaje);
+		mensaje.enviar();
+	}
+
+	// Junta el cuerpo en memoria hasta el limite. Si lo supera copia lo juntado a la respuesta y sigue escribiendo
+	// en ella sin largo; si no, enviar() lo copia con su largo
+	private static final class MensajeEnMemoria extends OutputStream implements HttpOutputMessage {
+
+		private final HttpOutputMessage salida;
+		private final int limite;
+		private final ByteArrayOutputStream cuerpo = new ByteArrayOutputStream();
+		private OutputStream directo;
+
+		MensajeEnMemoria(HttpOutputMessage salida, int limite) {
+			this.salida = salida;
+			this.limite = limite;
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return salida.getHeaders();
+		}
+
+		@Override
+		public OutputStream getBody() {
+			return this;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (directo == null && cuerpo.size() + len <= limite) {
+				cuerpo.write(b, off, len);
+				return;
+			}
+			if (directo == null) {
+				directo = salida.getBody();
+				cuerpo.writeTo(directo);
+			}
+			directo.write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			// Mientras esta en memoria no hay nada que enviar: el flush final de Jackson no debe fijar la respuesta
+			if (directo != null) {
+				directo.flush();
+			}
+		}
+
+		void enviar() throws IOException {
+			if (directo == null) {
+				salida.getHeaders().setContentLength(cuerpo.size());
+				cuerpo.writeTo(salida.getBody());
+			}
+		}
+	}
+}
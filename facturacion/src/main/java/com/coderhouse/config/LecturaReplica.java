@@ -0,0 +1,14 @@
+package com.coderhouse.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Metodo de servicio de solo lectura que puede resolverse en la replica.
+// Con facturacion.replica.habilitada=true corre en una transaccion de solo lectura (ver RuteoLecturaAspect);
+// sin la replica no cambia nada
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface LecturaReplica {
+}
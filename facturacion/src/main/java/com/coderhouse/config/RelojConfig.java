@@ -0,0 +1,58 @@
+package com.coderhouse.config;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RelojConfig {
+
+	// Reloj usado para fechar las ventas. Se puede reemplazar por otro bean Clock (por ejemplo en tests)
+	@Bean
+	Clock clock(@Value("${facturacion.fecha.zona:America/Argentina/Buenos_Aires}") String zona) {
+		return new RelojMonotono(ZoneId.of(zona));
+	}
+
+	// Reloj del sistema que nunca retrocede: si el reloj del sistema se atrasa (por ejemplo por NTP)
+	// devuelve el ultimo instante entregado hasta que el sistema lo alcance
+	static class RelojMonotono extends Clock {
+
+		private final ZoneId zona;
+		private final AtomicLong ultimoMillis;
+
+		RelojMonotono(ZoneId zona) {
+			this(zona, new AtomicLong());
+		}
+
+		private RelojMonotono(ZoneId zona, AtomicLong ultimoMillis) {
+			this.zona = zona;
+			this.ultimoMillis = ultimoMillis;
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return zona;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return new RelojMonotono(zone, ultimoMillis);
+		}
+
+		@Override
+		public long millis() {
+			long ahora = System.currentTimeMillis();
+			return ultimoMillis.accumulateAndGet(ahora, Math::max);
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(millis());
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package com.coderhouse.config;
+
+import java.time.Clock;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+// Primario y replica con su propio pool. JPA, JdbcTemplate y el resto de la aplicacion usan el DataSource
+// de ruteo; las escrituras y todo lo que no sea @LecturaReplica siguen yendo al primario
+@Configuration
+@ConditionalOnProperty(name = "facturacion.replica.habilitada", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+	// Primario: las mismas propiedades spring.datasource.* de siempre
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	HikariDataSource primarioDataSource(DataSourceProperties properties) {
+		return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	// Replica: facturacion.replica.datasource.* con los nombres de Hikari (jdbc-url, username, password, ...)
+	@Bean
+	@ConfigurationProperties("facturacion.replica.datasource")
+	HikariDataSource replicaDataSource() {
+		return new HikariDataSource();
+	}
+
+	@Bean
+	@Primary
+	DataSource dataSource(@Qualifier("primarioDataSource") DataSource primario,
+			@Qualifier("replicaDataSource") DataSource replica, ReplicaMonitor monitor, Clock clock) {
+		RuteoDataSource ruteo = new RuteoDataSource(monitor, clock);
+		ruteo.setTargetDataSources(
+				Map.<Object, Object>of(RuteoDataSource.PRIMARIO, primario, RuteoDataSource.REPLICA, replica));
+		ruteo.setDefaultTargetDataSource(primario);
+		ruteo.afterPropertiesSet();
+		return new LazyConnectionDataSourceProxy(ruteo);
+	}
+}
@@ -0,0 +1,122 @@
+package com.coderhouse.config;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+
+// Mide el retraso de la replica con un latido: escribe el instante actual en replica_latidos del primario
+// y lee el ultimo que llego a la replica. La replica tiene al menos todo lo confirmado antes de ese latido.
+// Los latidos se escriben con el reloj de esta instancia.
+// Las metricas se registran como MeterBinder porque el DataSource principal depende de este bean
+@Component
+@ConditionalOnProperty(name = "facturacion.replica.habilitada", havingValue = "true")
+public class ReplicaMonitor implements MeterBinder {
+
+	private static final Logger log = LoggerFactory.getLogger(ReplicaMonitor.class);
+
+	private static final String ACTUALIZAR = "UPDATE replica_latidos SET marca = ? WHERE id = 1";
+	private static final String INSERTAR = "INSERT INTO replica_latidos (id, marca) VALUES (1, ?)";
+	private static final String LEER = "SELECT marca FROM replica_latidos WHERE id = 1";
+	// Retraso informado mientras no se leyo ningun latido de la replica
+	private static final Duration SIN_LATIDO = Duration.ofSeconds(Long.MAX_VALUE);
+
+	@Autowired
+	@Qualifier("primarioDataSource")
+	private DataSource primario;
+	@Autowired
+	@Qualifier("replicaDataSource")
+	private DataSource replica;
+	@Autowired
+	private Clock clock;
+
+	// Retraso maximo aceptado para leer de la replica; debe ser mayor que el intervalo del latido
+	@Value("${facturacion.replica.tolerancia:5s}")
+	private Duration tolerancia;
+
+	private JdbcTemplate jdbcPrimario;
+	private JdbcTemplate jdbcReplica;
+
+	// Ultimo latido leido en la replica; -1 mientras no se pudo leer ninguno
+	private volatile long marcaReplica = -1;
+	private volatile MeterRegistry registry;
+
+	@PostConstruct
+	void iniciar() {
+		jdbcPrimario = new JdbcTemplate(primario);
+		jdbcReplica = new JdbcTemplate(replica);
+		// Una replica que no responde no debe trabar el latido
+		jdbcReplica.setQueryTimeout((int) Math.max(1, tolerancia.toSeconds()));
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		this.registry = registry;
+		Gauge.builder("facturacion.replica.retraso", this, m -> m.marcaReplica < 0 ? Double.NaN : m.getRetraso().toMillis())
+				.description("Retraso estimado de la replica, en milisegundos")
+				.register(registry);
+	}
+
+	@Scheduled(fixedDelayString = "${facturacion.replica.latido-ms:1000}")
+	public void latido() {
+		try {
+			long ahora = clock.millis();
+			if (jdbcPrimario.update(ACTUALIZAR, ahora) == 0) {
+				jdbcPrimario.update(INSERTAR, ahora);
+			}
+		} catch (DataAccessException e) {
+			log.warn("No se pudo escribir el latido en el primario: {}", e.getMessage());
+		}
+		try {
+			Long marca = jdbcReplica.queryForObject(LEER, Long.class);
+			if (marca != null) {
+				marcaReplica = marca;
+			}
+		} catch (DataAccessException e) {
+			log.warn("No se pudo leer el latido de la replica: {}", e.getMessage());
+		}
+	}
+
+	// Cota superior del retraso: el ultimo latido visto puede ser de hace un intervalo
+	public Duration getRetraso() {
+		long marca = marcaReplica;
+		return marca < 0 ? SIN_LATIDO : Duration.ofMillis(Math.max(0, clock.millis() - marca));
+	}
+
+	public boolean disponible() {
+		return getRetraso().compareTo(tolerancia) <= 0;
+	}
+
+	// true si la replica ya recibio lo confirmado en el primario hasta el instante indicado
+	public boolean contiene(long instanteMillis) {
+		return marcaReplica > instanteMillis;
+	}
+
+	public Duration getTolerancia() {
+		return tolerancia;
+	}
+
+	// Lecturas @LecturaReplica por destino y motivo de la eleccion
+	void contarLectura(String destino, String motivo) {
+		MeterRegistry actual = registry;
+		if (actual != null) {
+			actual.counter("facturacion.replica.lecturas", "destino", destino, "motivo", motivo).increment();
+		}
+	}
+}
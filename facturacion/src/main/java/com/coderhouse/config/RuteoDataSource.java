@@ -0,0 +1,164 @@
+package com.coderhouse.config;
+
+import java.time.Clock;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Elige primario o replica cada vez que se pide una conexion. Va detras de un LazyConnectionDataSourceProxy,
+// asi la conexion se pide con la transaccion ya iniciada y su marca de solo lectura visible.
+// Solo van a la replica las transacciones de solo lectura abiertas por un metodo @LecturaReplica, y solo si:
+// - el retraso de la replica esta dentro de la tolerancia
+// - la replica ya tiene la ultima escritura de la sesion (cookie facturacion-escritura)
+public class RuteoDataSource extends AbstractRoutingDataSource {
+
+	static final String PRIMARIO = "primario";
+	static final String REPLICA = "replica";
+	static final String COOKIE_ESCRITURA = "facturacion-escritura";
+
+	private static final ThreadLocal<Boolean> LECTURA = new ThreadLocal<>();
+
+	private final ReplicaMonitor monitor;
+	private final Clock clock;
+	// Clave para registrar una sola vez por transaccion la marca de escritura
+	private final Object escrituraRegistrada = new Object();
+
+	RuteoDataSource(ReplicaMonitor monitor, Clock clock) {
+		this.monitor = monitor;
+		this.clock = clock;
+	}
+
+	// Devuelve el estado anterior para restaurarlo con terminarLectura (metodos @LecturaReplica anidados)
+	static boolean iniciarLectura() {
+		boolean anterior = Boolean.TRUE.equals(LECTURA.get());
+		LECTURA.set(Boolean.TRUE);
+		return anterior;
+	}
+
+	static void terminarLectura(boolean anterior) {
+		if (anterior) {
+			LECTURA.set(Boolean.TRUE);
+		} else {
+			LECTURA.remove();
+		}
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+			return PRIMARIO;
+		}
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			registrarEscritura();
+			return PRIMARIO;
+		}
+		// Las transacciones de solo lectura de Spring Data (findById, findAll...) siguen en el primario
+		if (!Boolean.TRUE.equals(LECTURA.get())) {
+			return PRIMARIO;
+		}
+
+		if (!monitor.disponible()) {
+			monitor.contarLectura(PRIMARIO, "retraso");
+			return PRIMARIO;
+		}
+		Long escritura = escrituraDeLaSesion();
+		if (escritura != null && !monitor.contiene(escritura)) {
+			monitor.contarLectura(PRIMARIO, "escritura-propia");
+			return PRIMARIO;
+		}
+		sinPutsEnCache();
+		monitor.contarLectura(REPLICA, "al-dia");
+		return REPLICA;
+	}
+
+	// Lo leido de la replica puede estar atrasado: se consulta la cache de segundo nivel pero no se carga en ella.
+	// Con open-in-view la sesion sigue viva despues de la transaccion: el modo anterior se restaura al terminarla
+	private static void sinPutsEnCache() {
+		for (Object recurso : TransactionSynchronizationManager.getResourceMap().values()) {
+			if (recurso instanceof EntityManagerHolder holder) {
+				Session sesion = holder.getEntityManager().unwrap(Session.class);
+				CacheMode anterior = sesion.getCacheMode();
+				if (anterior == CacheMode.GET) {
+					continue;
+				}
+				sesion.setCacheMode(CacheMode.GET);
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+					@Override
+					public void afterCompletion(int status) {
+						if (sesion.isOpen()) {
+							sesion.setCacheMode(anterior);
+						}
+					}
+				});
+			}
+		}
+	}
+
+	// LECTURA DE LAS PROPIAS ESCRITURAS
+	// Al confirmar una transaccion de escritura dentro de una peticion se envia el instante en una cookie.
+	// Las lecturas siguientes de esa sesion van al primario hasta que la replica tenga un latido posterior
+	private void registrarEscritura() {
+		if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos)
+				|| atributos.getResponse() == null
+				|| !TransactionSynchronizationManager.isSynchronizationActive()
+				|| TransactionSynchronizationManager.hasResource(escrituraRegistrada)) {
+			return;
+		}
+		TransactionSynchronizationManager.bindResource(escrituraRegistrada, Boolean.TRUE);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				TransactionSynchronizationManager.unbindResourceIfPossible(escrituraRegistrada);
+				if (status == STATUS_COMMITTED) {
+					marcarEscritura(atributos.getRequest(), atributos.getResponse());
+				}
+			}
+		});
+	}
+
+	private void marcarEscritura(HttpServletRequest request, HttpServletResponse response) {
+		long instante = clock.millis();
+		// Tambien en la peticion, por si la misma peticion vuelve a leer
+		request.setAttribute(COOKIE_ESCRITURA, instante);
+		Cookie cookie = new Cookie(COOKIE_ESCRITURA, Long.toString(instante));
+		cookie.setPath("/");
+		cookie.setHttpOnly(true);
+		// Pasada la tolerancia dos veces, una replica al dia ya tiene la escritura
+		cookie.setMaxAge((int) Math.max(1, monitor.getTolerancia().multipliedBy(2).toSeconds()));
+		response.addCookie(cookie);
+	}
+
+	private static Long escrituraDeLaSesion() {
+		if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos)) {
+			return null;
+		}
+		HttpServletRequest request = atributos.getRequest();
+		if (request.getAttribute(COOKIE_ESCRITURA) instanceof Long instante) {
+			return instante;
+		}
+		Cookie[] cookies = request.getCookies();
+		if (cookies == null) {
+			return null;
+		}
+		for (Cookie cookie : cookies) {
+			if (COOKIE_ESCRITURA.equals(cookie.getName())) {
+				try {
+					return Long.valueOf(cookie.getValue());
+				} catch (NumberFormatException e) {
+					return null;
+				}
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,51 @@
+package com.coderhouse.config;
+
+import java.lang.reflect.UndeclaredThrowableException;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+
+// Corre los metodos @LecturaReplica en una transaccion de solo lectura marcada para RuteoDataSource.
+// Si ya hay una transaccion de escritura en curso el metodo participa de ella y sigue en el primario
+@Aspect
+@Component
+@ConditionalOnProperty(name = "facturacion.replica.habilitada", havingValue = "true")
+public class RuteoLecturaAspect {
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate lectura;
+
+	@PostConstruct
+	void iniciar() {
+		lectura = new TransactionTemplate(transactionManager);
+		lectura.setReadOnly(true);
+	}
+
+	@Around("@annotation(com.coderhouse.config.LecturaReplica)")
+	public Object enLectura(ProceedingJoinPoint punto) throws Throwable {
+		boolean anterior = RuteoDataSource.iniciarLectura();
+		try {
+			return lectura.execute(estado -> {
+				try {
+					return punto.proceed();
+				} catch (RuntimeException | Error e) {
+					throw e;
+				} catch (Throwable e) {
+					throw new UndeclaredThrowableException(e);
+				}
+			});
+		} finally {
+			RuteoDataSource.terminarLectura(anterior);
+		}
+	}
+}
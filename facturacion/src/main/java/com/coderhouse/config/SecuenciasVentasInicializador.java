@@ -0,0 +1,71 @@
+package com.coderhouse.config;
+
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.coderhouse.models.Venta;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+// Las ventas y sus lineas toman IDs de ventas_seq y venta_producto_seq. En una base que ya tenia ventas con IDs
+// autoincrementales, ddl-auto crea las secuencias empezando en 1 y los primeros bloques chocarian con las filas
+// existentes. Al iniciar, cada secuencia se lleva por encima del mayor ID guardado mas un bloque de asignacion
+@Component
+public class SecuenciasVentasInicializador {
+
+	private static final Logger log = LoggerFactory.getLogger(SecuenciasVentasInicializador.class);
+
+	// Tablas que usan los IDs de cada secuencia: el archivo conserva los IDs de las ventas que movio
+	private static final Map<String, List<String>> SECUENCIAS = Map.of(
+			"ventas_seq", List.of("ventas", "ventas_archivo"),
+			"venta_producto_seq", List.of("venta_producto", "venta_producto_archivo"));
+
+	// El esquema lo crea o actualiza la fabrica de EntityManager, que se inyecta para que exista antes de alinear
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@PostConstruct
+	void alinear() {
+		SequenceSupport soporte = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+				.getJdbcServices().getDialect().getSequenceSupport();
+		SECUENCIAS.forEach((secuencia, tablas) -> {
+			long maximo = 0;
+			for (String tabla : tablas) {
+				Long id = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + tabla, Long.class);
+				maximo = Math.max(maximo, id == null ? 0 : id);
+			}
+			if (maximo == 0) {
+				return;
+			}
+			// El optimizador entrega los IDs del bloque que termina en el valor leido: ese valor debe dejar
+			// el bloque entero por encima del maximo
+			long siguiente = maximo + Venta.ASIGNACION_IDS;
+			if (soporte.supportsSequences()) {
+				Long actual = jdbcTemplate.queryForObject(soporte.getSequenceNextValString(secuencia), Long.class);
+				if (actual < siguiente) {
+					jdbcTemplate.execute("ALTER SEQUENCE " + secuencia + " RESTART WITH " + siguiente);
+					log.info("Secuencia {} reiniciada en {} (mayor ID {})", secuencia, siguiente, maximo);
+				}
+			} else {
+				// MySQL no tiene secuencias: Hibernate usa una tabla de una fila. La condicion nunca la hace retroceder
+				// si otra instancia ya la adelanto
+				int actualizadas = jdbcTemplate.update("UPDATE " + secuencia + " SET next_val = ? WHERE next_val < ?",
+						siguiente, siguiente);
+				if (actualizadas > 0) {
+					log.info("Secuencia {} adelantada a {} (mayor ID {})", secuencia, siguiente, maximo);
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,47 @@
+package com.coderhouse.config;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Registra cuantas sentencias de Hibernate ejecuto cada peticion, por metodo y ruta del endpoint
+@Component
+public class SentenciasPorPeticionFilter extends OncePerRequestFilter {
+
+	// El builder se arma una sola vez: por peticion solo se busca la serie de sus etiquetas en el registro
+	private final Meter.MeterProvider<DistributionSummary> sentencias;
+
+	@Autowired
+	public SentenciasPorPeticionFilter(MeterRegistry registry) {
+		sentencias = DistributionSummary.builder("facturacion.hibernate.sentencias")
+				.description("Sentencias de Hibernate por peticion")
+				.publishPercentileHistogram()
+				.withRegistry(registry);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		ContadorSentencias.reiniciar();
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			// Se usa el patron de la ruta (/api/ventas/{id}) para no crear una serie por cada ID
+			Object ruta = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			sentencias.withTags(Tags.of("method", request.getMethod(), "uri", ruta == null ? "UNKNOWN" : ruta.toString()))
+					.record(ContadorSentencias.cantidad());
+		}
+	}
+}
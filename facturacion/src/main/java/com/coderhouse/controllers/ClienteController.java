@@ -1,8 +1,9 @@
 package com.coderhouse.controllers;
 
-import java.util.List;
+import java.time.LocalDate;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,12 +13,20 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.coderhouse.dtos.ClientePaginaDTO;
+import com.coderhouse.dtos.EliminacionClienteDTO;
+import com.coderhouse.dtos.EstadoCuentaDTO;
+import com.coderhouse.exceptions.ConflictoException;
+import com.coderhouse.exceptions.NoEncontradoException;
 import com.coderhouse.models.Cliente;
 import com.coderhouse.services.ClienteService;
+import com.coderhouse.services.VentaService;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -33,23 +42,33 @@ public class ClienteController {
 
 	@Autowired
 	private ClienteService clienteService;
+	@Autowired
+	private VentaService ventaService;
 	
-	//GET ALL CLIENTES
-	@Operation(summary = "Obtener lista de clientes", description = "Este endpoint devuelve una lista completa de los clientes registrados en el sistema")
+	//BUSCAR CLIENTES
+	@Operation(summary = "Buscar clientes", description = "Devuelve una pagina de clientes ordenada por apellido y nombre. "
+			+ "Filtra por prefijo de apellido y/o nombre, o por email exacto. "
+			+ "Para pedir la siguiente pagina se envia en 'cursor' el valor de 'siguienteCursor'")
 	@ApiResponses(value = {
-			@ApiResponse(responseCode = "200", description = "Lista de clientes obtenida correctamente",
-                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = Cliente.class),
-                            examples = @ExampleObject(value = "[{\"id\":1,\"nombre\":\"Valeria\",\"apellido\":\"Casatti\",\"email\":\"valeria@gmail.com\"}]"))),
-			@ApiResponse(responseCode = "404", description = "Error al obtener los clientes", content = @Content),
+			@ApiResponse(responseCode = "200", description = "Pagina de clientes obtenida correctamente",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ClientePaginaDTO.class),
+                            examples = @ExampleObject(value = "{\"clientes\":[{\"id\":1,\"nombre\":\"Valeria\",\"apellido\":\"Casatti\",\"email\":\"valeria@gmail.com\"}],"
+                            		+ "\"siguienteCursor\":\"Q2FzYXR0aQBWYWxlcmlhADE\"}"))),
+			@ApiResponse(responseCode = "400", description = "Cursor no valido", content = @Content),
 			@ApiResponse(responseCode = "500", description = "Error interno del servidor", content = @Content)
 	})
 	@GetMapping
-	public ResponseEntity<List<Cliente>> getAllClients() {
+	public ResponseEntity<ClientePaginaDTO> buscarClientes(
+			@Parameter(description = "Prefijo del apellido") @RequestParam(required = false) String apellido,
+			@Parameter(description = "Prefijo del nombre") @RequestParam(required = false) String nombre,
+			@Parameter(description = "Email exacto") @RequestParam(required = false) String email,
+			@Parameter(description = "Cursor de la pagina anterior") @RequestParam(required = false) String cursor,
+			@Parameter(description = "Cantidad maxima de clientes por pagina (1 a 100)") @RequestParam(defaultValue = "20") int size) {
 		try {
-			List<Cliente> clientes = clienteService.getAllClients();
+			ClientePaginaDTO clientes = clienteService.buscarClientes(apellido, nombre, email, cursor, size);
 			return ResponseEntity.ok(clientes); 
 		} catch(IllegalArgumentException e) {
-			return ResponseEntity.notFound().build();
+			return ResponseEntity.badRequest().build();
 		} catch (Exception e) {
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build(); 
 		}
@@ -76,6 +95,40 @@ public class ClienteController {
 		}
 	}
 	
+	//ESTADO DE CUENTA DEL CLIENTE
+	@Operation(summary = "Obtener las ventas de un cliente", description = "Devuelve el resumen de compras del cliente en el rango "
+			+ "(cantidad de ventas, total gastado y ultima compra) y sus ventas de la mas reciente a la mas antigua, incluidas las archivadas. "
+			+ "Para pedir la siguiente pagina se envia en 'after' el valor de 'siguienteCursor'; el resumen solo viene en la primera")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Estado de cuenta obtenido correctamente",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = EstadoCuentaDTO.class),
+                            examples = @ExampleObject(value = "{\"clienteId\":1,\"clienteNombre\":\"Valeria\",\"clienteApellido\":\"Casatti\","
+                            		+ "\"resumen\":{\"cantidadVentas\":12,\"totalGastado\":18500,\"ultimaCompra\":\"2025-01-17T15:30:00\"},"
+                            		+ "\"ventas\":[{\"id\":50,\"clienteId\":1,\"clienteNombre\":\"Valeria\",\"clienteApellido\":\"Casatti\","
+                            		+ "\"fecha\":\"2025/01/17\",\"productos\":[{\"id\":10,\"nombre\":\"Remera\",\"precio\":100,\"cantidad\":2}],\"total\":200}],"
+                            		+ "\"siguienteCursor\":50}"))),
+			@ApiResponse(responseCode = "400", description = "Rango de fechas o cursor no valido", content = @Content),
+			@ApiResponse(responseCode = "404", description = "Error al obtener el cliente", content = @Content),
+			@ApiResponse(responseCode = "500", description = "Error interno del servidor", content = @Content)
+	})
+	@GetMapping("/{id}/ventas")
+	public ResponseEntity<EstadoCuentaDTO> getVentasCliente(@PathVariable Long id,
+			@Parameter(description = "Primer dia del rango (inclusive)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+			@Parameter(description = "Ultimo dia del rango (inclusive)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+			@Parameter(description = "ID de la ultima venta recibida (cursor)") @RequestParam(required = false) Long after,
+			@Parameter(description = "Cantidad maxima de ventas por pagina (1 a 500)") @RequestParam(defaultValue = "50") int limit) {
+		try {
+			EstadoCuentaDTO estadoCuenta = ventaService.getEstadoCuenta(id, desde, hasta, after, limit);
+			return ResponseEntity.ok(estadoCuenta);
+		}catch(NoEncontradoException e) {
+			return ResponseEntity.notFound().build();
+		}catch(IllegalArgumentException e) {
+			return ResponseEntity.badRequest().build();
+		}catch(Exception e) {
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+	
 	//CREAR CLIENTE
 	@Operation(summary = "Crear un cliente", description = "Permite registrar un nuevo cliente en el sistema")
 	@ApiResponses(value = {
@@ -116,17 +169,48 @@ public class ClienteController {
 	}
 	
 	//ELIMINAR CLIENTE
-	@Operation(summary = "Eliminar un cliente", description = "Elimina un cliente del sistema según su ID")
+	@Operation(summary = "Eliminar un cliente", description = "Elimina un cliente y sus ventas reponiendo el stock. "
+			+ "Si el cliente tiene muchas ventas la eliminacion continua en segundo plano y se responde 202 con el avance. "
+			+ "Un cliente con ventas archivadas no se puede eliminar")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "204", description = "Cliente eliminado correctamente.", content = @Content),
+			@ApiResponse(responseCode = "202", description = "Eliminacion iniciada en segundo plano",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = EliminacionClienteDTO.class),
+                            examples = @ExampleObject(value = "{\"clienteId\":1,\"estado\":\"EN_CURSO\",\"ventasTotales\":50000,\"ventasEliminadas\":0,\"error\":null}"))),
 			@ApiResponse(responseCode = "404", description = "Error al obtener el cliente", content = @Content),
+			@ApiResponse(responseCode = "409", description = "El cliente tiene ventas archivadas", content = @Content),
 			@ApiResponse(responseCode = "500", description = "Error interno del servidor", content = @Content)
 	})
 	@DeleteMapping("/{id}")
-	public ResponseEntity<Void> deleteClienteById(@PathVariable Long id){
+	public ResponseEntity<EliminacionClienteDTO> deleteClienteById(@PathVariable Long id){
+		try {
+			EliminacionClienteDTO eliminacion = clienteService.deleteClienteById(id);
+			if(EliminacionClienteDTO.TERMINADA.equals(eliminacion.getEstado())) {
+				return ResponseEntity.noContent().build();
+			}
+			return ResponseEntity.status(HttpStatus.ACCEPTED).body(eliminacion);
+		}catch(IllegalArgumentException e) {
+			return ResponseEntity.notFound().build(); 
+		}catch(ConflictoException e) {
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
+		}catch(Exception e) {
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build(); 
+		}
+	}
+	
+	//AVANCE DE LA ELIMINACION
+	@Operation(summary = "Consultar la eliminacion de un cliente", description = "Devuelve el avance de una eliminacion en segundo plano")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Avance obtenido correctamente",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = EliminacionClienteDTO.class),
+                            examples = @ExampleObject(value = "{\"clienteId\":1,\"estado\":\"EN_CURSO\",\"ventasTotales\":50000,\"ventasEliminadas\":12000,\"error\":null}"))),
+			@ApiResponse(responseCode = "404", description = "No hay una eliminacion para el cliente", content = @Content),
+			@ApiResponse(responseCode = "500", description = "Error interno del servidor", content = @Content)
+	})
+	@GetMapping("/{id}/eliminacion")
+	public ResponseEntity<EliminacionClienteDTO> getEliminacionCliente(@PathVariable Long id){
 		try {
-			clienteService.deleteClienteById(id);
-			return ResponseEntity.noContent().build();
+			return ResponseEntity.ok(clienteService.getEliminacionCliente(id));
 		}catch(IllegalArgumentException e) {
 			return ResponseEntity.notFound().build(); 
 		}catch(Exception e) {
@@ -12,12 +12,15 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.coderhouse.dtos.CacheEstadisticasDTO;
 import com.coderhouse.models.Producto;
 import com.coderhouse.services.ProductoService;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -34,11 +37,14 @@ public class ProductoController {
 	private ProductoService productoService;
 	
 	//GET ALL PRODUCTOS
-	@Operation(summary = "Obtener lista de productos", description = "Este endpoint devuelve una lista completa de los productos registrados en el sistema")
+	@Operation(summary = "Obtener lista de productos", description = "Este endpoint devuelve una lista completa de los productos registrados en el sistema. "
+			+ "Con Accept: application/cbor o application/x-jackson-smile la lista se devuelve en formato binario")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200", description = "Lista de productos obtenida correctamente",
-                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = Producto.class),
-                            examples = @ExampleObject(value = "[{\"id\":1,\"nombre\":\"Remera\",\"precio\":100,\"stock\":2}]"))),
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = Producto.class),
+                            examples = @ExampleObject(value = "[{\"id\":1,\"nombre\":\"Remera\",\"precio\":100,\"stock\":2}]")),
+                    		@Content(mediaType = "application/cbor", schema = @Schema(implementation = Producto.class)),
+                    		@Content(mediaType = "application/x-jackson-smile", schema = @Schema(implementation = Producto.class))}),
 			@ApiResponse(responseCode = "404", description = "Error al obtener los productos", content = @Content),
 			@ApiResponse(responseCode = "500", description = "Error interno del servidor", content = @Content)
 	})
@@ -54,6 +60,43 @@ public class ProductoController {
 		}
 	}
 	
+	//BUSCAR PRODUCTOS POR NOMBRE
+	@Operation(summary = "Buscar productos por nombre", description = "Devuelve los productos cuyo nombre contiene todas las palabras buscadas, "
+			+ "sin distinguir mayusculas ni tildes. Cada palabra puede ser el comienzo de una palabra del nombre "
+			+ "y, desde 4 letras, tolera un error de tipeo. Los resultados van del mas al menos parecido")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Busqueda realizada correctamente",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = Producto.class),
+                            examples = @ExampleObject(value = "[{\"id\":1,\"nombre\":\"Remera\",\"precio\":100,\"stock\":2}]"))),
+			@ApiResponse(responseCode = "400", description = "Texto de busqueda vacio", content = @Content),
+			@ApiResponse(responseCode = "500", description = "Error interno del servidor", content = @Content)
+	})
+	@GetMapping("/search")
+	public ResponseEntity<List<Producto>> buscarProductos(
+			@Parameter(description = "Texto a buscar en el nombre del producto", example = "rem azul") @RequestParam String q,
+			@Parameter(description = "Cantidad maxima de resultados (1 a 100)") @RequestParam(defaultValue = "20") int limit) {
+		try {
+			List<Producto> productos = productoService.buscarProductos(q, limit);
+			return ResponseEntity.ok(productos);
+		}catch(IllegalArgumentException e) {
+			return ResponseEntity.badRequest().build();
+		}catch (Exception e) {
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build(); 
+		}
+	}
+	
+	//ESTADISTICAS DE LA CACHE DE PRODUCTOS
+	@Operation(summary = "Obtener estadisticas de la cache de productos", description = "Devuelve aciertos, fallos y desalojos de la cache en memoria de productos")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Estadisticas obtenidas correctamente",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CacheEstadisticasDTO.class),
+                            examples = @ExampleObject(value = "{\"aciertos\":950,\"fallos\":50,\"desalojos\":3,\"tasaAciertos\":0.95,\"tamanio\":120}")))
+	})
+	@GetMapping("/cache")
+	public ResponseEntity<CacheEstadisticasDTO> getEstadisticasCache() {
+		return ResponseEntity.ok(productoService.getEstadisticasCache());
+	}
+	
 	//GET PRODUCTO BY ID
 	@Operation(summary = "Obtener un producto por ID", description = "Devuelve los detalles de un producto específico según su ID")
 	@ApiResponses(value = {
@@ -0,0 +1,130 @@
+package com.coderhouse.controllers;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.coderhouse.dtos.ReconstruccionResumenDTO;
+import com.coderhouse.models.ResumenDiario;
+import com.coderhouse.models.ResumenDiarioCliente;
+import com.coderhouse.models.ResumenDiarioProducto;
+import com.coderhouse.services.ResumenVentasService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping("/api/reportes")
+@Tag(name="Reportes de ventas", description="Endpoints para consultar totales diarios de ventas")
+public class ReporteController {
+
+	private static final Logger log = LoggerFactory.getLogger(ReporteController.class);
+
+	@Autowired
+	private ResumenVentasService resumenVentasService;
+	
+	//RESUMEN DIARIO
+	@Operation(summary = "Obtener ventas por dia", description = "Devuelve ingresos, unidades y cantidad de ventas de cada dia del rango")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Resumen obtenido correctamente",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ResumenDiario.class),
+                            examples = @ExampleObject(value = "[{\"dia\":\"2025-01-17\",\"ingresos\":1500,\"unidades\":12,\"ventas\":3}]"))),
+			@ApiResponse(responseCode = "400", description = "Rango de fechas no valido", content = @Content),
+			@ApiResponse(responseCode = "500", description = "Error interno del servidor", content = @Content)
+	})
+	@GetMapping("/diario")
+	public ResponseEntity<List<ResumenDiario>> getResumenDiario(
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+		try {
+			if(desde.isAfter(hasta)) {
+				return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+			}
+			return ResponseEntity.ok(resumenVentasService.getResumenDiario(desde, hasta));
+		}catch(Exception e) {
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+	
+	//RESUMEN DIARIO POR CLIENTE
+	@Operation(summary = "Obtener ventas por dia de un cliente", description = "Devuelve los totales diarios de un cliente en el rango")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Resumen obtenido correctamente",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ResumenDiarioCliente.class),
+                            examples = @ExampleObject(value = "[{\"clienteId\":1,\"dia\":\"2025-01-17\",\"ingresos\":500,\"unidades\":4,\"ventas\":1}]"))),
+			@ApiResponse(responseCode = "400", description = "Rango de fechas no valido", content = @Content),
+			@ApiResponse(responseCode = "500", description = "Error interno del servidor", content = @Content)
+	})
+	@GetMapping("/clientes/{id}")
+	public ResponseEntity<List<ResumenDiarioCliente>> getResumenCliente(@PathVariable Long id,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+		try {
+			if(desde.isAfter(hasta)) {
+				return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+			}
+			return ResponseEntity.ok(resumenVentasService.getResumenCliente(id, desde, hasta));
+		}catch(Exception e) {
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+	
+	//RESUMEN DIARIO POR PRODUCTO
+	@Operation(summary = "Obtener ventas por dia de un producto", description = "Devuelve los totales diarios de un producto en el rango")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Resumen obtenido correctamente",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ResumenDiarioProducto.class),
+                            examples = @ExampleObject(value = "[{\"productoId\":10,\"dia\":\"2025-01-17\",\"ingresos\":200,\"unidades\":2,\"ventas\":1}]"))),
+			@ApiResponse(responseCode = "400", description = "Rango de fechas no valido", content = @Content),
+			@ApiResponse(responseCode = "500", description = "Error interno del servidor", content = @Content)
+	})
+	@GetMapping("/productos/{id}")
+	public ResponseEntity<List<ResumenDiarioProducto>> getResumenProducto(@PathVariable Long id,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+		try {
+			if(desde.isAfter(hasta)) {
+				return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+			}
+			return ResponseEntity.ok(resumenVentasService.getResumenProducto(id, desde, hasta));
+		}catch(Exception e) {
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+	
+	//RECONSTRUIR RESUMENES
+	@Operation(summary = "Recalcular resumenes", description = "Recalcula los resumenes diarios desde las ventas, "
+			+ "informa cuantas filas no coincidian con el estado incremental y las corrige")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Resumenes recalculados correctamente",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ReconstruccionResumenDTO.class),
+                            examples = @ExampleObject(value = "{\"fechasCompletadas\":120,\"ventasSinFecha\":0,\"filas\":3650,\"diferencias\":0}"))),
+			@ApiResponse(responseCode = "500", description = "Error interno del servidor", content = @Content)
+	})
+	@PostMapping("/reconstruir")
+	public ResponseEntity<ReconstruccionResumenDTO> reconstruir() {
+		try {
+			return ResponseEntity.ok(resumenVentasService.reconstruir());
+		}catch(Exception e) {
+			log.error("Error al reconstruir los resumenes", e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+}
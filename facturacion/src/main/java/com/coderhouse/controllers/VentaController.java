@@ -1,9 +1,17 @@
 package com.coderhouse.controllers;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.Callable;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,20 +19,37 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.coderhouse.dtos.ProductoDTO;
+import com.coderhouse.dtos.ResultadoVentaDTO;
 import com.coderhouse.dtos.VentaDTO;
+import com.coderhouse.dtos.VentaPaginaDTO;
+import com.coderhouse.exceptions.ConflictoException;
+import com.coderhouse.exceptions.IdempotenciaConflictoException;
+import com.coderhouse.services.IdempotenciaService;
+import com.coderhouse.services.VentaExportService;
+import com.coderhouse.services.VentaLoteService;
+import com.coderhouse.services.VentaMetricas;
 import com.coderhouse.services.VentaService;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 
 
 @RestController
@@ -32,28 +57,54 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 @Tag(name="Gestion de ventas", description="Endpoints para gestionar ventas en el sistema")
 public class VentaController {
 
+	private static final Logger log = LoggerFactory.getLogger(VentaController.class);
+
+	private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+	private static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+	private static final String EXPORTACION = "exportacion";
+
 	@Autowired
 	private VentaService ventaService;
+	@Autowired
+	private VentaLoteService ventaLoteService;
+	@Autowired
+	private VentaExportService ventaExportService;
+	@Autowired
+	private VentaMetricas ventaMetricas;
+	@Autowired
+	private IdempotenciaService idempotenciaService;
+
+	// Tiempo maximo de una exportacion, que escribe todas las ventas en la misma respuesta
+	@Value("${facturacion.ventas.exportacion.tiempo-maximo:1h}")
+	private Duration tiempoMaximoExportacion;
 	
 	//GET ALL VENTAS
-	@Operation(summary = "Obtener lista de ventas", description = "Este endpoint devuelve una lista completa de las ventas registradas en el sistema")
+	@Operation(summary = "Obtener lista de ventas", description = "Este endpoint devuelve una pagina de ventas ordenada por ID, incluidas las archivadas. "
+			+ "Para pedir la siguiente pagina se envia en 'after' el valor de 'siguienteCursor'. "
+			+ "Con Accept: application/cbor o application/x-jackson-smile la pagina se devuelve en formato binario")
 	@ApiResponses(value = {
-			@ApiResponse(responseCode = "200", description = "Lista de ventas obtenida correctamente",
-                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = VentaDTO.class),
-                    		examples = @ExampleObject(value = "[{\"id\":1,"
+			@ApiResponse(responseCode = "200", description = "Pagina de ventas obtenida correctamente",
+                    content = {@Content(mediaType = "application/json", schema = @Schema(implementation = VentaPaginaDTO.class),
+                    		examples = @ExampleObject(value = "{\"ventas\":[{\"id\":1,"
                             		+ "\"clienteId\":1,"
                             		+ "\"clienteNombre\":\"Valeria\","
                             		+ "\"clienteApellido\":\"Casatti\","
                             		+ "\"fecha\":\"01/23/2025 11:03\","
                             		+ "\"productos\":[{\"id\":10,\"nombre\":\"Remera\",\"precio\":100,\"cantidad\":2}],"
-                            		+ "\"total\":200}]"))),
+                            		+ "\"total\":200}],"
+                            		+ "\"siguienteCursor\":1}")),
+                    		@Content(mediaType = "application/cbor", schema = @Schema(implementation = VentaPaginaDTO.class)),
+                    		@Content(mediaType = "application/x-jackson-smile", schema = @Schema(implementation = VentaPaginaDTO.class))}),
 			@ApiResponse(responseCode = "404", description = "Error al obtener las ventas", content = @Content),
 			@ApiResponse(responseCode = "500", description = "Error interno del servidor", content = @Content)
 	})
 	@GetMapping
-	public ResponseEntity<List<VentaDTO>> getAllVentas() {
+	public ResponseEntity<VentaPaginaDTO> getAllVentas(
+			@Parameter(description = "ID de la ultima venta recibida (cursor)") @RequestParam(required = false) Long after,
+			@Parameter(description = "Cantidad maxima de ventas por pagina (1 a 500)") @RequestParam(defaultValue = "50") int limit,
+			@Parameter(description = "Filtrar por ID de cliente") @RequestParam(required = false) Long clienteId) {
 		try {
-			List<VentaDTO> ventas = ventaService.getAllVentas();
+			VentaPaginaDTO ventas = ventaService.getAllVentas(after, limit, clienteId);
 			return ResponseEntity.ok(ventas); 
 		}catch(IllegalArgumentException e) {
 			return ResponseEntity.notFound().build();
@@ -62,8 +113,40 @@ public class VentaController {
 		}
 	}
 	
+	//EXPORTAR VENTAS
+	@Operation(summary = "Exportar ventas", description = "Devuelve todas las ventas como NDJSON (una venta por linea) o CSV "
+			+ "(una linea por producto vendido). La respuesta se escribe a medida que se leen las ventas")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Exportacion iniciada correctamente",
+                    content = {@Content(mediaType = "application/x-ndjson"), @Content(mediaType = "text/csv")}),
+			@ApiResponse(responseCode = "400", description = "Formato no soportado", content = @Content)
+	})
+	@GetMapping("/export")
+	public ResponseEntity<StreamingResponseBody> exportarVentas(
+			@Parameter(description = "Formato de salida: ndjson o csv") @RequestParam(defaultValue = VentaExportService.NDJSON) String formato,
+			HttpServletRequest request) {
+		if(!VentaExportService.NDJSON.equals(formato) && !VentaExportService.CSV.equals(formato)) {
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+		}
+		// El tiempo maximo se extiende solo para esta respuesta; las demas respuestas asincronicas usan el del contenedor
+		WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(EXPORTACION, new CallableProcessingInterceptor() {
+			@Override
+			public <T> void beforeConcurrentHandling(NativeWebRequest webRequest, Callable<T> task) {
+				((AsyncWebRequest) webRequest).setTimeout(tiempoMaximoExportacion.toMillis());
+			}
+		});
+		MediaType tipo = VentaExportService.CSV.equals(formato)
+				? new MediaType("text", "csv", StandardCharsets.UTF_8)
+				: new MediaType("application", "x-ndjson", StandardCharsets.UTF_8);
+		StreamingResponseBody cuerpo = salida -> ventaExportService.exportar(formato, salida);
+		return ResponseEntity.ok()
+				.contentType(tipo)
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=ventas." + formato)
+				.body(cuerpo);
+	}
+	
 	//GET VENTA BY ID
-	@Operation(summary = "Obtener una venta por ID", description = "Devuelve los detalles de una venta específica según su ID")
+	@Operation(summary = "Obtener una venta por ID", description = "Devuelve los detalles de una venta específica según su ID, tambien si esta archivada")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200", description = "Venta obtenida correctamente.",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = VentaDTO.class),
@@ -96,10 +179,13 @@ public class VentaController {
 	        content = @Content(mediaType = "application/json", 
 	                           schema = @Schema(implementation = VentaDTO.class))),
 	    @ApiResponse(responseCode = "404", description = "Error al obtener la venta", content = @Content),
+	    @ApiResponse(responseCode = "422", description = "La Idempotency-Key ya se uso con otra venta", content = @Content),
 	    @ApiResponse(responseCode = "500", description = "Error interno del servidor", content = @Content)
 	})
 	@PostMapping
-	public ResponseEntity<VentaDTO> newVenta(@RequestBody VentaDTO dto){
+	public ResponseEntity<VentaDTO> newVenta(@RequestBody VentaDTO dto,
+			@Parameter(description = "Clave unica del pedido; los reintentos con la misma clave devuelven la venta ya creada")
+			@RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey){
 		try {
 			if(dto.getClienteId() == null || dto.getProductos() == null || dto.getProductos().isEmpty()) {
 				return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
@@ -110,12 +196,63 @@ public class VentaController {
 	        List<Integer> cantidad = dto.getProductos().stream()
                     					.map(ProductoDTO::getCantidad)
                     					.toList();
-			VentaDTO nuevaVenta = ventaService.newVenta(dto.getClienteId(), productosIds, cantidad);
-			return ResponseEntity.status(HttpStatus.CREATED).body(nuevaVenta);
+	        if(idempotencyKey == null) {
+	        	VentaDTO nuevaVenta = ventaService.newVenta(dto.getClienteId(), productosIds, cantidad);
+	        	ventaMetricas.creada();
+	        	return ResponseEntity.status(HttpStatus.CREATED).body(nuevaVenta);
+	        }
+	        
+	        IdempotenciaService.Resultado resultado = idempotenciaService.ejecutar(idempotencyKey,
+	        		IdempotenciaService.huella(dto.getClienteId(), productosIds, cantidad),
+	        		() -> ventaService.newVenta(dto.getClienteId(), productosIds, cantidad));
+	        if(!resultado.repetida()) {
+	        	ventaMetricas.creada();
+	        }
+			return ResponseEntity.status(HttpStatus.CREATED)
+					.header(IDEMPOTENT_REPLAYED, String.valueOf(resultado.repetida()))
+					.body(resultado.venta());
+		}catch(IllegalArgumentException e) {
+			// Los rechazos quedan en facturacion.ventas.rechazadas; el detalle solo en debug
+			ventaMetricas.rechazada(e);
+			log.debug("Venta rechazada: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+		}catch(IdempotenciaConflictoException e) {
+			log.debug("Venta no creada: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(null);
+		}catch(Exception e) {
+			log.error("Error inesperado al crear la venta", e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build(); 
+		}
+	}
+	
+	//CREAR VENTAS EN LOTE
+	@Operation(summary = "Crear ventas en lote", description = "Permite registrar muchas ventas en una sola solicitud. "
+			+ "Devuelve el resultado de cada venta en el mismo orden en que fueron enviadas")
+	@ApiResponses(value = {
+	    @ApiResponse(responseCode = "200", description = "Lote procesado. Cada venta indica si fue creada, rechazada "
+	    		+ "o no procesada por un error interno (se puede reenviar).",
+	        content = @Content(mediaType = "application/json", 
+	                           schema = @Schema(implementation = ResultadoVentaDTO.class),
+	                           examples = @ExampleObject(value = "[{\"indice\":0,\"estado\":\"CREADA\",\"venta\":{\"id\":1,"
+	                        		   + "\"clienteId\":1,\"productos\":[{\"id\":10,\"cantidad\":2}],\"total\":200}},"
+	                        		   + "{\"indice\":1,\"estado\":\"RECHAZADA\",\"motivo\":\"Cliente no encontrado\"}]"))),
+	    @ApiResponse(responseCode = "400", description = "Lote vacio o demasiado grande", content = @Content),
+	    @ApiResponse(responseCode = "500", description = "Error interno del servidor", content = @Content)
+	})
+	@PostMapping("/batch")
+	public ResponseEntity<List<ResultadoVentaDTO>> newVentas(@RequestBody List<VentaDTO> dtos){
+		try {
+			if(dtos == null || dtos.isEmpty()) {
+				return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+			}
+			List<ResultadoVentaDTO> resultados = ventaLoteService.newVentas(dtos);
+			resultados.forEach(ventaMetricas::registrar);
+			return ResponseEntity.ok(resultados);
 		}catch(IllegalArgumentException e) {
-			System.err.println("Error en argumentos: " + e.getMessage());
+			log.debug("Lote rechazado: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
 		}catch(Exception e) {
+			log.error("Error inesperado al crear el lote de ventas", e);
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build(); 
 		}
 	}
@@ -128,6 +265,7 @@ public class VentaController {
                             examples = @ExampleObject(name = "Ejemplo de solicitud",
                                     value = "{\"clienteId\":1,\"productos\":[{\"id\":10,\"cantidad\":2}]}"))),
 			@ApiResponse(responseCode = "404", description = "Error al obtener la venta", content = @Content),
+			@ApiResponse(responseCode = "409", description = "La venta esta archivada y no se puede modificar", content = @Content),
 			@ApiResponse(responseCode = "500", description = "Error interno del servidor", content = @Content)
 	})
 	@PutMapping("/{id}")
@@ -136,10 +274,13 @@ public class VentaController {
 			VentaDTO updatedVenta = ventaService.updateVentaById(id, dto);
 			return ResponseEntity.ok(updatedVenta);
 		}catch(IllegalArgumentException e) {
-			System.err.println("Error en argumentos: " + e.getMessage());
+			log.debug("Venta {} no actualizada: {}", id, e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+		}catch(ConflictoException e) {
+			log.debug("Venta {} no actualizada: {}", id, e.getMessage());
+			return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
 		}catch(Exception e) {
-			System.err.println("Error inesperado al actualizar la venta: " + e.getMessage());
+			log.error("Error inesperado al actualizar la venta {}", id, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
 		}
 	}
@@ -149,6 +290,7 @@ public class VentaController {
 	@ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Venta eliminada correctamente.", content = @Content),
             @ApiResponse(responseCode = "404", description = "Error al obtener la venta", content = @Content),
+            @ApiResponse(responseCode = "409", description = "La venta esta archivada y no se puede eliminar", content = @Content),
             @ApiResponse(responseCode = "500", description = "Error interno del servidor.", content = @Content)
     })
 	@DeleteMapping("/{id}")
@@ -158,6 +300,8 @@ public class VentaController {
 			return ResponseEntity.noContent().build();
 		}catch(IllegalArgumentException e) {
 			return ResponseEntity.notFound().build(); 
+		}catch(ConflictoException e) {
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
 		}catch(Exception e) {
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build(); 
 		}
@@ -0,0 +1,30 @@
+package com.coderhouse.dtos;
+
+import java.time.LocalDateTime;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+
+@Schema(description = "Modelo que representa la cabecera de una venta leida directamente de la base de datos", hidden = true)
+public class CabeceraVentaDTO {
+
+	private Long id;
+	
+	private Long clienteId;
+	
+	private LocalDateTime fechaHora;
+	
+	private String fecha;
+	
+	private Integer total;
+}
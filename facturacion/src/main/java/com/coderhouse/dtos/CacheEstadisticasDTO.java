@@ -0,0 +1,33 @@
+package com.coderhouse.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+
+@Schema(description = "Modelo que representa las estadisticas de la cache de productos")
+public class CacheEstadisticasDTO {
+
+	@Schema(description="Lecturas resueltas desde la cache", example="950")
+	private long aciertos;
+	
+	@Schema(description="Lecturas que tuvieron que ir a la base de datos", example="50")
+	private long fallos;
+	
+	@Schema(description="Entradas quitadas por tamaño o vencimiento", example="3")
+	private long desalojos;
+	
+	@Schema(description="Proporcion de lecturas resueltas desde la cache", example="0.95")
+	private double tasaAciertos;
+	
+	@Schema(description="Cantidad aproximada de productos en cache", example="120")
+	private long tamanio;
+}
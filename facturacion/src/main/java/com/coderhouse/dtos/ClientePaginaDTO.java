@@ -0,0 +1,29 @@
+package com.coderhouse.dtos;
+
+import java.util.List;
+
+import com.coderhouse.models.Cliente;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+
+@Schema(description = "Modelo que representa una pagina de clientes ordenada por apellido y nombre")
+public class ClientePaginaDTO {
+
+	@Schema(description="Clientes de la pagina solicitada", requiredMode=Schema.RequiredMode.REQUIRED)
+	private List<Cliente> clientes;
+
+	@Schema(description="Cursor para pedir la siguiente pagina (parametro 'cursor'), nulo si no hay mas clientes",
+			example="Q2FzYXR0aQBWYWxlcmlhADE")
+	private String siguienteCursor;
+}
@@ -0,0 +1,38 @@
+package com.coderhouse.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+
+@Schema(description = "Modelo que representa el avance de la eliminacion de un cliente y sus ventas")
+public class EliminacionClienteDTO {
+
+	public static final String EN_CURSO = "EN_CURSO";
+	public static final String TERMINADA = "TERMINADA";
+	public static final String ERROR = "ERROR";
+
+	@Schema(description="ID del cliente", requiredMode=Schema.RequiredMode.REQUIRED, example="1")
+	private Long clienteId;
+
+	@Schema(description="Estado de la eliminacion", requiredMode=Schema.RequiredMode.REQUIRED,
+			allowableValues = { EN_CURSO, TERMINADA, ERROR }, example=EN_CURSO)
+	private String estado;
+
+	@Schema(description="Ventas del cliente al iniciar la eliminacion", requiredMode=Schema.RequiredMode.REQUIRED, example="50000")
+	private long ventasTotales;
+
+	@Schema(description="Ventas eliminadas hasta el momento", requiredMode=Schema.RequiredMode.REQUIRED, example="12000")
+	private long ventasEliminadas;
+
+	@Schema(description="Mensaje de error si la eliminacion fallo", example="null")
+	private String error;
+}
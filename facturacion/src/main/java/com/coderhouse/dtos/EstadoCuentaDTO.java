@@ -0,0 +1,38 @@
+package com.coderhouse.dtos;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+
+@Schema(description = "Modelo que representa el estado de cuenta de un cliente: resumen y ventas de la mas reciente a la mas antigua")
+public class EstadoCuentaDTO {
+
+	@Schema(description="ID del cliente", requiredMode=Schema.RequiredMode.REQUIRED, example="1")
+	private Long clienteId;
+
+	@Schema(description="Nombre del cliente", requiredMode=Schema.RequiredMode.REQUIRED, example="Valeria")
+	private String clienteNombre;
+
+	@Schema(description="Apellido del cliente", requiredMode=Schema.RequiredMode.REQUIRED, example="Casatti")
+	private String clienteApellido;
+
+	@Schema(description="Resumen del rango; solo se calcula en la primera pagina, nulo en las siguientes")
+	private ResumenCuentaDTO resumen;
+
+	@Schema(description="Ventas de la pagina solicitada", requiredMode=Schema.RequiredMode.REQUIRED)
+	private List<VentaDTO> ventas;
+
+	@Schema(description="Cursor para pedir la siguiente pagina (parametro 'after'), nulo si no hay mas ventas", example="50")
+	private Long siguienteCursor;
+}
@@ -0,0 +1,43 @@
+package com.coderhouse.dtos;
+
+import java.time.LocalDateTime;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+
+@Schema(description = "Modelo que representa un evento de venta entregado a los sistemas externos")
+public class EventoVentaDTO {
+
+	public static final String CREADA = "CREADA";
+	public static final String ACTUALIZADA = "ACTUALIZADA";
+	public static final String ELIMINADA = "ELIMINADA";
+
+	@Schema(description="ID del evento, creciente", requiredMode=Schema.RequiredMode.REQUIRED, example="1")
+	private Long id;
+	
+	@Schema(description="Tipo de evento", requiredMode=Schema.RequiredMode.REQUIRED,
+			allowableValues = {CREADA, ACTUALIZADA, ELIMINADA}, example=CREADA)
+	private String tipo;
+	
+	@Schema(description="ID de la venta", requiredMode=Schema.RequiredMode.REQUIRED, example="1")
+	private Long ventaId;
+	
+	@Schema(description="ID del cliente de la venta", requiredMode=Schema.RequiredMode.REQUIRED, example="1")
+	private Long clienteId;
+	
+	@Schema(description="Total de la venta", requiredMode=Schema.RequiredMode.REQUIRED, example="500")
+	private Integer total;
+	
+	@Schema(description="Momento en que se registro el evento", requiredMode=Schema.RequiredMode.REQUIRED)
+	private LocalDateTime registrado;
+}
@@ -7,4 +7,5 @@ public class FechaDTO {
 
 	private String date;
 	private String time;
+	private String dateTime;
 }
@@ -0,0 +1,32 @@
+package com.coderhouse.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+
+@Schema(description = "Modelo que representa una linea de venta leida directamente de la base de datos", hidden = true)
+public class LineaVentaDTO {
+
+	private Long ventaId;
+	
+	private Long productoId;
+	
+	private String nombre;
+	
+	private int precioUnitario;
+	
+	private int cantidad;
+	
+	public ProductoDTO toProductoDTO() {
+		return new ProductoDTO(productoId, nombre, precioUnitario, cantidad);
+	}
+}
@@ -0,0 +1,30 @@
+package com.coderhouse.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+
+@Schema(description = "Modelo que representa el resultado de recalcular los resumenes diarios")
+public class ReconstruccionResumenDTO {
+
+	@Schema(description="Ventas antiguas a las que se les completo la fecha a partir del texto", example="120")
+	private int fechasCompletadas;
+	
+	@Schema(description="Ventas cuya fecha no se pudo interpretar y quedaron fuera de los resumenes", example="0")
+	private int ventasSinFecha;
+	
+	@Schema(description="Filas de resumen recalculadas", example="3650")
+	private int filas;
+	
+	@Schema(description="Filas en las que el resumen incremental no coincidia con el recalculado", example="0")
+	private int diferencias;
+}
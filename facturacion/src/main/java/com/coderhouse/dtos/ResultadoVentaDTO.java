@@ -0,0 +1,44 @@
+package com.coderhouse.dtos;
+
+import com.coderhouse.exceptions.MotivoRechazo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+
+@Schema(description = "Modelo que representa el resultado de una venta enviada en un lote")
+public class ResultadoVentaDTO {
+
+	public static final String CREADA = "CREADA";
+	public static final String RECHAZADA = "RECHAZADA";
+	public static final String NO_PROCESADA = "NO_PROCESADA";
+
+	@Schema(description="Posicion de la venta dentro del lote enviado", requiredMode=Schema.RequiredMode.REQUIRED, example="0")
+	private int indice;
+	
+	@Schema(description="Resultado de la venta", requiredMode=Schema.RequiredMode.REQUIRED,
+			allowableValues = {CREADA, RECHAZADA, NO_PROCESADA}, example=CREADA)
+	private String estado;
+	
+	@Schema(description="Venta creada, solo si el estado es CREADA")
+	private VentaDTO venta;
+	
+	@Schema(description="Motivo del rechazo o del error, si el estado es RECHAZADA o NO_PROCESADA. "
+			+ "Una venta NO_PROCESADA no se guardo por un error interno y se puede reenviar", example="Stock insuficiente o cantidad no válida")
+	private String motivo;
+
+	// Motivo del rechazo para las metricas, null si no es un rechazo conocido. No forma parte de la respuesta
+	@JsonIgnore
+	@Schema(hidden = true)
+	private MotivoRechazo motivoRechazo;
+}
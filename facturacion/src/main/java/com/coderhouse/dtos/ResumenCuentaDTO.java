@@ -0,0 +1,29 @@
+package com.coderhouse.dtos;
+
+import java.time.LocalDateTime;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+
+@Schema(description = "Modelo que representa el resumen de compras de un cliente en un rango de fechas")
+public class ResumenCuentaDTO {
+
+	@Schema(description="Cantidad de ventas en el rango", requiredMode=Schema.RequiredMode.REQUIRED, example="12")
+	private Long cantidadVentas;
+
+	@Schema(description="Suma de los totales de las ventas del rango", requiredMode=Schema.RequiredMode.REQUIRED, example="18500")
+	private Long totalGastado;
+
+	@Schema(description="Fecha y hora de la ultima compra del rango, nula si no hay ventas", example="2025-01-17T15:30:00")
+	private LocalDateTime ultimaCompra;
+}
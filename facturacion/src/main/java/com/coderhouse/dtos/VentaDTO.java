@@ -1,5 +1,6 @@
 package com.coderhouse.dtos;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -40,4 +41,8 @@ public class VentaDTO {
 	@Schema(description="Monto total de la venta", requiredMode=Schema.RequiredMode.REQUIRED, example="500")
     private Integer total;
     
+	// Constructor usado por las consultas de proyeccion (los productos se cargan aparte)
+	public VentaDTO(Long id, Long clienteId, String clienteNombre, String clienteApellido, String fecha, Integer total) {
+		this(id, clienteId, clienteNombre, clienteApellido, fecha, new ArrayList<>(), total);
+	}
 }
\ No newline at end of file
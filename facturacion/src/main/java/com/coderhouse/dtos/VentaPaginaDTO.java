@@ -0,0 +1,26 @@
+package com.coderhouse.dtos;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+
+@Schema(description = "Modelo que representa una pagina de ventas ordenada por ID")
+public class VentaPaginaDTO {
+
+	@Schema(description="Ventas de la pagina solicitada", requiredMode=Schema.RequiredMode.REQUIRED)
+	private List<VentaDTO> ventas;
+
+	@Schema(description="Cursor para pedir la siguiente pagina (parametro 'after'), nulo si no hay mas ventas", example="50")
+	private Long siguienteCursor;
+}
@@ -0,0 +1,11 @@
+package com.coderhouse.exceptions;
+
+// El pedido choca con el estado actual del recurso (por ejemplo, una venta archivada). Los controladores la responden con 409
+public class ConflictoException extends IllegalStateException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ConflictoException(String mensaje) {
+		super(mensaje);
+	}
+}
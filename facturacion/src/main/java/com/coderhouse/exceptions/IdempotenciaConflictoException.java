@@ -0,0 +1,11 @@
+package com.coderhouse.exceptions;
+
+// La Idempotency-Key ya se uso con un pedido de contenido distinto
+public class IdempotenciaConflictoException extends IllegalStateException {
+
+	private static final long serialVersionUID = 1L;
+
+	public IdempotenciaConflictoException(String mensaje) {
+		super(mensaje);
+	}
+}
@@ -0,0 +1,25 @@
+package com.coderhouse.exceptions;
+
+// Motivos por los que se rechaza una venta, con el mensaje que recibe el cliente de la API
+public enum MotivoRechazo {
+
+	STOCK("Stock insuficiente o cantidad no válida"),
+	CLIENTE_NO_ENCONTRADO("Cliente no encontrado"),
+	PRODUCTO_NO_ENCONTRADO("Producto no encontrado"),
+	SIN_PRODUCTOS("La venta no tiene productos");
+
+	private final String mensaje;
+
+	MotivoRechazo(String mensaje) {
+		this.mensaje = mensaje;
+	}
+
+	public String getMensaje() {
+		return mensaje;
+	}
+
+	// Valor de la etiqueta 'motivo' en las metricas
+	public String getEtiqueta() {
+		return name().toLowerCase();
+	}
+}
@@ -0,0 +1,11 @@
+package com.coderhouse.exceptions;
+
+// El recurso pedido no existe. Los controladores la responden con 404; el resto de las IllegalArgumentException son 400
+public class NoEncontradoException extends IllegalArgumentException {
+
+	private static final long serialVersionUID = 1L;
+
+	public NoEncontradoException(String mensaje) {
+		super(mensaje);
+	}
+}
@@ -0,0 +1,23 @@
+package com.coderhouse.exceptions;
+
+// Venta que no se puede crear o modificar por los datos enviados. Sigue siendo una IllegalArgumentException
+// para los controladores, y lleva el motivo para clasificar el rechazo sin depender del mensaje
+public class VentaRechazadaException extends IllegalArgumentException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final MotivoRechazo motivo;
+
+	public VentaRechazadaException(MotivoRechazo motivo) {
+		this(motivo, motivo.getMensaje());
+	}
+
+	public VentaRechazadaException(MotivoRechazo motivo, String mensaje) {
+		super(mensaje);
+		this.motivo = motivo;
+	}
+
+	public MotivoRechazo getMotivo() {
+		return motivo;
+	}
+}
@@ -5,13 +5,17 @@ import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import io.swagger.v3.oas.annotations.media.Schema;
-import jakarta.persistence.CascadeType;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
@@ -29,7 +33,11 @@ import lombok.ToString;
 @Schema(description = "Modelo que representa a un cliente en la plataforma")
 
 @Entity
-@Table(name = "clientes")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "clientes")
+@Table(name = "clientes", indexes = {
+		@Index(name = "idx_clientes_apellido_nombre", columnList = "apellido, nombre, id"),
+		@Index(name = "idx_clientes_nombre_apellido", columnList = "nombre, apellido, id") })
 public class Cliente {
 
 	@Schema(description="ID del cliente", requiredMode=Schema.RequiredMode.REQUIRED, example="1")
@@ -51,7 +59,8 @@ public class Cliente {
 	private String email;
 	
 	@Schema(description="Lista de ventas realizadas por el cliente", hidden = true)
-	@OneToMany(mappedBy = "cliente", cascade = CascadeType.ALL)
+	// Sin cascada: las ventas se eliminan por conjuntos desde EliminacionVentasService
+	@OneToMany(mappedBy = "cliente")
 	@JsonIgnore
 	private List<Venta> ventas = new ArrayList<>();
 }
\ No newline at end of file
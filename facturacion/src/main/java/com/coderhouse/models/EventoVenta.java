@@ -0,0 +1,64 @@
+package com.coderhouse.models;
+
+import java.time.LocalDateTime;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+
+@Schema(description = "Modelo que representa un evento de venta pendiente de publicar (outbox)")
+
+// Las filas se insertan con JdbcTemplate dentro de la transaccion de la venta; la entidad solo define la tabla.
+// Cada evento tiene una fila por destino, que se marca como entregada cuando el destino la acepta
+@Entity
+@Table(name = "eventos_venta", indexes = @Index(name = "idx_eventos_venta_pendientes", columnList = "destino, entregado, id"))
+public class EventoVenta {
+
+	@Schema(description="ID del evento", requiredMode=Schema.RequiredMode.REQUIRED, example="1")
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+	
+	@Schema(description="Tipo de evento", requiredMode=Schema.RequiredMode.REQUIRED, example="CREADA")
+	@Column(nullable = false, length = 16)
+	private String tipo;
+	
+	@Schema(description="ID de la venta", requiredMode=Schema.RequiredMode.REQUIRED, example="1")
+	@Column(name = "venta_id", nullable = false)
+	private Long ventaId;
+	
+	@Schema(description="ID del cliente de la venta", requiredMode=Schema.RequiredMode.REQUIRED, example="1")
+	@Column(name = "cliente_id", nullable = false)
+	private Long clienteId;
+	
+	@Schema(description="Total de la venta", requiredMode=Schema.RequiredMode.REQUIRED, example="500")
+	@Column(nullable = false)
+	private Integer total;
+	
+	@Schema(description="Momento en que se registro el evento", requiredMode=Schema.RequiredMode.REQUIRED)
+	@Column(nullable = false)
+	private LocalDateTime registrado;
+	
+	@Schema(description="Nombre del destino al que se entrega el evento", requiredMode=Schema.RequiredMode.REQUIRED, example="archivo")
+	@Column(nullable = false, length = 64)
+	private String destino;
+	
+	@Schema(description="Momento en que el destino acepto el evento, null si esta pendiente")
+	private LocalDateTime entregado;
+}
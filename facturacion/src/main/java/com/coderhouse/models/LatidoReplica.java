@@ -0,0 +1,33 @@
+package com.coderhouse.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+
+@Schema(description = "Modelo que representa el ultimo latido escrito en el primario, usado para medir el retraso de la replica")
+
+@Entity
+@Table(name = "replica_latidos")
+public class LatidoReplica {
+
+	@Schema(description="ID del latido (siempre 1)", requiredMode=Schema.RequiredMode.REQUIRED, example="1")
+	@Id
+	private Integer id;
+	
+	@Schema(description="Instante del latido en milisegundos desde 1970", requiredMode=Schema.RequiredMode.REQUIRED, example="1737640980000")
+	@Column(nullable = false)
+	private long marca;
+}
@@ -0,0 +1,43 @@
+package com.coderhouse.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+
+@Schema(description = "Modelo que representa un cambio de stock aceptado en memoria y todavia no aplicado a productos")
+
+// Lo usa ReservaStockService: se inserta con JdbcTemplate en la transaccion de la venta y se borra
+// cuando el escritor en segundo plano aplica la cantidad a productos.stock
+@Entity
+@Table(name = "movimientos_stock", indexes = @Index(name = "idx_movimientos_stock_producto", columnList = "producto_id"))
+public class MovimientoStock {
+
+	@Schema(description="ID del movimiento", requiredMode=Schema.RequiredMode.REQUIRED, example="1")
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+	
+	@Schema(description="ID del producto", requiredMode=Schema.RequiredMode.REQUIRED, example="10")
+	@Column(name = "producto_id", nullable = false)
+	private Long productoId;
+	
+	@Schema(description="Cantidad a descontar del stock (negativa si se repone)", requiredMode=Schema.RequiredMode.REQUIRED, example="2")
+	@Column(nullable = false)
+	private int cantidad;
+}
@@ -0,0 +1,51 @@
+package com.coderhouse.models;
+
+import java.time.LocalDate;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+
+@Schema(description = "Modelo que representa el total diario de ventas de un cliente")
+
+@Entity
+@IdClass(ResumenDiarioClienteId.class)
+@Table(name = "resumen_diario_cliente", indexes = @Index(name = "idx_resumen_diario_cliente", columnList = "cliente_id, dia"))
+public class ResumenDiarioCliente {
+
+	@Schema(description="ID del cliente", requiredMode=Schema.RequiredMode.REQUIRED, example="1")
+	@Id
+	@Column(name = "cliente_id")
+	private Long clienteId;
+	
+	@Schema(description="Dia del resumen", requiredMode=Schema.RequiredMode.REQUIRED, example="2025-01-17")
+	@Id
+	private LocalDate dia;
+	
+	@Schema(description="Monto total vendido en el dia", requiredMode=Schema.RequiredMode.REQUIRED, example="1500")
+	@Column(nullable = false)
+	private long ingresos;
+	
+	@Schema(description="Unidades vendidas en el dia", requiredMode=Schema.RequiredMode.REQUIRED, example="12")
+	@Column(nullable = false)
+	private long unidades;
+	
+	@Schema(description="Cantidad de ventas del dia", requiredMode=Schema.RequiredMode.REQUIRED, example="3")
+	@Column(nullable = false)
+	private long ventas;
+}
@@ -0,0 +1,19 @@
+package com.coderhouse.models;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenDiarioProductoId implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Long productoId;
+	private LocalDate dia;
+}
@@ -1,5 +1,6 @@
 package com.coderhouse.models;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -10,9 +11,11 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -27,13 +30,21 @@ import lombok.ToString;
 @ToString(exclude = {"cliente", "ventaProductos"})
 
 @Entity
-@Table(name = "ventas")
+// Indice para el estado de cuenta de un cliente: ordena por fecha e incluye el total para resumir sin leer las filas.
+// idx_ventas_fecha: el archivo de ventas toma las mas antiguas sin recorrer la tabla
+@Table(name = "ventas", indexes = {
+		@Index(name = "idx_ventas_cliente_fecha", columnList = "cliente_id, fecha_hora, id, total"),
+		@Index(name = "idx_ventas_fecha", columnList = "fecha_hora, id") })
 @Schema(description = "Modelo que representa una venta en la plataforma")
 public class Venta {
 
+	// IDs que reserva cada consulta a ventas_seq y venta_producto_seq
+	public static final int ASIGNACION_IDS = 50;
+
 	@Schema(description="ID de la venta", requiredMode=Schema.RequiredMode.REQUIRED, example="1")
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ventas_seq")
+	@SequenceGenerator(name = "ventas_seq", sequenceName = "ventas_seq", allocationSize = ASIGNACION_IDS)
 	private Long id;
 	
 	@Schema(description="Fecha en la que se realizó la venta", requiredMode=Schema.RequiredMode.REQUIRED,
@@ -41,12 +52,16 @@ public class Venta {
 	@Column(nullable = false)
 	private String fecha;
 	
+	@Schema(description="Fecha y hora de la venta como tipo fecha, usada para reportes", hidden = true)
+	@Column(name = "fecha_hora")
+	private LocalDateTime fechaHora;
+	
 	@Schema(description="Monto total de la venta", requiredMode=Schema.RequiredMode.REQUIRED, example="500")
 	@Column(nullable = false)
 	private Integer total;
 	
 	@Schema(description="ID del cliente asociado a la venta", requiredMode=Schema.RequiredMode.REQUIRED, example="1")
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "cliente_id", nullable = false)
 	private Cliente cliente;
 	
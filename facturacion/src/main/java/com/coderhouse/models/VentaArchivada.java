@@ -0,0 +1,48 @@
+package com.coderhouse.models;
+
+import java.time.LocalDateTime;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString(exclude = "cliente")
+
+@Schema(description = "Modelo que representa una venta antigua movida al archivo, de solo lectura", hidden = true)
+
+@Entity
+// Mismas columnas e indice de estado de cuenta que ventas; el id es el que tenia la venta en la tabla activa
+@Table(name = "ventas_archivo", indexes = @Index(name = "idx_ventas_archivo_cliente_fecha", columnList = "cliente_id, fecha_hora, id, total"))
+public class VentaArchivada {
+
+	@Id
+	private Long id;
+
+	@Column(nullable = false)
+	private String fecha;
+
+	@Column(name = "fecha_hora")
+	private LocalDateTime fechaHora;
+
+	@Column(nullable = false)
+	private Integer total;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "cliente_id", nullable = false)
+	private Cliente cliente;
+}
@@ -0,0 +1,30 @@
+package com.coderhouse.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+// Linea de una venta archivada; conserva el id y el precio unitario de la linea original
+@Data
+@Entity
+@Table(name = "venta_producto_archivo")
+public class VentaProductoArchivada {
+
+	@Id
+	private Long id;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "venta_id", nullable = false)
+	private VentaArchivada venta;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "producto_id", nullable = false)
+	private Producto producto;
+
+	private int cantidad;
+	private int precioUnitario;
+}
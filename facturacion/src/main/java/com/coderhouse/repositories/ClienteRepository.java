@@ -1,9 +1,46 @@
 package com.coderhouse.repositories;
 
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.coderhouse.models.Cliente;
 
+import jakarta.persistence.QueryHint;
+
 public interface ClienteRepository extends JpaRepository<Cliente, Long> {
 
-}
\ No newline at end of file
+	// Consulta cacheada: Hibernate descarta el resultado cuando cambia la tabla clientes
+	@QueryHints({ @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+			@QueryHint(name = "org.hibernate.cacheRegion", value = "clientes-por-email") })
+	Optional<Cliente> findByEmail(String email);
+
+	// Bloquea la fila del cliente hasta el final de la transaccion; el archivo de ventas toma el mismo bloqueo
+	@Query(value = "SELECT id FROM clientes WHERE id = :id FOR UPDATE", nativeQuery = true)
+	Optional<Long> bloquear(@Param("id") Long id);
+
+	// Prefijo de apellido y de nombre, paginado por keyset sobre (apellido, nombre, id)
+	@Query("SELECT c FROM Cliente c "
+			+ "WHERE c.apellido LIKE :apellido ESCAPE '!' AND c.nombre LIKE :nombre ESCAPE '!' "
+			+ "AND (c.apellido > :ultimoApellido OR (c.apellido = :ultimoApellido "
+			+ "AND (c.nombre > :ultimoNombre OR (c.nombre = :ultimoNombre AND c.id > :ultimoId)))) "
+			+ "ORDER BY c.apellido, c.nombre, c.id")
+	List<Cliente> buscarPorApellido(@Param("apellido") String apellido, @Param("nombre") String nombre,
+			@Param("ultimoApellido") String ultimoApellido, @Param("ultimoNombre") String ultimoNombre,
+			@Param("ultimoId") Long ultimoId, Pageable pageable);
+
+	// Prefijo de nombre, paginado por keyset sobre (nombre, apellido, id)
+	@Query("SELECT c FROM Cliente c "
+			+ "WHERE c.nombre LIKE :nombre ESCAPE '!' "
+			+ "AND (c.nombre > :ultimoNombre OR (c.nombre = :ultimoNombre "
+			+ "AND (c.apellido > :ultimoApellido OR (c.apellido = :ultimoApellido AND c.id > :ultimoId)))) "
+			+ "ORDER BY c.nombre, c.apellido, c.id")
+	List<Cliente> buscarPorNombre(@Param("nombre") String nombre,
+			@Param("ultimoNombre") String ultimoNombre, @Param("ultimoApellido") String ultimoApellido,
+			@Param("ultimoId") Long ultimoId, Pageable pageable);
+}
@@ -6,4 +6,4 @@ import com.coderhouse.models.Producto;
 
 public interface ProductoRepository extends JpaRepository<Producto, Long> {
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,14 @@
+package com.coderhouse.repositories;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.coderhouse.models.ResumenDiarioCliente;
+import com.coderhouse.models.ResumenDiarioClienteId;
+
+public interface ResumenDiarioClienteRepository extends JpaRepository<ResumenDiarioCliente, ResumenDiarioClienteId> {
+
+	List<ResumenDiarioCliente> findByClienteIdAndDiaBetweenOrderByDia(Long clienteId, LocalDate desde, LocalDate hasta);
+}
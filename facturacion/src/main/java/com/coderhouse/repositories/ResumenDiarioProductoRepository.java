@@ -0,0 +1,14 @@
+package com.coderhouse.repositories;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.coderhouse.models.ResumenDiarioProducto;
+import com.coderhouse.models.ResumenDiarioProductoId;
+
+public interface ResumenDiarioProductoRepository extends JpaRepository<ResumenDiarioProducto, ResumenDiarioProductoId> {
+
+	List<ResumenDiarioProducto> findByProductoIdAndDiaBetweenOrderByDia(Long productoId, LocalDate desde, LocalDate hasta);
+}
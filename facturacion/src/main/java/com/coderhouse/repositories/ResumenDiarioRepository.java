@@ -0,0 +1,13 @@
+package com.coderhouse.repositories;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.coderhouse.models.ResumenDiario;
+
+public interface ResumenDiarioRepository extends JpaRepository<ResumenDiario, LocalDate> {
+
+	List<ResumenDiario> findByDiaBetweenOrderByDia(LocalDate desde, LocalDate hasta);
+}
@@ -0,0 +1,78 @@
+package com.coderhouse.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.coderhouse.dtos.LineaVentaDTO;
+import com.coderhouse.dtos.VentaDTO;
+import com.coderhouse.models.VentaArchivada;
+
+public interface VentaArchivadaRepository extends JpaRepository<VentaArchivada, Long> {
+
+	// Cabecera de una venta archivada proyectada directamente al DTO
+	@Query("SELECT new com.coderhouse.dtos.VentaDTO(v.id, c.id, c.nombre, c.apellido, v.fecha, v.total) "
+			+ "FROM VentaArchivada v JOIN v.cliente c WHERE v.id = :id")
+	Optional<VentaDTO> findDTOById(@Param("id") Long id);
+
+	// Lineas de varias ventas archivadas en una sola consulta
+	@Query("SELECT new com.coderhouse.dtos.LineaVentaDTO(vp.venta.id, p.id, p.nombre, vp.precioUnitario, vp.cantidad) "
+			+ "FROM VentaProductoArchivada vp JOIN vp.producto p "
+			+ "WHERE vp.venta.id IN :ventaIds ORDER BY vp.venta.id, vp.id")
+	List<LineaVentaDTO> findLineasDTO(@Param("ventaIds") Collection<Long> ventaIds);
+
+	// Fecha de una venta archivada del cliente, para continuar el estado de cuenta desde ella
+	@Query("SELECT v.fechaHora FROM VentaArchivada v WHERE v.id = :id AND v.cliente.id = :clienteId")
+	Optional<LocalDateTime> findFechaHora(@Param("id") Long id, @Param("clienteId") Long clienteId);
+
+	boolean existsByClienteId(Long clienteId);
+
+	// Las consultas siguientes leen la tabla activa y el archivo en una sola sentencia. Cada parte se resuelve
+	// sobre su propio indice con su propio LIMIT, y la del archivo no devuelve filas cuando el cursor ya esta
+	// por encima de lo archivado. clienteId = 0 significa sin filtro de cliente
+
+	// Pagina del listado por keyset (id > after): {id, cliente_id, nombre, apellido, fecha, total, archivada}
+	@Query(nativeQuery = true, value = "(SELECT v.id, c.id AS cliente_id, c.nombre, c.apellido, v.fecha, v.total, 0 AS archivada "
+			+ "FROM ventas v JOIN clientes c ON c.id = v.cliente_id "
+			+ "WHERE v.id > :after AND (:clienteId = 0 OR v.cliente_id = :clienteId) "
+			+ "ORDER BY v.id LIMIT :limite) "
+			+ "UNION ALL "
+			+ "(SELECT v.id, c.id, c.nombre, c.apellido, v.fecha, v.total, 1 "
+			+ "FROM ventas_archivo v JOIN clientes c ON c.id = v.cliente_id "
+			+ "WHERE v.id > :after AND (:clienteId = 0 OR v.cliente_id = :clienteId) "
+			+ "ORDER BY v.id LIMIT :limite) "
+			+ "ORDER BY id LIMIT :limite")
+	List<Object[]> findPagina(@Param("after") long after, @Param("clienteId") long clienteId,
+			@Param("limite") int limite);
+
+	// Estado de cuenta por keyset sobre (fecha_hora, id), de la mas reciente a la mas antigua:
+	// {id, fecha, total, fecha_hora, archivada}. En la primera pagina el cursor es (hasta, Long.MAX_VALUE)
+	@Query(nativeQuery = true, value = "(SELECT v.id, v.fecha, v.total, v.fecha_hora, 0 AS archivada FROM ventas v "
+			+ "WHERE v.cliente_id = :clienteId AND v.fecha_hora >= :desde AND v.fecha_hora < :hasta "
+			+ "AND (v.fecha_hora < :fechaCursor OR (v.fecha_hora = :fechaCursor AND v.id < :idCursor)) "
+			+ "ORDER BY v.fecha_hora DESC, v.id DESC LIMIT :limite) "
+			+ "UNION ALL "
+			+ "(SELECT v.id, v.fecha, v.total, v.fecha_hora, 1 FROM ventas_archivo v "
+			+ "WHERE v.cliente_id = :clienteId AND v.fecha_hora >= :desde AND v.fecha_hora < :hasta "
+			+ "AND (v.fecha_hora < :fechaCursor OR (v.fecha_hora = :fechaCursor AND v.id < :idCursor)) "
+			+ "ORDER BY v.fecha_hora DESC, v.id DESC LIMIT :limite) "
+			+ "ORDER BY fecha_hora DESC, id DESC LIMIT :limite")
+	List<Object[]> findCuenta(@Param("clienteId") Long clienteId, @Param("desde") LocalDateTime desde,
+			@Param("hasta") LocalDateTime hasta, @Param("fechaCursor") LocalDateTime fechaCursor,
+			@Param("idCursor") long idCursor, @Param("limite") int limite);
+
+	// Cantidad, total y ultima compra del cliente en el rango sumando las dos tablas: {cantidad, total, ultima}
+	@Query(nativeQuery = true, value = "SELECT COUNT(*), COALESCE(SUM(t.total), 0), MAX(t.fecha_hora) FROM ("
+			+ "SELECT v.total, v.fecha_hora FROM ventas v "
+			+ "WHERE v.cliente_id = :clienteId AND v.fecha_hora >= :desde AND v.fecha_hora < :hasta "
+			+ "UNION ALL "
+			+ "SELECT v.total, v.fecha_hora FROM ventas_archivo v "
+			+ "WHERE v.cliente_id = :clienteId AND v.fecha_hora >= :desde AND v.fecha_hora < :hasta) t")
+	List<Object[]> findResumenCuenta(@Param("clienteId") Long clienteId, @Param("desde") LocalDateTime desde,
+			@Param("hasta") LocalDateTime hasta);
+}
@@ -1,8 +1,24 @@
 package com.coderhouse.repositories;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import com.coderhouse.models.VentaProducto;
 
 public interface VentaProductoRepository extends JpaRepository<VentaProducto, Long>{
 
+	// Ingresos y unidades por venta y producto: {ventaId, productoId, ingresos, unidades}
+	@Query("SELECT vp.venta.id, vp.producto.id, SUM(vp.precioUnitario * vp.cantidad), SUM(vp.cantidad) "
+			+ "FROM VentaProducto vp WHERE vp.venta.id IN :ventaIds GROUP BY vp.venta.id, vp.producto.id")
+	List<Object[]> sumarPorVentaYProducto(@Param("ventaIds") Collection<Long> ventaIds);
+
+	// Borra las lineas de varias ventas con una sola sentencia
+	@Modifying(flushAutomatically = true)
+	@Query("DELETE FROM VentaProducto vp WHERE vp.venta.id IN :ventaIds")
+	int deleteByVentaIds(@Param("ventaIds") Collection<Long> ventaIds);
 }
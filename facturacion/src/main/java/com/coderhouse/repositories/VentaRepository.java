@@ -1,9 +1,80 @@
 package com.coderhouse.repositories;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.coderhouse.dtos.CabeceraVentaDTO;
+import com.coderhouse.dtos.LineaVentaDTO;
+import com.coderhouse.dtos.ResumenCuentaDTO;
+import com.coderhouse.dtos.VentaDTO;
 import com.coderhouse.models.Venta;
 
 public interface VentaRepository extends JpaRepository<Venta, Long> {
 
-}
\ No newline at end of file
+	// Cabecera de una venta proyectada directamente al DTO
+	@Query("SELECT new com.coderhouse.dtos.VentaDTO(v.id, c.id, c.nombre, c.apellido, v.fecha, v.total) "
+			+ "FROM Venta v JOIN v.cliente c WHERE v.id = :id")
+	Optional<VentaDTO> findDTOById(@Param("id") Long id);
+
+	// Lineas de varias ventas en una sola consulta
+	@Query("SELECT new com.coderhouse.dtos.LineaVentaDTO(vp.venta.id, p.id, p.nombre, vp.precioUnitario, vp.cantidad) "
+			+ "FROM VentaProducto vp JOIN vp.producto p "
+			+ "WHERE vp.venta.id IN :ventaIds ORDER BY vp.venta.id, vp.id")
+	List<LineaVentaDTO> findLineasDTO(@Param("ventaIds") Collection<Long> ventaIds);
+
+	// Estado de cuenta: primera pagina de ventas de un cliente en el rango, de la mas reciente a la mas antigua
+	@Query("SELECT new com.coderhouse.dtos.VentaDTO(v.id, c.id, c.nombre, c.apellido, v.fecha, v.total) "
+			+ "FROM Venta v JOIN v.cliente c "
+			+ "WHERE c.id = :clienteId AND v.fechaHora >= :desde AND v.fechaHora < :hasta "
+			+ "ORDER BY v.fechaHora DESC, v.id DESC")
+	List<VentaDTO> findCuentaDTO(@Param("clienteId") Long clienteId, @Param("desde") LocalDateTime desde,
+			@Param("hasta") LocalDateTime hasta, Pageable pageable);
+
+	// Estado de cuenta: paginas siguientes por keyset sobre (fechaHora, id) de la ultima venta recibida
+	@Query("SELECT new com.coderhouse.dtos.VentaDTO(v.id, c.id, c.nombre, c.apellido, v.fecha, v.total) "
+			+ "FROM Venta v JOIN v.cliente c "
+			+ "WHERE c.id = :clienteId AND v.fechaHora >= :desde AND v.fechaHora < :hasta "
+			+ "AND (v.fechaHora < :fechaCursor OR (v.fechaHora = :fechaCursor AND v.id < :idCursor)) "
+			+ "ORDER BY v.fechaHora DESC, v.id DESC")
+	List<VentaDTO> findCuentaDTODespuesDe(@Param("clienteId") Long clienteId, @Param("desde") LocalDateTime desde,
+			@Param("hasta") LocalDateTime hasta, @Param("fechaCursor") LocalDateTime fechaCursor,
+			@Param("idCursor") Long idCursor, Pageable pageable);
+
+	// Fecha de una venta del cliente, para continuar el estado de cuenta desde ella
+	@Query("SELECT v.fechaHora FROM Venta v WHERE v.id = :id AND v.cliente.id = :clienteId")
+	Optional<LocalDateTime> findFechaHora(@Param("id") Long id, @Param("clienteId") Long clienteId);
+
+	// Cantidad, total y ultima compra del cliente en el rango, resueltos sobre el indice (cliente_id, fecha_hora, id, total)
+	@Query("SELECT new com.coderhouse.dtos.ResumenCuentaDTO(COUNT(v), COALESCE(SUM(v.total), 0L), MAX(v.fechaHora)) "
+			+ "FROM Venta v WHERE v.cliente.id = :clienteId AND v.fechaHora >= :desde AND v.fechaHora < :hasta")
+	ResumenCuentaDTO findResumenCuenta(@Param("clienteId") Long clienteId, @Param("desde") LocalDateTime desde,
+			@Param("hasta") LocalDateTime hasta);
+
+	// Cabeceras de las ventas a eliminar, sin cargar las entidades
+	@Query("SELECT new com.coderhouse.dtos.CabeceraVentaDTO(v.id, v.cliente.id, v.fechaHora, v.fecha, v.total) "
+			+ "FROM Venta v WHERE v.id IN :ids")
+	List<CabeceraVentaDTO> findCabeceras(@Param("ids") Collection<Long> ids);
+
+	// Siguiente bloque de ventas de un cliente, para eliminarlas por partes
+	@Query("SELECT v.id FROM Venta v WHERE v.cliente.id = :clienteId ORDER BY v.id")
+	List<Long> findIdsByCliente(@Param("clienteId") Long clienteId, Pageable pageable);
+
+	// Siguiente bloque de ventas anteriores a una fecha, las mas antiguas primero (indice idx_ventas_fecha)
+	@Query("SELECT v.id FROM Venta v WHERE v.fechaHora < :limite ORDER BY v.fechaHora, v.id")
+	List<Long> findIdsAnterioresA(@Param("limite") LocalDateTime limite, Pageable pageable);
+
+	long countByClienteId(Long clienteId);
+
+	// Borra las cabeceras con una sola sentencia; las lineas deben borrarse antes
+	@Modifying(flushAutomatically = true)
+	@Query("DELETE FROM Venta v WHERE v.id IN :ids")
+	int deleteByIds(@Param("ids") Collection<Long> ids);
+}
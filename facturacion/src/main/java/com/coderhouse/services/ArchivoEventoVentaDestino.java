@@ -0,0 +1,66 @@
+package com.coderhouse.services;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.coderhouse.dtos.EventoVentaDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+
+// Agrega los eventos de venta a un archivo NDJSON local (un evento por linea).
+// Cada lote se escribe y se sincroniza a disco antes de marcarlo como entregado. Esta deshabilitado por defecto
+// y necesita una ruta absoluta: una relativa dependeria del directorio desde el que se inicia la aplicacion
+@Component
+@ConditionalOnProperty(name = "facturacion.outbox.archivo.habilitado", havingValue = "true")
+public class ArchivoEventoVentaDestino implements EventoVentaDestino {
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${facturacion.outbox.archivo.ruta}")
+	private Path ruta;
+
+	@PostConstruct
+	void validarRuta() {
+		if (!ruta.isAbsolute()) {
+			throw new IllegalStateException("facturacion.outbox.archivo.ruta debe ser una ruta absoluta: " + ruta);
+		}
+	}
+
+	@Override
+	public String getNombre() {
+		return "archivo";
+	}
+
+	@Override
+	public int publicar(List<EventoVentaDTO> eventos) throws IOException {
+		StringBuilder lineas = new StringBuilder();
+		for (EventoVentaDTO evento : eventos) {
+			lineas.append(objectMapper.writeValueAsString(evento)).append('\n');
+		}
+		if (ruta.getParent() != null) {
+			Files.createDirectories(ruta.getParent());
+		}
+		try (FileChannel archivo = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND)) {
+			ByteBuffer buffer = ByteBuffer.wrap(lineas.toString().getBytes(StandardCharsets.UTF_8));
+			while (buffer.hasRemaining()) {
+				archivo.write(buffer);
+			}
+			archivo.force(false);
+		}
+		return eventos.size();
+	}
+}
@@ -0,0 +1,29 @@
+package com.coderhouse.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Corre el archivo de ventas fuera del horario de venta. Si falla un bloque, lo ya movido queda archivado
+// y el resto se intenta en la proxima corrida
+@Component
+@ConditionalOnProperty(name = "facturacion.ventas.archivo.habilitado", havingValue = "true")
+public class ArchivoVentasProgramador {
+
+	private static final Logger log = LoggerFactory.getLogger(ArchivoVentasProgramador.class);
+
+	@Autowired
+	private ArchivoVentasService archivoVentasService;
+
+	@Scheduled(cron = "${facturacion.ventas.archivo.cron:0 30 3 * * *}", zone = "${facturacion.fecha.zona:America/Argentina/Buenos_Aires}")
+	public void archivar() {
+		try {
+			archivoVentasService.archivar();
+		} catch (RuntimeException e) {
+			log.error("Error al archivar ventas", e);
+		}
+	}
+}
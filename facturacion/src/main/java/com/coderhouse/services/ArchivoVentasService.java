@@ -0,0 +1,111 @@
+package com.coderhouse.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.coderhouse.repositories.VentaRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Mueve las ventas antiguas de ventas/venta_producto a ventas_archivo/venta_producto_archivo, un bloque por
+// transaccion. Las tablas activas quedan con las ventas de los ultimos "antiguedad" dias y su tamaño deja de
+// depender del historial. Las ventas archivadas se leen desde VentaService y no se modifican ni se eliminan
+@Service
+public class ArchivoVentasService {
+
+	// Las sentencias van por JDBC: no hay entidades que cargar y Hibernate no tiene que vaciar ninguna region de cache
+	private static final String CLIENTES = "SELECT DISTINCT cliente_id FROM ventas WHERE id IN (:ids)";
+	private static final String BLOQUEAR_CLIENTES = "SELECT id FROM clientes WHERE id IN (:clientes) ORDER BY id FOR UPDATE";
+	private static final String BLOQUEAR = "SELECT id FROM ventas WHERE id IN (:ids) FOR UPDATE";
+	private static final String COPIAR_VENTAS = "INSERT INTO ventas_archivo (id, fecha, fecha_hora, total, cliente_id) "
+			+ "SELECT id, fecha, fecha_hora, total, cliente_id FROM ventas WHERE id IN (:ids)";
+	private static final String COPIAR_LINEAS = "INSERT INTO venta_producto_archivo (id, venta_id, producto_id, cantidad, precio_unitario) "
+			+ "SELECT id, venta_id, producto_id, cantidad, precio_unitario FROM venta_producto WHERE venta_id IN (:ids)";
+	private static final String BORRAR_LINEAS = "DELETE FROM venta_producto WHERE venta_id IN (:ids)";
+	private static final String BORRAR_VENTAS = "DELETE FROM ventas WHERE id IN (:ids)";
+
+	@Autowired
+	private VentaRepository ventaRepository;
+	@Autowired
+	private NamedParameterJdbcTemplate jdbcTemplate;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private FechaService fechaService;
+	@Autowired
+	private MeterRegistry registry;
+
+	// Las ventas mas antiguas que esto se archivan. Reducirla es seguro; si se aumenta, las ventas ya archivadas
+	// no vuelven a la tabla activa y el estado de cuenta de un rango reciente no las buscaria en el archivo
+	@Value("${facturacion.ventas.archivo.antiguedad:730d}")
+	private Duration antiguedad;
+
+	// Ventas por bloque: limita las listas IN y lo que bloquea cada transaccion
+	@Value("${facturacion.ventas.archivo.tamanio-bloque:1000}")
+	private int tamanioBloque;
+
+	// Toda venta archivada es anterior a este instante: un rango que empieza despues no necesita el archivo
+	public LocalDateTime horizonte() {
+		return fechaService.ahora().minus(antiguedad);
+	}
+
+	// ARCHIVAR VENTAS
+	public long archivar() {
+		return archivar(horizonte());
+	}
+
+	// Archiva las ventas anteriores al limite (nunca posterior al horizonte), las mas antiguas primero.
+	// Cada bloque sale del indice por fecha_hora; las ventas sin fecha_hora quedan en la tabla activa.
+	// Devuelve la cantidad de ventas archivadas
+	public long archivar(LocalDateTime limite) {
+		LocalDateTime hasta = limite.isBefore(horizonte()) ? limite : horizonte();
+		long archivadas = 0;
+		while (true) {
+			Integer movidas = transactionTemplate.execute(status -> {
+				List<Long> ids = ventaRepository.findIdsAnterioresA(hasta, PageRequest.of(0, tamanioBloque));
+				return ids.isEmpty() ? null : mover(ids);
+			});
+			if (movidas == null) {
+				break;
+			}
+			archivadas += movidas;
+		}
+		if (archivadas > 0) {
+			Counter.builder("facturacion.ventas.archivadas")
+					.description("Ventas movidas a las tablas de archivo")
+					.register(registry)
+					.increment(archivadas);
+		}
+		return archivadas;
+	}
+
+	// Copia y borra un bloque. Primero se bloquean sus clientes, en el mismo orden que la eliminacion de un cliente
+	// (cliente y despues ventas): un cliente que se esta eliminando termina antes, y uno que se elimina despues ve
+	// sus ventas archivadas. Despues las cabeceras: una actualizacion o eliminacion en curso termina antes de la copia,
+	// y las que lleguen despues ya no encuentran la venta en la tabla activa
+	private int mover(List<Long> ids) {
+		List<Long> clientes = jdbcTemplate.queryForList(CLIENTES, Map.of("ids", ids), Long.class);
+		if (!clientes.isEmpty()) {
+			jdbcTemplate.queryForList(BLOQUEAR_CLIENTES, Map.of("clientes", clientes), Long.class);
+		}
+		List<Long> bloqueadas = jdbcTemplate.queryForList(BLOQUEAR, Map.of("ids", ids), Long.class);
+		if (bloqueadas.isEmpty()) {
+			return 0;
+		}
+		Map<String, List<Long>> parametros = Map.of("ids", bloqueadas);
+		jdbcTemplate.update(COPIAR_VENTAS, parametros);
+		jdbcTemplate.update(COPIAR_LINEAS, parametros);
+		jdbcTemplate.update(BORRAR_LINEAS, parametros);
+		return jdbcTemplate.update(BORRAR_VENTAS, parametros);
+	}
+}
@@ -1,30 +1,105 @@
 package com.coderhouse.services;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import com.coderhouse.config.LecturaReplica;
+import com.coderhouse.dtos.ClientePaginaDTO;
+import com.coderhouse.dtos.EliminacionClienteDTO;
+import com.coderhouse.exceptions.ConflictoException;
+import com.coderhouse.exceptions.NoEncontradoException;
 import com.coderhouse.models.Cliente;
 import com.coderhouse.repositories.ClienteRepository;
+import com.coderhouse.repositories.VentaArchivadaRepository;
 
 import jakarta.transaction.Transactional;
 
 @Service
 public class ClienteService {
 
+	// Tamaño maximo de pagina para la busqueda de clientes
+	private static final int TAMANIO_MAXIMO = 100;
+	private static final String SEPARADOR = "\u0000";
+
 	@Autowired
 	private ClienteRepository clienteRepository;
+	@Autowired
+	private EliminacionVentasService eliminacionVentasService;
+	@Autowired
+	private VentaArchivadaRepository ventaArchivadaRepository;
 	
-	// GET ALL CLIENTES
-	public List<Cliente> getAllClients(){
-		return clienteRepository.findAll();
+	// BUSCAR CLIENTES
+	// Email: busqueda exacta. Apellido y/o nombre: por prefijo, en el orden de los indices de Cliente.
+	// Sin filtros devuelve todos los clientes ordenados por apellido, paginados
+	@LecturaReplica
+	public ClientePaginaDTO buscarClientes(String apellido, String nombre, String email, String cursor, int size) {
+		if (email != null && !email.isBlank()) {
+			List<Cliente> clientes = clienteRepository.findByEmail(email.trim()).map(List::of).orElse(List.of());
+			return new ClientePaginaDTO(clientes, null);
+		}
+
+		int tamanio = Math.max(1, Math.min(size, TAMANIO_MAXIMO));
+		String[] ultimo = cursor == null || cursor.isBlank() ? new String[] { "", "", "0" } : decodificarCursor(cursor);
+		boolean porNombre = vacio(apellido) && !vacio(nombre);
+
+		// Se pide un registro de mas para saber si existe una pagina siguiente
+		PageRequest pagina = PageRequest.of(0, tamanio + 1);
+		List<Cliente> clientes = porNombre
+				? clienteRepository.buscarPorNombre(prefijo(nombre), ultimo[0], ultimo[1], Long.valueOf(ultimo[2]), pagina)
+				: clienteRepository.buscarPorApellido(prefijo(apellido), prefijo(nombre), ultimo[0], ultimo[1],
+						Long.valueOf(ultimo[2]), pagina);
+
+		String siguienteCursor = null;
+		if (clientes.size() > tamanio) {
+			clientes = clientes.subList(0, tamanio);
+			Cliente ultimoCliente = clientes.get(tamanio - 1);
+			siguienteCursor = porNombre
+					? codificarCursor(ultimoCliente.getNombre(), ultimoCliente.getApellido(), ultimoCliente.getId())
+					: codificarCursor(ultimoCliente.getApellido(), ultimoCliente.getNombre(), ultimoCliente.getId());
+		}
+		return new ClientePaginaDTO(clientes, siguienteCursor);
+	}
+
+	private static boolean vacio(String valor) {
+		return valor == null || valor.isBlank();
+	}
+
+	// Patron LIKE para un prefijo; '!' escapa los comodines que vengan en el texto buscado
+	private static String prefijo(String valor) {
+		if (vacio(valor)) {
+			return "%";
+		}
+		return valor.trim().replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+	}
+
+	// El cursor lleva las claves de orden del ultimo cliente de la pagina
+	private static String codificarCursor(String primera, String segunda, Long id) {
+		String claves = primera + SEPARADOR + segunda + SEPARADOR + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(claves.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String[] decodificarCursor(String cursor) {
+		try {
+			String[] claves = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARADOR, -1);
+			if (claves.length != 3) {
+				throw new IllegalArgumentException("Cursor no valido");
+			}
+			Long.parseLong(claves[2]);
+			return claves;
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Cursor no valido");
+		}
 	}
 	
 	// GET CLIENTE BY ID
 	public Cliente getClienteById(Long id) {
 		return clienteRepository.findById(id)
-				.orElseThrow(()-> new IllegalArgumentException("Cliente no encontrado"));
+				.orElseThrow(()-> new NoEncontradoException("Cliente no encontrado"));
 	}
 	
 	// CREAR CLIENTE
@@ -37,7 +112,7 @@ public class ClienteService {
 	@Transactional
 	public Cliente updateClienteById(Long id, Cliente clienteInfo) {
 		Cliente cliente = clienteRepository.findById(id)
-				.orElseThrow(()-> new IllegalArgumentException("Cliente no encontrado"));
+				.orElseThrow(()-> new NoEncontradoException("Cliente no encontrado"));
 		
 		if(clienteInfo.getNombre() != null && !clienteInfo.getNombre().isEmpty()) {
 			cliente.setNombre(clienteInfo.getNombre());
@@ -55,10 +130,21 @@ public class ClienteService {
 	}
 	
 	// ELIMINAR CLIENTE
-	public void deleteClienteById(Long id) {
+	// Elimina tambien sus ventas reponiendo el stock; si tiene muchas, en segundo plano (ver EliminacionVentasService).
+	// Un cliente con ventas archivadas no se elimina: el archivo no se modifica. Esta comprobacion evita lanzar
+	// el trabajo; la que cuenta se repite con el cliente bloqueado en cada transaccion de la eliminacion
+	public EliminacionClienteDTO deleteClienteById(Long id) {
 		if(!clienteRepository.existsById(id)) {
-			throw new IllegalArgumentException("Cliente no encontrado");
+			throw new NoEncontradoException("Cliente no encontrado");
+		}
+		if(ventaArchivadaRepository.existsByClienteId(id)) {
+			throw new ConflictoException("Cliente con ventas archivadas");
 		}
-		clienteRepository.deleteById(id);
+		return eliminacionVentasService.eliminarCliente(id);
+	}
+	
+	// AVANCE DE LA ELIMINACION DE UN CLIENTE
+	public EliminacionClienteDTO getEliminacionCliente(Long id) {
+		return eliminacionVentasService.getEliminacion(id);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,262 @@
+package com.coderhouse.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.coderhouse.dtos.CabeceraVentaDTO;
+import com.coderhouse.dtos.EliminacionClienteDTO;
+import com.coderhouse.dtos.EventoVentaDTO;
+import com.coderhouse.exceptions.ConflictoException;
+import com.coderhouse.repositories.ClienteRepository;
+import com.coderhouse.repositories.VentaArchivadaRepository;
+import com.coderhouse.repositories.VentaProductoRepository;
+import com.coderhouse.repositories.VentaRepository;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.transaction.Transactional;
+
+// Eliminacion de ventas por conjuntos: sin cargar entidades, con una actualizacion de stock por producto
+// y un DELETE para las lineas y otro para las cabeceras de cada bloque
+@Service
+public class EliminacionVentasService {
+
+	private static final Logger log = LoggerFactory.getLogger(EliminacionVentasService.class);
+
+	@Autowired
+	private VentaRepository ventaRepository;
+	@Autowired
+	private VentaProductoRepository ventaProductoRepository;
+	@Autowired
+	private ClienteRepository clienteRepository;
+	@Autowired
+	private VentaArchivadaRepository ventaArchivadaRepository;
+	@Autowired
+	private StockService stockService;
+	@Autowired
+	private ResumenVentasService resumenVentasService;
+	@Autowired
+	private OutboxService outboxService;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	// Ventas por bloque (limita el tamaño de las listas IN y de cada transaccion del trabajo en segundo plano)
+	@Value("${facturacion.eliminacion.tamanio-bloque:1000}")
+	private int tamanioBloque;
+
+	// Hasta esta cantidad de ventas un cliente se elimina en la misma peticion y en una sola transaccion
+	@Value("${facturacion.eliminacion.maximo-sincronico:5000}")
+	private int maximoSincronico;
+
+	// Tiempo que se conserva el resultado de un trabajo terminado para consultarlo con getEliminacion
+	@Value("${facturacion.eliminacion.retencion:1h}")
+	private Duration retencion;
+
+	// Los trabajos corren de a uno para no competir entre ellos por las mismas filas de productos
+	private final ExecutorService ejecutor = Executors.newSingleThreadExecutor();
+	private final Map<Long, Trabajo> trabajos = new ConcurrentHashMap<>();
+
+	private static final class Trabajo {
+		final Long clienteId;
+		final long ventasTotales;
+		final AtomicLong ventasEliminadas = new AtomicLong();
+		volatile String estado = EliminacionClienteDTO.EN_CURSO;
+		volatile String error;
+		volatile Instant terminado;
+
+		Trabajo(Long clienteId, long ventasTotales) {
+			this.clienteId = clienteId;
+			this.ventasTotales = ventasTotales;
+		}
+
+		void terminar(String estado) {
+			this.estado = estado;
+			this.terminado = Instant.now();
+		}
+
+		EliminacionClienteDTO toDTO() {
+			return new EliminacionClienteDTO(clienteId, estado, ventasTotales, ventasEliminadas.get(), error);
+		}
+	}
+
+	// ELIMINAR VENTAS
+	// Repone el stock, descuenta los resumenes diarios, registra los eventos y borra lineas y cabeceras.
+	// Devuelve la cantidad de ventas eliminadas (las que no existen se ignoran)
+	@Transactional
+	public int eliminarVentas(Collection<Long> ventaIds) {
+		if (ventaIds.isEmpty()) {
+			return 0;
+		}
+		List<CabeceraVentaDTO> cabeceras = ventaRepository.findCabeceras(ventaIds);
+		if (cabeceras.isEmpty()) {
+			return 0;
+		}
+		List<Long> ids = new ArrayList<>(cabeceras.size());
+		cabeceras.forEach(c -> ids.add(c.getId()));
+
+		// Una sola consulta agregada para el stock y los resumenes: {ventaId, productoId, ingresos, unidades}
+		Map<Long, Integer> stock = new HashMap<>();
+		Map<Long, List<long[]>> productosPorVenta = new HashMap<>();
+		for (Object[] fila : ventaProductoRepository.sumarPorVentaYProducto(ids)) {
+			Long ventaId = (Long) fila[0];
+			Long productoId = (Long) fila[1];
+			long ingresos = ((Number) fila[2]).longValue();
+			long unidades = ((Number) fila[3]).longValue();
+			stock.merge(productoId, (int) unidades, Integer::sum);
+			productosPorVenta.computeIfAbsent(ventaId, k -> new ArrayList<>())
+					.add(new long[] { productoId, ingresos, unidades });
+		}
+
+		ResumenDelta delta = new ResumenDelta();
+		for (CabeceraVentaDTO cabecera : cabeceras) {
+			LocalDate dia = ResumenVentasService.diaDe(cabecera.getFechaHora(), cabecera.getFecha());
+			if (dia == null) {
+				continue;
+			}
+			long total = 0;
+			long unidades = 0;
+			for (long[] producto : productosPorVenta.getOrDefault(cabecera.getId(), List.of())) {
+				delta.agregarProducto(dia, producto[0], producto[1], producto[2], -1);
+				total += producto[1];
+				unidades += producto[2];
+			}
+			delta.agregarVenta(dia, cabecera.getClienteId(), total, unidades, -1);
+		}
+
+		stockService.reponer(stock);
+		resumenVentasService.aplicar(delta);
+
+		ventaProductoRepository.deleteByVentaIds(ids);
+		int eliminadas = ventaRepository.deleteByIds(ids);
+		outboxService.registrarCabeceras(EventoVentaDTO.ELIMINADA, cabeceras);
+		return eliminadas;
+	}
+
+	// ELIMINAR CLIENTE CON SUS VENTAS
+	// Con pocas ventas todo ocurre en una transaccion y se devuelve TERMINADA.
+	// Con mas de maximoSincronico se lanza un trabajo en segundo plano que elimina un bloque por transaccion
+	// y se devuelve EN_CURSO; el avance se consulta con getEliminacion
+	public EliminacionClienteDTO eliminarCliente(Long clienteId) {
+		purgarTerminados();
+		long ventas = ventaRepository.countByClienteId(clienteId);
+		Trabajo trabajo = new Trabajo(clienteId, ventas);
+		Trabajo anterior = trabajos.putIfAbsent(clienteId, trabajo);
+		if (anterior != null) {
+			if (EliminacionClienteDTO.EN_CURSO.equals(anterior.estado)) {
+				return anterior.toDTO();
+			}
+			trabajos.put(clienteId, trabajo);
+		}
+
+		// El trabajo queda registrado tambien en el camino sincronico: mientras dura, enEliminacion rechaza ventas nuevas
+		if (ventas <= maximoSincronico) {
+			try {
+				transactionTemplate.executeWithoutResult(status -> {
+					bloquearSinArchivo(clienteId);
+					List<Long> ids;
+					while (!(ids = siguienteBloque(clienteId)).isEmpty()) {
+						trabajo.ventasEliminadas.addAndGet(eliminarVentas(ids));
+					}
+					clienteRepository.deleteById(clienteId);
+				});
+			} catch (RuntimeException e) {
+				// La transaccion se deshizo entera: no queda nada que informar
+				trabajos.remove(clienteId, trabajo);
+				throw e;
+			}
+			trabajo.terminar(EliminacionClienteDTO.TERMINADA);
+			return trabajo.toDTO();
+		}
+
+		ejecutor.execute(() -> ejecutar(trabajo));
+		return trabajo.toDTO();
+	}
+
+	private void ejecutar(Trabajo trabajo) {
+		try {
+			while (true) {
+				// El cliente se borra en la misma transaccion que comprueba que ya no le quedan ventas
+				Integer eliminadas = transactionTemplate.execute(status -> {
+					bloquearSinArchivo(trabajo.clienteId);
+					List<Long> ids = siguienteBloque(trabajo.clienteId);
+					if (ids.isEmpty()) {
+						clienteRepository.deleteById(trabajo.clienteId);
+						return null;
+					}
+					return eliminarVentas(ids);
+				});
+				if (eliminadas == null) {
+					break;
+				}
+				trabajo.ventasEliminadas.addAndGet(eliminadas);
+			}
+			trabajo.terminar(EliminacionClienteDTO.TERMINADA);
+		} catch (ConflictoException e) {
+			log.warn("Eliminacion del cliente {} interrumpida: {}", trabajo.clienteId, e.getMessage());
+			trabajo.error = e.getMessage();
+			trabajo.terminar(EliminacionClienteDTO.ERROR);
+		} catch (RuntimeException e) {
+			log.error("Error al eliminar el cliente {}", trabajo.clienteId, e);
+			trabajo.error = e.getMessage();
+			trabajo.terminar(EliminacionClienteDTO.ERROR);
+		}
+	}
+
+	// Quita los trabajos terminados hace mas de 'retencion'; los que estan en curso no vencen
+	private void purgarTerminados() {
+		Instant limite = Instant.now().minus(retencion);
+		trabajos.values().removeIf(t -> t.terminado != null && t.terminado.isBefore(limite));
+	}
+
+	// El archivo de ventas bloquea los clientes de cada bloque antes de moverlo. Con el cliente bloqueado ninguna
+	// de sus ventas se archiva durante la transaccion, y la comprobacion ve lo que se archivo antes.
+	// Si aparecen ventas archivadas en medio de un trabajo, las ventas ya eliminadas no vuelven y el cliente queda
+	private void bloquearSinArchivo(Long clienteId) {
+		clienteRepository.bloquear(clienteId);
+		if (ventaArchivadaRepository.existsByClienteId(clienteId)) {
+			throw new ConflictoException("Cliente con ventas archivadas");
+		}
+	}
+
+	private List<Long> siguienteBloque(Long clienteId) {
+		return ventaRepository.findIdsByCliente(clienteId, PageRequest.of(0, tamanioBloque));
+	}
+
+	// AVANCE DE LA ELIMINACION
+	public EliminacionClienteDTO getEliminacion(Long clienteId) {
+		purgarTerminados();
+		Trabajo trabajo = trabajos.get(clienteId);
+		if (trabajo == null) {
+			throw new IllegalArgumentException("Eliminacion no encontrada");
+		}
+		return trabajo.toDTO();
+	}
+
+	// Un cliente con una eliminacion en curso no puede registrar ventas nuevas
+	public boolean enEliminacion(Long clienteId) {
+		Trabajo trabajo = trabajos.get(clienteId);
+		return trabajo != null && EliminacionClienteDTO.EN_CURSO.equals(trabajo.estado);
+	}
+
+	@PreDestroy
+	public void detener() {
+		ejecutor.shutdownNow();
+	}
+}
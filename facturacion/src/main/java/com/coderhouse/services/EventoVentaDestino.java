@@ -0,0 +1,18 @@
+package com.coderhouse.services;
+
+import java.util.List;
+
+import com.coderhouse.dtos.EventoVentaDTO;
+
+// Destino al que OutboxPublicador entrega los eventos de venta. Cada evento se guarda una vez por destino.
+// La entrega es al menos una vez: tras un error o un reinicio se reenvian los eventos no confirmados
+public interface EventoVentaDestino {
+
+	// Nombre con el que se guardan los eventos del destino, de hasta 64 caracteres. Los eventos pendientes de
+	// un destino que se deja de usar se conservan hasta borrarlos a mano
+	String getNombre();
+
+	// Entrega los eventos en orden y devuelve cuantos acepto desde el principio de la lista.
+	// Devolver menos que el total indica que el destino esta saturado y frena la entrega hasta la proxima vuelta
+	int publicar(List<EventoVentaDTO> eventos) throws Exception;
+}
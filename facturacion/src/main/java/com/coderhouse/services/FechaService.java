@@ -1,49 +1,46 @@
 package com.coderhouse.services;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 
-import com.coderhouse.dtos.FechaDTO;
 import com.coderhouse.models.Venta;
 
 @Service
 public class FechaService {
 
 	@Autowired
-	private RestTemplate restTemplate;
+	private Clock clock;
 	
-	// Formato de fecga
+	// Formato de fecha
 	private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 	
+	// Diferencia entre la hora de la API externa y el reloj local (la actualiza FechaSincronizador)
+	private final AtomicLong desfaseMillis = new AtomicLong();
+	
+	// Asigna la fecha con el reloj local corregido; nunca espera a la red
 	public void asignarFecha(Venta venta) {
-		try {
-			// URL
-			final String URL = "https://timeapi.io/api/Time/current/zone?timeZone=America/Argentina/Buenos_Aires";
-			// Obtener la fecha de la API
-    		FechaDTO fechaDTO = restTemplate.getForObject(URL, FechaDTO.class);
-    		
-    		// Validar si la API respondio correctamente
-    		if(fechaDTO != null && fechaDTO.getDate() != null && fechaDTO.getTime() != null) {
-    			String fechaString = String.format("%s %s", fechaDTO.getDate(), fechaDTO.getTime());
-    			venta.setFecha(fechaString);
-    		}else {
-    			// Asignar fecha local
-    			venta.setFecha(obtenerFechaLocal());
-    		}
-			
-		} catch(RestClientException e) {
-			System.err.println("Error, no se pudo conectar a la API externa: " + e.getMessage());
-		}
+		LocalDateTime ahora = ahora().withNano(0);
+		venta.setFechaHora(ahora);
+		venta.setFecha(ahora.format(DATE_FORMAT));
+	}
+	
+	// Fecha y hora actual en la zona configurada, corregida con el ultimo desfase conocido
+	public LocalDateTime ahora() {
+		return LocalDateTime.now(clock).plus(Duration.ofMillis(desfaseMillis.get()));
+	}
+	
+	public Duration getDesfase() {
+		return Duration.ofMillis(desfaseMillis.get());
 	}
 	
-	// Metodo para obtener fecha local en formato String
-	private String obtenerFechaLocal() {
-		return LocalDateTime.now().format(DATE_FORMAT);
+	public void ajustarDesfase(Duration desfase) {
+		desfaseMillis.set(desfase.toMillis());
 	}
 	
 }
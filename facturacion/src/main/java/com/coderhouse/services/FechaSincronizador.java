@@ -0,0 +1,92 @@
+package com.coderhouse.services;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import com.coderhouse.dtos.FechaDTO;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+// Consulta la hora de la API externa en segundo plano y guarda el desfase en FechaService,
+// asi ninguna venta espera una llamada HTTP
+@Component
+@ConditionalOnProperty(name = "facturacion.fecha.sincronizacion.habilitada", havingValue = "true")
+public class FechaSincronizador {
+
+	private static final Logger log = LoggerFactory.getLogger(FechaSincronizador.class);
+
+	@Autowired
+	private RestTemplate restTemplate;
+	@Autowired
+	private FechaService fechaService;
+	@Autowired
+	private Clock clock;
+	@Autowired
+	private MeterRegistry registry;
+
+	@Value("${facturacion.fecha.api-url}")
+	private String url;
+
+	// Desfases mayores se consideran una respuesta erronea y se descartan
+	@Value("${facturacion.fecha.sincronizacion.desfase-maximo-ms:3600000}")
+	private long desfaseMaximoMillis;
+
+	@PostConstruct
+	void registrarDesfase() {
+		Gauge.builder("facturacion.fecha.desfase", fechaService, f -> f.getDesfase().toMillis())
+				.description("Desfase aplicado al reloj local, en milisegundos")
+				.register(registry);
+	}
+
+	@Scheduled(fixedDelayString = "${facturacion.fecha.sincronizacion.intervalo-ms:300000}")
+	public void sincronizar() {
+		Timer.Sample muestra = Timer.start(registry);
+		String resultado = "ok";
+		try {
+			long antes = clock.millis();
+			FechaDTO fechaDTO = restTemplate.getForObject(url, FechaDTO.class);
+			long despues = clock.millis();
+
+			if (fechaDTO == null || fechaDTO.getDateTime() == null) {
+				resultado = "sin_fecha";
+				log.warn("La API externa no devolvio la fecha");
+				return;
+			}
+
+			// Se toma la mitad del viaje de ida y vuelta como momento de la respuesta
+			long remotaMillis = LocalDateTime.parse(fechaDTO.getDateTime())
+					.atZone(clock.getZone()).toInstant().toEpochMilli();
+			long desfase = remotaMillis - (antes + despues) / 2;
+
+			if (Math.abs(desfase) > desfaseMaximoMillis) {
+				resultado = "fuera_de_rango";
+				log.warn("Desfase con la API externa fuera de rango: {} ms", desfase);
+				return;
+			}
+			fechaService.ajustarDesfase(Duration.ofMillis(desfase));
+		} catch (RestClientException | DateTimeParseException e) {
+			resultado = "error";
+			log.warn("No se pudo consultar la API externa: {}", e.getMessage());
+		} finally {
+			muestra.stop(Timer.builder("facturacion.fecha.consulta")
+					.description("Consulta de la hora a la API externa")
+					.tag("resultado", resultado)
+					.register(registry));
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package com.coderhouse.services;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.coderhouse.dtos.VentaDTO;
+import com.coderhouse.exceptions.IdempotenciaConflictoException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+
+// Guarda por un tiempo la venta creada con cada Idempotency-Key. Un reintento con la misma clave
+// devuelve esa venta sin volver a ejecutar newVenta, y los pedidos simultaneos esperan al primero.
+// Las claves viven en memoria de esta instancia
+@Component
+public class IdempotenciaService {
+
+	// Longitud maxima aceptada para la clave que envia el cliente
+	public static final int LONGITUD_MAXIMA_CLAVE = 255;
+
+	@Value("${facturacion.ventas.idempotencia.ttl:24h}")
+	private Duration ttl;
+
+	@Value("${facturacion.ventas.idempotencia.maximo-claves:100000}")
+	private long maximoClaves;
+
+	// La huella identifica el contenido del pedido, para detectar una clave reutilizada con otra venta
+	private record Entrada(String huella, CompletableFuture<VentaDTO> venta) {
+	}
+
+	public record Resultado(VentaDTO venta, boolean repetida) {
+	}
+
+	private Cache<String, Entrada> entradas;
+
+	@PostConstruct
+	void inicializar() {
+		entradas = Caffeine.newBuilder()
+				.maximumSize(maximoClaves)
+				.expireAfterWrite(ttl)
+				.build();
+	}
+
+	public Resultado ejecutar(String clave, String huella, Supplier<VentaDTO> crearVenta) {
+		if (clave.isBlank() || clave.length() > LONGITUD_MAXIMA_CLAVE) {
+			throw new IllegalArgumentException("Idempotency-Key no valida");
+		}
+
+		Entrada propia = new Entrada(huella, new CompletableFuture<>());
+		Entrada existente = entradas.asMap().putIfAbsent(clave, propia);
+		if (existente != null) {
+			if (!existente.huella().equals(huella)) {
+				throw new IdempotenciaConflictoException("La Idempotency-Key ya se uso con otra venta");
+			}
+			return new Resultado(esperar(existente.venta()), true);
+		}
+
+		try {
+			VentaDTO venta = crearVenta.get();
+			propia.venta().complete(venta);
+			return new Resultado(venta, false);
+		} catch (Throwable e) {
+			// Si la venta no se creo la clave queda libre, asi el reintento vuelve a intentarlo. Tambien ante un
+			// Error: si el futuro quedara sin completar, los pedidos que esperan en join() no terminarian nunca
+			entradas.asMap().remove(clave, propia);
+			propia.venta().completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	// Los pedidos que esperan reciben el mismo resultado o el mismo error que el primero
+	private VentaDTO esperar(CompletableFuture<VentaDTO> venta) {
+		try {
+			return venta.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException causa) {
+				throw causa;
+			}
+			if (e.getCause() instanceof Error causa) {
+				throw causa;
+			}
+			throw e;
+		}
+	}
+
+	public static String huella(Long clienteId, Object productosIds, Object cantidades) {
+		return clienteId + "|" + productosIds + "|" + cantidades;
+	}
+}
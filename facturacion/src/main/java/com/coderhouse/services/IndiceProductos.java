@@ -0,0 +1,434 @@
+package com.coderhouse.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Indice invertido en memoria sobre Producto.nombre, para la busqueda de GET /api/productos/search.
+// Los nombres se pasan a minusculas, sin tildes, y se separan en palabras; cada palabra apunta a los IDs
+// ordenados de los productos que la contienen. Una palabra buscada coincide con una del producto si es igual,
+// si es su prefijo o, desde 4 letras, si esta a una edicion (cambio, alta, baja o trasposicion de una letra).
+// Se reconstruye al iniciar, antes de atender peticiones, y se actualiza con las altas, cambios y bajas
+// confirmadas por ProductoService en esta instancia
+@Component
+public class IndiceProductos implements SmartInitializingSingleton {
+
+	// Puntaje de cada palabra buscada segun como coincide con el producto
+	private static final int EXACTA = 3;
+	private static final int PREFIJO = 2;
+	private static final int APROXIMADA = 1;
+	private static final int LARGO_MINIMO_APROXIMADA = 4;
+	private static final int PALABRAS_MAXIMAS = 8;
+	// Al elegir la palabra que guia la busqueda no hace falta contar mas alla de este total
+	private static final long TOPE_ESTIMACION = 1 << 20;
+	private static final long[] SIN_IDS = new long[0];
+	private static final String[] SIN_PALABRAS = new String[0];
+	// El peor elegido queda primero: menor puntaje y, a igual puntaje, el encontrado mas tarde
+	private static final Comparator<Candidato> PEOR_PRIMERO = Comparator.comparingInt(Candidato::puntaje)
+			.thenComparing(Comparator.comparingInt(Candidato::orden).reversed());
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Value("${facturacion.productos.busqueda.fetch-size:1000}")
+	private int fetchSize;
+
+	// Contenido actual del indice. La reconstruccion arma uno nuevo aparte y lo publica de una vez:
+	// una busqueda concurrente ve el anterior o el nuevo, nunca uno vaciado a medias
+	private volatile Contenido contenido = new Contenido();
+	// Las escrituras son pocas y se serializan
+	private final Object escritura = new Object();
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		reconstruir();
+	}
+
+	// RECONSTRUIR DESDE LA BASE
+	public void reconstruir() {
+		JdbcTemplate lectura = new JdbcTemplate(dataSource);
+		lectura.setFetchSize(fetchSize);
+		reconstruir(agregar -> lectura.query("SELECT id, nombre FROM productos",
+				(RowCallbackHandler) fila -> agregar.accept(fila.getLong(1), fila.getString(2))));
+	}
+
+	// Reemplaza el contenido del indice por los productos (id, nombre) que entrega el origen
+	public void reconstruir(Consumer<BiConsumer<Long, String>> origen) {
+		synchronized (escritura) {
+			Contenido nuevo = new Contenido();
+			Map<String, ListaIds> acumulado = new HashMap<>();
+			origen.accept((id, nombre) -> {
+				String[] delProducto = palabrasDe(nombre);
+				for (int i = 0; i < delProducto.length; i++) {
+					ListaIds ids = acumulado.computeIfAbsent(delProducto[i], ListaIds::new);
+					ids.agregar(id);
+					// Todos los productos comparten la misma instancia de cada palabra
+					delProducto[i] = ids.palabra;
+				}
+				nuevo.productos.put(id, delProducto);
+			});
+			acumulado.forEach((palabra, ids) -> {
+				nuevo.palabras.put(palabra, ids.ordenados());
+				nuevo.agregarBorrados(palabra);
+			});
+			contenido = nuevo;
+		}
+	}
+
+	public int getTamanio() {
+		return contenido.productos.size();
+	}
+
+	// ACTUALIZACIONES
+	// Dentro de una transaccion se aplican al confirmarla; una transaccion revertida no toca el indice
+	public void indexar(Long id, String nombre) {
+		alConfirmar(() -> aplicar(id, palabrasDe(nombre)));
+	}
+
+	public void quitar(Long id) {
+		alConfirmar(() -> aplicar(id, null));
+	}
+
+	private static void alConfirmar(Runnable cambio) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			cambio.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				cambio.run();
+			}
+		});
+	}
+
+	private void aplicar(Long id, String[] nuevas) {
+		synchronized (escritura) {
+			Contenido actual = contenido;
+			String[] anteriores = nuevas == null ? actual.productos.remove(id) : actual.productos.put(id, nuevas);
+			List<String> quedan = nuevas == null ? List.of() : Arrays.asList(nuevas);
+			List<String> estaban = anteriores == null ? List.of() : Arrays.asList(anteriores);
+			for (String palabra : estaban) {
+				if (!quedan.contains(palabra)) {
+					actual.quitarId(palabra, id);
+				}
+			}
+			for (String palabra : quedan) {
+				if (!estaban.contains(palabra)) {
+					actual.agregarId(palabra, id);
+				}
+			}
+		}
+	}
+
+	// BUSCAR
+	// IDs de los productos que contienen todas las palabras buscadas, del mayor al menor puntaje.
+	// La palabra con menos productos guia el recorrido y las demas se verifican contra las palabras de cada
+	// producto. El recorrido termina cuando ningun producto pendiente puede superar a los ya elegidos,
+	// asi que entre productos con el mismo puntaje se devuelven los primeros encontrados
+	public List<Long> buscar(String texto, int limite) {
+		Set<String> buscadas = new LinkedHashSet<>(Arrays.asList(palabrasDe(texto)));
+		if (buscadas.isEmpty() || limite <= 0) {
+			return List.of();
+		}
+		Contenido actual = contenido;
+		List<Coincidencias> todas = new ArrayList<>();
+		for (String buscada : buscadas) {
+			if (todas.size() == PALABRAS_MAXIMAS) {
+				break;
+			}
+			Coincidencias coincidencias = coincidencias(actual, buscada);
+			if (coincidencias.total == 0) {
+				return List.of();
+			}
+			todas.add(coincidencias);
+		}
+		Coincidencias guia = todas.stream().min(Comparator.comparingLong(Coincidencias::total)).get();
+		int maximoOtras = EXACTA * (todas.size() - 1);
+
+		PriorityQueue<Candidato> elegidos = new PriorityQueue<>(PEOR_PRIMERO);
+		Set<Long> vistos = new HashSet<>();
+		int orden = 0;
+		recorrido:
+		for (Grupo grupo : guia.grupos()) {
+			for (String palabra : grupo.palabras()) {
+				if (completo(elegidos, limite, grupo.puntaje() + maximoOtras)) {
+					break recorrido;
+				}
+				for (long id : actual.palabras.getOrDefault(palabra, SIN_IDS)) {
+					if (!vistos.add(id)) {
+						continue;
+					}
+					String[] delProducto = actual.productos.get(id);
+					int puntaje = delProducto == null ? 0 : grupo.puntaje();
+					for (int i = 0; i < todas.size() && puntaje > 0; i++) {
+						Coincidencias otra = todas.get(i);
+						if (otra != guia) {
+							int parcial = otra.puntaje(delProducto);
+							puntaje = parcial == 0 ? 0 : puntaje + parcial;
+						}
+					}
+					if (puntaje == 0) {
+						continue;
+					}
+					elegidos.add(new Candidato(id, puntaje, orden++));
+					if (elegidos.size() > limite) {
+						elegidos.poll();
+					}
+					if (completo(elegidos, limite, grupo.puntaje() + maximoOtras)) {
+						break recorrido;
+					}
+				}
+			}
+		}
+
+		List<Candidato> ordenados = new ArrayList<>(elegidos);
+		ordenados.sort(PEOR_PRIMERO.reversed());
+		return ordenados.stream().map(Candidato::id).toList();
+	}
+
+	private static boolean completo(PriorityQueue<Candidato> elegidos, int limite, int maximoPosible) {
+		return elegidos.size() >= limite && elegidos.peek().puntaje() >= maximoPosible;
+	}
+
+	private static Coincidencias coincidencias(Contenido actual, String buscada) {
+		NavigableMap<String, long[]> palabras = actual.palabras;
+		boolean exacta = palabras.containsKey(buscada);
+		NavigableMap<String, long[]> prefijos = palabras.subMap(buscada, false, buscada + Character.MAX_VALUE, false);
+		Set<String> aproximadas = buscada.length() < LARGO_MINIMO_APROXIMADA ? Set.of() : aproximadas(actual, buscada);
+
+		long total = exacta ? palabras.getOrDefault(buscada, SIN_IDS).length : 0;
+		for (long[] ids : prefijos.values()) {
+			if (total > TOPE_ESTIMACION) {
+				break;
+			}
+			total += ids.length;
+		}
+		for (String aproximada : aproximadas) {
+			total += palabras.getOrDefault(aproximada, SIN_IDS).length;
+		}
+		return new Coincidencias(buscada, exacta, prefijos, aproximadas, total);
+	}
+
+	// Palabras del indice a una edicion de la buscada que no son ella misma ni empiezan con ella
+	private static Set<String> aproximadas(Contenido actual, String buscada) {
+		Set<String> encontradas = new HashSet<>();
+		for (String borrado : borradosDe(buscada)) {
+			for (String palabra : actual.borrados.getOrDefault(borrado, SIN_PALABRAS)) {
+				if (!palabra.startsWith(buscada) && aUnaEdicion(buscada, palabra)) {
+					encontradas.add(palabra);
+				}
+			}
+		}
+		return encontradas;
+	}
+
+	// La palabra y cada variante con una letra menos: dos palabras a una edicion comparten alguna.
+	// Las palabras mas cortas no pueden estar a una edicion de una buscada de LARGO_MINIMO_APROXIMADA letras
+	private static List<String> borradosDe(String palabra) {
+		if (palabra.length() < LARGO_MINIMO_APROXIMADA - 1) {
+			return List.of();
+		}
+		List<String> variantes = new ArrayList<>(palabra.length() + 1);
+		variantes.add(palabra);
+		for (int i = 0; i < palabra.length(); i++) {
+			variantes.add(palabra.substring(0, i) + palabra.substring(i + 1));
+		}
+		return variantes;
+	}
+
+	// Distancia de edicion (con trasposicion de letras vecinas) igual a 1
+	static boolean aUnaEdicion(String a, String b) {
+		int largoA = a.length();
+		int largoB = b.length();
+		if (a.equals(b) || Math.abs(largoA - largoB) > 1) {
+			return false;
+		}
+		int i = 0;
+		while (i < Math.min(largoA, largoB) && a.charAt(i) == b.charAt(i)) {
+			i++;
+		}
+		if (largoA == largoB) {
+			if (a.regionMatches(i + 1, b, i + 1, largoA - i - 1)) {
+				return true;
+			}
+			return i + 1 < largoA && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+					&& a.regionMatches(i + 2, b, i + 2, largoA - i - 2);
+		}
+		return largoA > largoB ? a.regionMatches(i + 1, b, i, largoB - i) : b.regionMatches(i + 1, a, i, largoA - i);
+	}
+
+	// Minusculas, sin tildes ni dieresis (la ñ queda como n) y separado en letras y numeros, sin repetir
+	static String[] palabrasDe(String texto) {
+		if (texto == null || texto.isBlank()) {
+			return SIN_PALABRAS;
+		}
+		String descompuesto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+		Set<String> encontradas = new LinkedHashSet<>();
+		StringBuilder actual = new StringBuilder();
+		for (int i = 0; i < descompuesto.length(); i++) {
+			char c = descompuesto.charAt(i);
+			if (Character.getType(c) == Character.NON_SPACING_MARK) {
+				continue;
+			}
+			if (Character.isLetterOrDigit(c)) {
+				actual.append(Character.toLowerCase(c));
+			} else if (!actual.isEmpty()) {
+				encontradas.add(actual.toString());
+				actual.setLength(0);
+			}
+		}
+		if (!actual.isEmpty()) {
+			encontradas.add(actual.toString());
+		}
+		return encontradas.toArray(String[]::new);
+	}
+
+	private record Candidato(long id, int puntaje, int orden) {
+	}
+
+	private record Grupo(int puntaje, Iterable<String> palabras) {
+	}
+
+	// Palabras del indice que coinciden con una palabra buscada y total estimado de productos
+	private record Coincidencias(String buscada, boolean exacta, NavigableMap<String, long[]> prefijos,
+			Set<String> aproximadas, long total) {
+
+		List<Grupo> grupos() {
+			return List.of(new Grupo(EXACTA, exacta ? List.of(buscada) : List.of()),
+					new Grupo(PREFIJO, prefijos.keySet()),
+					new Grupo(APROXIMADA, aproximadas));
+		}
+
+		int puntaje(String[] delProducto) {
+			int mejor = 0;
+			for (String palabra : delProducto) {
+				if (palabra.equals(buscada)) {
+					return EXACTA;
+				}
+				if (palabra.startsWith(buscada)) {
+					mejor = PREFIJO;
+				} else if (mejor == 0 && aproximadas.contains(palabra)) {
+					mejor = APROXIMADA;
+				}
+			}
+			return mejor;
+		}
+	}
+
+	// Mapas del indice. Las escrituras los modifican bajo el lock 'escritura'
+	private static final class Contenido {
+
+		// Palabra -> IDs ordenados. Los arreglos no se modifican: cada cambio publica uno nuevo,
+		// asi las busquedas leen sin bloquear
+		private final ConcurrentSkipListMap<String, long[]> palabras = new ConcurrentSkipListMap<>();
+		// Palabra con una letra menos (o la palabra entera) -> palabras del indice que la generan
+		private final ConcurrentHashMap<String, String[]> borrados = new ConcurrentHashMap<>();
+		// ID -> palabras del nombre, para verificar las demas palabras buscadas y para quitar las anteriores
+		private final ConcurrentHashMap<Long, String[]> productos = new ConcurrentHashMap<>();
+
+		private void agregarId(String palabra, long id) {
+			long[] actuales = palabras.get(palabra);
+			if (actuales == null) {
+				palabras.put(palabra, new long[] { id });
+				agregarBorrados(palabra);
+				return;
+			}
+			int posicion = Arrays.binarySearch(actuales, id);
+			if (posicion >= 0) {
+				return;
+			}
+			posicion = -posicion - 1;
+			long[] nuevos = new long[actuales.length + 1];
+			System.arraycopy(actuales, 0, nuevos, 0, posicion);
+			nuevos[posicion] = id;
+			System.arraycopy(actuales, posicion, nuevos, posicion + 1, actuales.length - posicion);
+			palabras.put(palabra, nuevos);
+		}
+
+		private void quitarId(String palabra, long id) {
+			long[] actuales = palabras.get(palabra);
+			int posicion = actuales == null ? -1 : Arrays.binarySearch(actuales, id);
+			if (posicion < 0) {
+				return;
+			}
+			if (actuales.length == 1) {
+				palabras.remove(palabra);
+				quitarBorrados(palabra);
+				return;
+			}
+			long[] nuevos = new long[actuales.length - 1];
+			System.arraycopy(actuales, 0, nuevos, 0, posicion);
+			System.arraycopy(actuales, posicion + 1, nuevos, posicion, actuales.length - posicion - 1);
+			palabras.put(palabra, nuevos);
+		}
+
+		private void agregarBorrados(String palabra) {
+			for (String borrado : borradosDe(palabra)) {
+				borrados.merge(borrado, new String[] { palabra }, (actuales, nueva) -> {
+					String[] unidas = Arrays.copyOf(actuales, actuales.length + 1);
+					unidas[actuales.length] = palabra;
+					return unidas;
+				});
+			}
+		}
+
+		private void quitarBorrados(String palabra) {
+			for (String borrado : borradosDe(palabra)) {
+				borrados.computeIfPresent(borrado, (clave, actuales) -> {
+					String[] quedan = Arrays.stream(actuales).filter(p -> !p.equals(palabra)).toArray(String[]::new);
+					return quedan.length == 0 ? null : quedan;
+				});
+			}
+		}
+	}
+
+	// IDs de una palabra durante la reconstruccion
+	private static final class ListaIds {
+
+		private final String palabra;
+		private long[] ids = new long[4];
+		private int cantidad;
+
+		ListaIds(String palabra) {
+			this.palabra = palabra;
+		}
+
+		void agregar(long id) {
+			if (cantidad == ids.length) {
+				ids = Arrays.copyOf(ids, cantidad * 2);
+			}
+			ids[cantidad++] = id;
+		}
+
+		long[] ordenados() {
+			long[] resultado = Arrays.copyOf(ids, cantidad);
+			Arrays.sort(resultado);
+			return resultado;
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package com.coderhouse.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.coderhouse.dtos.EventoVentaDTO;
+
+import jakarta.annotation.PostConstruct;
+
+// Guarda los eventos de venta en una cola acotada en memoria, para pruebas e integraciones locales.
+// Cuando la cola se llena acepta solo los eventos que entran y el publicador espera a la proxima vuelta
+@Component
+@ConditionalOnProperty(name = "facturacion.outbox.memoria.habilitado", havingValue = "true")
+public class MemoriaEventoVentaDestino implements EventoVentaDestino {
+
+	@Value("${facturacion.outbox.memoria.capacidad:10000}")
+	private int capacidad;
+
+	private BlockingQueue<EventoVentaDTO> eventos;
+
+	@PostConstruct
+	void inicializar() {
+		eventos = new ArrayBlockingQueue<>(capacidad);
+	}
+
+	@Override
+	public String getNombre() {
+		return "memoria";
+	}
+
+	@Override
+	public int publicar(List<EventoVentaDTO> lote) {
+		int aceptados = 0;
+		for (EventoVentaDTO evento : lote) {
+			if (!eventos.offer(evento)) {
+				break;
+			}
+			aceptados++;
+		}
+		return aceptados;
+	}
+
+	// Retira y devuelve los eventos recibidos hasta ahora
+	public List<EventoVentaDTO> tomar() {
+		List<EventoVentaDTO> recibidos = new ArrayList<>();
+		eventos.drainTo(recibidos);
+		return recibidos;
+	}
+}
@@ -0,0 +1,93 @@
+package com.coderhouse.services;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.coderhouse.dtos.EventoVentaDTO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Entrega en lotes los eventos pendientes de cada destino y los marca como entregados despues de cada lote.
+// Si el proceso se corta entre la entrega y la marca, el lote se vuelve a entregar (al menos una vez)
+@Component
+@ConditionalOnProperty(name = "facturacion.outbox.publicador.habilitado", havingValue = "true", matchIfMissing = true)
+public class OutboxPublicador {
+
+	private static final Logger log = LoggerFactory.getLogger(OutboxPublicador.class);
+
+	@Autowired
+	private OutboxService outboxService;
+	@Autowired(required = false)
+	private List<EventoVentaDestino> destinos = List.of();
+	@Autowired
+	private Clock clock;
+	@Autowired
+	private MeterRegistry registry;
+
+	@Value("${facturacion.outbox.tamanio-lote:500}")
+	private int tamanioLote;
+
+	// Lotes maximos por destino en cada vuelta, para que un destino atrasado no demore a los demas
+	@Value("${facturacion.outbox.lotes-por-vuelta:20}")
+	private int lotesPorVuelta;
+
+	@Value("${facturacion.outbox.retencion:7d}")
+	private Duration retencion;
+
+	@Scheduled(fixedDelayString = "${facturacion.outbox.intervalo-ms:1000}")
+	public void publicar() {
+		for (EventoVentaDestino destino : destinos) {
+			publicar(destino);
+		}
+		outboxService.purgar(LocalDateTime.now(clock).minus(retencion));
+	}
+
+	// Devuelve cuantos eventos se entregaron al destino en esta vuelta
+	public int publicar(EventoVentaDestino destino) {
+		int entregados = 0;
+
+		for (int lote = 0; lote < lotesPorVuelta; lote++) {
+			List<EventoVentaDTO> eventos = outboxService.getPendientes(destino.getNombre(), tamanioLote);
+			if (eventos.isEmpty()) {
+				break;
+			}
+
+			int aceptados;
+			try {
+				aceptados = Math.min(destino.publicar(eventos), eventos.size());
+			} catch (Exception e) {
+				log.warn("Error al publicar eventos de venta en {}", destino.getNombre(), e);
+				break;
+			}
+			if (aceptados > 0) {
+				outboxService.marcarEntregados(eventos.subList(0, aceptados).stream().map(EventoVentaDTO::getId).toList());
+				entregados += aceptados;
+			}
+
+			// El destino esta saturado o no hay mas eventos
+			if (aceptados < eventos.size() || eventos.size() < tamanioLote) {
+				break;
+			}
+		}
+
+		if (entregados > 0) {
+			Counter.builder("facturacion.outbox.entregados")
+					.description("Eventos de venta entregados por destino")
+					.tag("destino", destino.getNombre())
+					.register(registry)
+					.increment(entregados);
+		}
+		return entregados;
+	}
+}
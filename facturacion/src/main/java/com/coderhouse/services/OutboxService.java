@@ -0,0 +1,99 @@
+package com.coderhouse.services;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.coderhouse.dtos.CabeceraVentaDTO;
+import com.coderhouse.dtos.EventoVentaDTO;
+import com.coderhouse.models.Venta;
+
+// Tabla outbox de eventos de venta. Los eventos se escriben en la misma transaccion que la venta,
+// asi solo se publican los cambios confirmados, y OutboxPublicador los entrega en segundo plano.
+// Cada evento se inserta una vez por destino y cada destino marca los suyos al entregarlos: una transaccion
+// lenta que confirma despues que otras mas nuevas no pierde sus eventos, porque no hay un cursor que los saltee
+@Service
+public class OutboxService {
+
+	private static final String INSERTAR = "INSERT INTO eventos_venta (tipo, venta_id, cliente_id, total, registrado, destino) "
+			+ "VALUES (?, ?, ?, ?, ?, ?)";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private NamedParameterJdbcTemplate namedJdbcTemplate;
+	@Autowired
+	private Clock clock;
+	@Autowired(required = false)
+	private List<EventoVentaDestino> destinos = List.of();
+
+	// REGISTRAR EVENTOS
+	// Debe llamarse dentro de la transaccion de la venta
+	public void registrar(String tipo, Venta venta) {
+		registrar(tipo, List.of(venta));
+	}
+
+	// Varias ventas con un solo INSERT en lote
+	public void registrar(String tipo, List<Venta> ventas) {
+		List<Object[]> filas = new ArrayList<>(ventas.size() * destinos.size());
+		LocalDateTime ahora = LocalDateTime.now(clock);
+		for (Venta venta : ventas) {
+			for (EventoVentaDestino destino : destinos) {
+				filas.add(new Object[] { tipo, venta.getId(), venta.getCliente().getId(), venta.getTotal(), ahora,
+						destino.getNombre() });
+			}
+		}
+		insertar(filas);
+	}
+
+	// Igual que el anterior, para ventas que no se cargaron como entidades
+	public void registrarCabeceras(String tipo, List<CabeceraVentaDTO> ventas) {
+		List<Object[]> filas = new ArrayList<>(ventas.size() * destinos.size());
+		LocalDateTime ahora = LocalDateTime.now(clock);
+		for (CabeceraVentaDTO venta : ventas) {
+			for (EventoVentaDestino destino : destinos) {
+				filas.add(new Object[] { tipo, venta.getId(), venta.getClienteId(), venta.getTotal(), ahora,
+						destino.getNombre() });
+			}
+		}
+		insertar(filas);
+	}
+
+	private void insertar(List<Object[]> filas) {
+		if (filas.size() == 1) {
+			jdbcTemplate.update(INSERTAR, filas.get(0));
+		} else if (!filas.isEmpty()) {
+			jdbcTemplate.batchUpdate(INSERTAR, filas);
+		}
+	}
+
+	// LECTURA PARA EL PUBLICADOR
+	// Eventos pendientes del destino en orden de ID, por el indice (destino, entregado, id)
+	public List<EventoVentaDTO> getPendientes(String destino, int limite) {
+		return jdbcTemplate.query("SELECT id, tipo, venta_id, cliente_id, total, registrado FROM eventos_venta "
+				+ "WHERE destino = ? AND entregado IS NULL ORDER BY id LIMIT ?",
+				(rs, fila) -> new EventoVentaDTO(rs.getLong("id"), rs.getString("tipo"), rs.getLong("venta_id"),
+						rs.getLong("cliente_id"), rs.getInt("total"), rs.getObject("registrado", LocalDateTime.class)),
+				destino, limite);
+	}
+
+	public void marcarEntregados(List<Long> ids) {
+		if (ids.isEmpty()) {
+			return;
+		}
+		namedJdbcTemplate.update("UPDATE eventos_venta SET entregado = :entregado WHERE id IN (:ids)",
+				Map.of("entregado", LocalDateTime.now(clock), "ids", ids));
+	}
+
+	// Borra los eventos entregados antes de 'antesDe'; los pendientes se conservan hasta que su destino los acepte
+	public int purgar(LocalDateTime antesDe) {
+		return jdbcTemplate.update("DELETE FROM eventos_venta WHERE entregado < ?", antesDe);
+	}
+}
@@ -0,0 +1,180 @@
+package com.coderhouse.services;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.coderhouse.dtos.CacheEstadisticasDTO;
+import com.coderhouse.models.Producto;
+import com.coderhouse.repositories.ProductoRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+
+// Cache en memoria de productos. Cada entrada vence a los 'ttl' de cargada, asi ningun precio o stock
+// queda desactualizado por mas de ese tiempo aunque la escritura venga de otra instancia
+@Component
+public class ProductoCache {
+
+	private static final String LISTADO = "productos";
+
+	@Autowired
+	private ProductoRepository productoRepository;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Value("${facturacion.productos.cache.tamanio-maximo:10000}")
+	private long tamanioMaximo;
+
+	@Value("${facturacion.productos.cache.ttl:30s}")
+	private Duration ttl;
+
+	private Cache<Long, Producto> productos;
+	private Cache<String, List<Producto>> listado;
+
+	// Acceso a la region de productos de la cache de segundo nivel, o null si esta deshabilitada
+	private EntityPersister persister;
+	private EntityDataAccess segundoNivel;
+
+	// Cuenta las invalidaciones. Una carga que empezo antes de una invalidacion pudo leer el valor anterior al
+	// commit: despues de guardarla se compara el contador y, si cambio, se quita. Como quitar incrementa antes
+	// de vaciar la cache, el valor viejo sale por la comparacion o por el vaciado, en cualquier orden
+	private final AtomicLong invalidaciones = new AtomicLong();
+
+	@PostConstruct
+	void inicializar() {
+		productos = Caffeine.newBuilder()
+				.maximumSize(tamanioMaximo)
+				.expireAfterWrite(ttl)
+				.recordStats()
+				.build();
+		listado = Caffeine.newBuilder()
+				.maximumSize(1)
+				.expireAfterWrite(ttl)
+				.recordStats()
+				.build();
+		SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+		persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(Producto.class);
+		segundoNivel = persister.canWriteToCache() ? persister.getCacheAccessStrategy() : null;
+	}
+
+	// Producto por ID, o null si no existe. La consulta se hace fuera de Cache.get(clave, funcion):
+	// esa carga corre dentro de un bloque synchronized y fijaria el hilo virtual mientras espera a MySQL
+	public Producto get(Long id) {
+		Producto producto = productos.getIfPresent(id);
+		if (producto == null) {
+			long generacion = invalidaciones.get();
+			producto = productoRepository.findById(id).orElse(null);
+			if (producto != null) {
+				productos.put(id, producto);
+				if (invalidaciones.get() != generacion) {
+					productos.invalidate(id);
+				}
+			}
+		}
+		return producto;
+	}
+
+	// Productos por ID; los que no estan en cache se leen con una sola consulta
+	public Map<Long, Producto> getAll(Collection<Long> ids) {
+		long generacion = invalidaciones.get();
+		Map<Long, Producto> resultado = productos.getAll(ids, faltantes -> {
+			Map<Long, Producto> encontrados = new HashMap<>();
+			for (Producto producto : productoRepository.findAllById(new HashSet<Long>(faltantes))) {
+				encontrados.put(producto.getId(), producto);
+			}
+			return encontrados;
+		});
+		if (invalidaciones.get() != generacion) {
+			productos.invalidateAll(ids);
+		}
+		return resultado;
+	}
+
+	public List<Producto> getListado(Supplier<List<Producto>> cargar) {
+		List<Producto> resultado = listado.getIfPresent(LISTADO);
+		if (resultado == null) {
+			long generacion = invalidaciones.get();
+			resultado = cargar.get();
+			listado.put(LISTADO, resultado);
+			if (invalidaciones.get() != generacion) {
+				listado.invalidate(LISTADO);
+			}
+		}
+		return resultado;
+	}
+
+	// Quita los productos de la cache ahora y otra vez al terminar la transaccion en curso,
+	// para que una lectura concurrente no vuelva a cargar el valor anterior al commit.
+	// La cache de segundo nivel no ve las escrituras hechas por JDBC: sus entradas se bloquean hasta el final
+	// de la transaccion, como hace Hibernate con las entidades que actualiza. Mientras dura el bloqueo nadie
+	// guarda el producto en la region, y al liberarlo se rechazan las cargas que empezaron antes del commit
+	public void invalidar(Collection<Long> ids) {
+		List<Long> copia = List.copyOf(ids);
+		quitar(copia);
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			if (segundoNivel != null) {
+				copia.forEach(id -> entityManagerFactory.getCache().evict(Producto.class, id));
+			}
+			return;
+		}
+		Runnable desbloquear = bloquear(copia);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				desbloquear.run();
+				quitar(copia);
+			}
+		});
+	}
+
+	private void quitar(List<Long> ids) {
+		invalidaciones.incrementAndGet();
+		productos.invalidateAll(ids);
+		listado.invalidateAll();
+	}
+
+	// Bloquea los productos en la cache de segundo nivel con la sesion de la transaccion en curso
+	// y devuelve como liberarlos
+	private Runnable bloquear(List<Long> ids) {
+		if (segundoNivel == null) {
+			return () -> { };
+		}
+		SharedSessionContractImplementor sesion = entityManager.unwrap(SharedSessionContractImplementor.class);
+		Map<Object, SoftLock> bloqueos = new HashMap<>();
+		for (Long id : ids) {
+			Object clave = segundoNivel.generateCacheKey(id, persister, sesion.getFactory(), null);
+			bloqueos.put(clave, segundoNivel.lockItem(sesion, clave, null));
+		}
+		return () -> bloqueos.forEach((clave, bloqueo) -> segundoNivel.unlockItem(sesion, clave, bloqueo));
+	}
+
+	public CacheEstadisticasDTO estadisticas() {
+		CacheStats stats = productos.stats();
+		return new CacheEstadisticasDTO(stats.hitCount(), stats.missCount(), stats.evictionCount(),
+				stats.hitRate(), productos.estimatedSize());
+	}
+}
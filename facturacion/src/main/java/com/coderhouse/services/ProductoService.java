@@ -1,10 +1,13 @@
 package com.coderhouse.services;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.coderhouse.dtos.CacheEstadisticasDTO;
 import com.coderhouse.models.Producto;
 import com.coderhouse.repositories.ProductoRepository;
 
@@ -13,18 +16,43 @@ import jakarta.transaction.Transactional;
 @Service
 public class ProductoService {
 
+	// Tamaño maximo de la lista de resultados de la busqueda por nombre
+	private static final int LIMITE_BUSQUEDA = 100;
+
 	@Autowired
 	private ProductoRepository productoRepository;
+	@Autowired
+	private ProductoCache productoCache;
+	@Autowired
+	private IndiceProductos indiceProductos;
+	@Autowired(required = false)
+	private ReservaStockService reservaStockService;
 	
 	// GET ALL PRODUCTOS
+	// Sin @LecturaReplica: el listado queda en ProductoCache para todas las peticiones y no puede salir de una
+	// replica atrasada. Las lecturas repetidas ya se resuelven en memoria
 	public List<Producto> getAllProductos(){
-		return productoRepository.findAll();
+		return productoCache.getListado(productoRepository::findAll);
 	}
 	
 	// GET PRODUCTO BY ID
 	public Producto getProductoById(Long id) {
-		return productoRepository.findById(id)
-				.orElseThrow(()-> new IllegalArgumentException("Producto no encontrado"));
+		Producto producto = productoCache.get(id);
+		if(producto == null) {
+			throw new IllegalArgumentException("Producto no encontrado");
+		}
+		return producto;
+	}
+	
+	// BUSCAR PRODUCTOS POR NOMBRE
+	// Los IDs salen del indice en memoria, ordenados por relevancia; los productos, de la cache
+	public List<Producto> buscarProductos(String texto, int limit) {
+		if (texto == null || texto.isBlank()) {
+			throw new IllegalArgumentException("Texto de busqueda no valido");
+		}
+		List<Long> ids = indiceProductos.buscar(texto, Math.max(1, Math.min(limit, LIMITE_BUSQUEDA)));
+		Map<Long, Producto> encontrados = productoCache.getAll(ids);
+		return ids.stream().map(encontrados::get).filter(Objects::nonNull).toList();
 	}
 	
 	// CREAR PRODUCTO
@@ -33,7 +61,10 @@ public class ProductoService {
 		if(productoInfo.getStock() <= 0) {
 	        throw new IllegalArgumentException("El stock no puede ser negativo");
 		}
-		return productoRepository.save(productoInfo);
+		Producto producto = productoRepository.save(productoInfo);
+		productoCache.invalidar(List.of(producto.getId()));
+		indiceProductos.indexar(producto.getId(), producto.getNombre());
+		return producto;
 	}
 	
 	// ACTUALIZAR PRODUCTO
@@ -44,23 +75,35 @@ public class ProductoService {
 		
 		if(productoInfo.getNombre() != null && !productoInfo.getNombre().isEmpty()) {
 			producto.setNombre(productoInfo.getNombre());
+			indiceProductos.indexar(id, productoInfo.getNombre());
 		}
 		
 		if(productoInfo.getPrecio() != 0) {
 			producto.setPrecio(productoInfo.getPrecio());
 		}
 		
-		if(productoInfo.getStock() != 0) {
+		if(productoInfo.getStock() != null && productoInfo.getStock() != 0) {
 			producto.setStock(productoInfo.getStock());
+			if(reservaStockService != null) {
+				reservaStockService.olvidar(id);
+			}
 		}
+		productoCache.invalidar(List.of(id));
 		return productoRepository.save(producto);
 	}
 	
+	// ESTADISTICAS DE LA CACHE
+	public CacheEstadisticasDTO getEstadisticasCache() {
+		return productoCache.estadisticas();
+	}
+	
 	// DELETE PRODUCTO
 	public void deleteProductoById(Long id) {
 		if(!productoRepository.existsById(id)) {
 			throw new IllegalArgumentException("Producto no encontrado");
 		}
 		productoRepository.deleteById(id);
+		productoCache.invalidar(List.of(id));
+		indiceProductos.quitar(id);
 	}
 }
\ No newline at end of file
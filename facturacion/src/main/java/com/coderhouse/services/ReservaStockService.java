@@ -0,0 +1,327 @@
+package com.coderhouse.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.coderhouse.exceptions.MotivoRechazo;
+import com.coderhouse.exceptions.VentaRechazadaException;
+
+// Reservas de stock en memoria para productos muy demandados (ventas flash).
+// Cada producto tiene un contador protegido por una de FRANJAS locks: las ventas se aceptan o rechazan
+// sin tocar la fila del producto, y dentro de su transaccion solo insertan el movimiento en movimientos_stock.
+// Un escritor en segundo plano aplica los movimientos a productos.stock en lotes.
+// El estado se reconstruye desde la base (stock menos movimientos pendientes) la primera vez que se usa
+// cada producto, y se reconcilia periodicamente. Solo debe habilitarse en una instancia de la aplicacion
+@Service
+@ConditionalOnProperty(name = "facturacion.stock.reservas.habilitado", havingValue = "true")
+public class ReservaStockService {
+
+	private static final Logger log = LoggerFactory.getLogger(ReservaStockService.class);
+
+	private static final int FRANJAS = 64;
+
+	private static final String DISPONIBLE_EN_BASE = "SELECT p.stock - COALESCE((SELECT SUM(m.cantidad) "
+			+ "FROM movimientos_stock m WHERE m.producto_id = p.id), 0) FROM productos p WHERE p.id = ?";
+
+	// Lecturas bloqueantes para cargar un producto desde la transaccion de la venta: leen lo ultimo confirmado
+	// aunque la transaccion tenga una foto REPEATABLE READ anterior a la edicion que descarto el estado, y
+	// hasta que termina no dejan confirmar otro cambio de stock ni movimiento del producto
+	private static final String STOCK_BLOQUEADO = "SELECT stock FROM productos WHERE id = ? FOR UPDATE";
+	private static final String MOVIMIENTOS_BLOQUEADOS = "SELECT cantidad FROM movimientos_stock "
+			+ "WHERE producto_id = ? FOR UPDATE";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private ProductoCache productoCache;
+
+	@Value("${facturacion.stock.reservas.tamanio-lote:1000}")
+	private int tamanioLote;
+
+	// Estado de un producto. Solo se modifica con el lock de su franja tomado
+	private static final class Estado {
+		// Stock que todavia se puede vender
+		int disponible;
+		// Unidades descontadas por transacciones que aun no terminaron
+		int reservado;
+		// Unidades a reponer por transacciones que aun no terminaron (se suman al confirmar)
+		int reponiendo;
+
+		Estado(int disponible) {
+			this.disponible = disponible;
+		}
+	}
+
+	private final ReentrantLock[] franjas = new ReentrantLock[FRANJAS];
+	private final Map<Long, Estado> estados = new ConcurrentHashMap<>();
+
+	public ReservaStockService() {
+		for (int i = 0; i < FRANJAS; i++) {
+			franjas[i] = new ReentrantLock();
+		}
+	}
+
+	private ReentrantLock franja(Long productoId) {
+		return franjas[Long.hashCode(productoId) & (FRANJAS - 1)];
+	}
+
+	// AJUSTAR STOCK
+	// Misma semantica que StockService.ajustar: positiva se descuenta, negativa se repone.
+	// Debe llamarse dentro de la transaccion de la venta
+	public void ajustar(Map<Long, Integer> cantidades) {
+		Map<Long, Integer> ordenadas = new TreeMap<>(cantidades);
+		ordenadas.values().removeIf(cantidad -> cantidad == 0);
+		if (ordenadas.isEmpty()) {
+			return;
+		}
+
+		// La lectura inicial desde la base se hace antes de tomar cualquier lock
+		Map<Long, Estado> leidos = new HashMap<>();
+		for (Long productoId : ordenadas.keySet()) {
+			if (!estados.containsKey(productoId)) {
+				leidos.put(productoId, leer(productoId));
+			}
+		}
+
+		List<Map.Entry<Long, Integer>> aplicadas = new ArrayList<>();
+		boolean rechazada = false;
+		for (Map.Entry<Long, Integer> entry : ordenadas.entrySet()) {
+			ReentrantLock lock = franja(entry.getKey());
+			lock.lock();
+			try {
+				Estado estado = estado(entry.getKey(), leidos, lock);
+				int cantidad = entry.getValue();
+				if (cantidad > 0) {
+					if (estado.disponible < cantidad) {
+						rechazada = true;
+						break;
+					}
+					estado.disponible -= cantidad;
+					estado.reservado += cantidad;
+				} else {
+					estado.reponiendo -= cantidad;
+				}
+			} finally {
+				lock.unlock();
+			}
+			aplicadas.add(entry);
+		}
+		// Se deshace sin ningun lock tomado: deshacer toma el de cada producto ya aplicado
+		if (rechazada) {
+			deshacer(aplicadas);
+			throw new VentaRechazadaException(MotivoRechazo.STOCK);
+		}
+
+		// Al terminar la transaccion se confirma o se devuelve lo reservado
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					finalizar(aplicadas, status == STATUS_COMMITTED);
+				}
+			});
+		}
+
+		List<Object[]> movimientos = new ArrayList<>();
+		for (Map.Entry<Long, Integer> entry : aplicadas) {
+			movimientos.add(new Object[] { entry.getKey(), entry.getValue() });
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO movimientos_stock (producto_id, cantidad) VALUES (?, ?)", movimientos);
+
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			finalizar(aplicadas, true);
+		}
+	}
+
+	// Estado de un producto, con el lock de su franja tomado. Si no esta en memoria se usa el leido al inicio:
+	// las lecturas bloqueantes lo mantienen exacto hasta el fin de la transaccion. Si un olvidar de otra
+	// transaccion lo descarto despues de la comprobacion inicial, se lee soltando el lock mientras espera a la base
+	private Estado estado(Long productoId, Map<Long, Estado> leidos, ReentrantLock lock) {
+		Estado estado = estados.get(productoId);
+		while (estado == null) {
+			Estado leido = leidos.get(productoId);
+			if (leido == null) {
+				lock.unlock();
+				try {
+					leido = leer(productoId);
+					leidos.put(productoId, leido);
+				} finally {
+					lock.lock();
+				}
+			}
+			estados.putIfAbsent(productoId, leido);
+			estado = estados.get(productoId);
+		}
+		return estado;
+	}
+
+	private Estado leer(Long productoId) {
+		List<Integer> stock = jdbcTemplate.queryForList(STOCK_BLOQUEADO, Integer.class, productoId);
+		// Un producto inexistente queda sin stock, igual que con el descuento condicional en la base
+		if (stock.isEmpty()) {
+			return new Estado(0);
+		}
+		int pendientes = jdbcTemplate.queryForList(MOVIMIENTOS_BLOQUEADOS, Integer.class, productoId).stream()
+				.mapToInt(Integer::intValue).sum();
+		return new Estado(stock.get(0) - pendientes);
+	}
+
+	private void deshacer(List<Map.Entry<Long, Integer>> aplicadas) {
+		finalizar(aplicadas, false);
+	}
+
+	private void finalizar(List<Map.Entry<Long, Integer>> aplicadas, boolean confirmada) {
+		for (Map.Entry<Long, Integer> entry : aplicadas) {
+			ReentrantLock lock = franja(entry.getKey());
+			lock.lock();
+			try {
+				// Con reservas abiertas el estado no se descarta; si igual falta, el proximo uso lo lee de la base
+				Estado estado = estados.get(entry.getKey());
+				if (estado == null) {
+					continue;
+				}
+				int cantidad = entry.getValue();
+				if (cantidad > 0) {
+					estado.reservado -= cantidad;
+					if (!confirmada) {
+						estado.disponible += cantidad;
+					}
+				} else {
+					estado.reponiendo += cantidad;
+					if (confirmada) {
+						estado.disponible -= cantidad;
+					}
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	// ESCRITURA EN LOTES
+	// Aplica los movimientos confirmados a productos.stock con una sentencia por producto y los borra.
+	// Se borran por ID los mismos movimientos que se leyeron, asi uno confirmado durante la escritura queda para la proxima
+	@Scheduled(fixedDelayString = "${facturacion.stock.reservas.escritura-ms:200}")
+	public void escribir() {
+		int escritos;
+		do {
+			Integer cantidad = transactionTemplate.execute(status -> escribirLote());
+			escritos = cantidad == null ? 0 : cantidad;
+		} while (escritos == tamanioLote);
+	}
+
+	private int escribirLote() {
+		List<long[]> movimientos = jdbcTemplate.query(
+				"SELECT id, producto_id, cantidad FROM movimientos_stock ORDER BY id LIMIT ?",
+				(rs, fila) -> new long[] { rs.getLong("id"), rs.getLong("producto_id"), rs.getLong("cantidad") },
+				tamanioLote);
+		if (movimientos.isEmpty()) {
+			return 0;
+		}
+
+		Map<Long, Long> porProducto = new TreeMap<>();
+		List<Object[]> ids = new ArrayList<>(movimientos.size());
+		for (long[] movimiento : movimientos) {
+			porProducto.merge(movimiento[1], movimiento[2], Long::sum);
+			ids.add(new Object[] { movimiento[0] });
+		}
+		List<Object[]> actualizaciones = new ArrayList<>();
+		for (Map.Entry<Long, Long> entry : porProducto.entrySet()) {
+			if (entry.getValue() != 0) {
+				actualizaciones.add(new Object[] { entry.getValue(), entry.getKey() });
+			}
+		}
+		jdbcTemplate.batchUpdate("UPDATE productos SET stock = stock - ? WHERE id = ?", actualizaciones);
+		jdbcTemplate.batchUpdate("DELETE FROM movimientos_stock WHERE id = ?", ids);
+		productoCache.invalidar(porProducto.keySet());
+		return movimientos.size();
+	}
+
+	// RECONCILIACION
+	// Vuelve a leer el stock de la base para los productos sin transacciones en curso. Con el lock tomado y sin
+	// reservas abiertas ninguna transaccion puede cambiar los movimientos del producto, asi que la lectura es exacta.
+	// Corrige tambien los cambios hechos por fuera de las ventas, como editar el stock de un producto
+	@Scheduled(fixedDelayString = "${facturacion.stock.reservas.reconciliacion-ms:60000}")
+	public int reconciliar() {
+		int corregidos = 0;
+		for (Map.Entry<Long, Estado> entry : estados.entrySet()) {
+			ReentrantLock lock = franja(entry.getKey());
+			lock.lock();
+			try {
+				Estado estado = entry.getValue();
+				if (estado.reservado != 0 || estado.reponiendo != 0) {
+					continue;
+				}
+				List<Integer> disponible = jdbcTemplate.queryForList(DISPONIBLE_EN_BASE, Integer.class, entry.getKey());
+				int enBase = disponible.isEmpty() ? 0 : disponible.get(0);
+				if (enBase != estado.disponible) {
+					log.warn("Stock en memoria del producto {} corregido de {} a {}", entry.getKey(), estado.disponible, enBase);
+					estado.disponible = enBase;
+					corregidos++;
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+		return corregidos;
+	}
+
+	// Descarta el estado en memoria de un producto al terminar la transaccion en curso, para que el proximo uso
+	// lo vuelva a leer de la base. Si tiene reservas abiertas se deja y lo corrige la reconciliacion
+	public void olvidar(Long productoId) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					descartar(productoId);
+				}
+			});
+		} else {
+			descartar(productoId);
+		}
+	}
+
+	private void descartar(Long productoId) {
+		ReentrantLock lock = franja(productoId);
+		lock.lock();
+		try {
+			Estado estado = estados.get(productoId);
+			if (estado != null && estado.reservado == 0 && estado.reponiendo == 0) {
+				estados.remove(productoId);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// Stock disponible en memoria, o null si el producto todavia no se cargo
+	public Integer getDisponible(Long productoId) {
+		ReentrantLock lock = franja(productoId);
+		lock.lock();
+		try {
+			Estado estado = estados.get(productoId);
+			return estado == null ? null : estado.disponible;
+		} finally {
+			lock.unlock();
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package com.coderhouse.services;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.coderhouse.models.VentaProducto;
+
+// Cambios a aplicar sobre los resumenes diarios. Acumula los deltas de una o varias ventas
+// (signo +1 al crear, -1 al eliminar) para escribir una sola fila por dia, cliente y producto
+public class ResumenDelta {
+
+	// Dia y cliente/producto; id es null para el resumen por dia
+	public record Clave(LocalDate dia, Long id) {
+	}
+
+	private static final Comparator<Clave> ORDEN = Comparator.comparing(Clave::dia)
+			.thenComparing(Clave::id, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+	// Cada valor es {ingresos, unidades, ventas}
+	private final Map<Clave, long[]> porDia = new TreeMap<>(ORDEN);
+	private final Map<Clave, long[]> porCliente = new TreeMap<>(ORDEN);
+	private final Map<Clave, long[]> porProducto = new TreeMap<>(ORDEN);
+
+	// Suma (signo 1) o resta (signo -1) una venta completa. Las ventas sin dia conocido se ignoran
+	public ResumenDelta agregar(LocalDate dia, Long clienteId, List<VentaProducto> lineas, int signo) {
+		if (dia == null) {
+			return this;
+		}
+		long total = 0;
+		long unidades = 0;
+		Map<Long, long[]> productos = new TreeMap<>();
+		for (VentaProducto vp : lineas) {
+			long ingresos = (long) vp.getPrecioUnitario() * vp.getCantidad();
+			total += ingresos;
+			unidades += vp.getCantidad();
+			long[] producto = productos.computeIfAbsent(vp.getProducto().getId(), k -> new long[2]);
+			producto[0] += ingresos;
+			producto[1] += vp.getCantidad();
+		}
+		agregarVenta(dia, clienteId, total, unidades, signo);
+		for (Map.Entry<Long, long[]> entry : productos.entrySet()) {
+			agregarProducto(dia, entry.getKey(), entry.getValue()[0], entry.getValue()[1], signo);
+		}
+		return this;
+	}
+
+	// Suma o resta la cabecera de una venta en el resumen por dia y por cliente
+	public void agregarVenta(LocalDate dia, Long clienteId, long total, long unidades, int signo) {
+		sumar(porDia, new Clave(dia, null), signo * total, signo * unidades, signo);
+		sumar(porCliente, new Clave(dia, clienteId), signo * total, signo * unidades, signo);
+	}
+
+	// Suma o resta las lineas de un producto dentro de una venta
+	public void agregarProducto(LocalDate dia, Long productoId, long ingresos, long unidades, int signo) {
+		sumar(porProducto, new Clave(dia, productoId), signo * ingresos, signo * unidades, signo);
+	}
+
+	private void sumar(Map<Clave, long[]> mapa, Clave clave, long ingresos, long unidades, long ventas) {
+		long[] valores = mapa.computeIfAbsent(clave, k -> new long[3]);
+		valores[0] += ingresos;
+		valores[1] += unidades;
+		valores[2] += ventas;
+	}
+
+	public Map<Clave, long[]> getPorDia() {
+		return porDia;
+	}
+
+	public Map<Clave, long[]> getPorCliente() {
+		return porCliente;
+	}
+
+	public Map<Clave, long[]> getPorProducto() {
+		return porProducto;
+	}
+}
@@ -0,0 +1,225 @@
+package com.coderhouse.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.coderhouse.dtos.ReconstruccionResumenDTO;
+import com.coderhouse.models.ResumenDiario;
+import com.coderhouse.models.ResumenDiarioCliente;
+import com.coderhouse.models.ResumenDiarioProducto;
+import com.coderhouse.models.Venta;
+import com.coderhouse.repositories.ResumenDiarioClienteRepository;
+import com.coderhouse.repositories.ResumenDiarioProductoRepository;
+import com.coderhouse.repositories.ResumenDiarioRepository;
+import com.coderhouse.services.ResumenDelta.Clave;
+
+import jakarta.transaction.Transactional;
+
+@Service
+public class ResumenVentasService {
+
+	// Formatos con los que se guardo Venta.fecha: el actual y el que devolvia timeapi.io
+	private static final List<DateTimeFormatter> FORMATOS_FECHA = List.of(
+			DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
+			DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm"),
+			DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm:ss"));
+
+	private static final String UPSERT_DIA = "INSERT INTO resumen_diario (dia, ingresos, unidades, ventas) "
+			+ "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE ingresos = ingresos + VALUES(ingresos), "
+			+ "unidades = unidades + VALUES(unidades), ventas = ventas + VALUES(ventas)";
+	private static final String UPSERT_CLIENTE = "INSERT INTO resumen_diario_cliente (dia, cliente_id, ingresos, unidades, ventas) "
+			+ "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE ingresos = ingresos + VALUES(ingresos), "
+			+ "unidades = unidades + VALUES(unidades), ventas = ventas + VALUES(ventas)";
+	private static final String UPSERT_PRODUCTO = "INSERT INTO resumen_diario_producto (dia, producto_id, ingresos, unidades, ventas) "
+			+ "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE ingresos = ingresos + VALUES(ingresos), "
+			+ "unidades = unidades + VALUES(unidades), ventas = ventas + VALUES(ventas)";
+
+	// Ventas y lineas de la tabla activa y del archivo: archivar una venta no cambia los resumenes
+	private static final String VENTAS = "(SELECT id, cliente_id, fecha_hora, total FROM ventas "
+			+ "UNION ALL SELECT id, cliente_id, fecha_hora, total FROM ventas_archivo) ";
+	private static final String LINEAS = "(SELECT venta_id, producto_id, precio_unitario, cantidad FROM venta_producto "
+			+ "UNION ALL SELECT venta_id, producto_id, precio_unitario, cantidad FROM venta_producto_archivo) ";
+
+	// Unidades por venta, para no multiplicar las cabeceras al unirlas con sus lineas
+	private static final String UNIDADES_POR_VENTA = "LEFT JOIN (SELECT venta_id, SUM(cantidad) AS unidades "
+			+ "FROM " + LINEAS + "l GROUP BY venta_id) u ON u.venta_id = v.id ";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private ResumenDiarioRepository resumenDiarioRepository;
+	@Autowired
+	private ResumenDiarioClienteRepository resumenDiarioClienteRepository;
+	@Autowired
+	private ResumenDiarioProductoRepository resumenDiarioProductoRepository;
+
+	// APLICAR CAMBIOS
+	// Se ejecuta dentro de la transaccion de la venta; las filas que no cambian no se escriben
+	@Transactional
+	public void aplicar(ResumenDelta delta) {
+		upsert(UPSERT_DIA, delta.getPorDia(), false);
+		upsert(UPSERT_CLIENTE, delta.getPorCliente(), true);
+		upsert(UPSERT_PRODUCTO, delta.getPorProducto(), true);
+	}
+
+	private void upsert(String sql, Map<Clave, long[]> filas, boolean conId) {
+		List<Object[]> parametros = new ArrayList<>();
+		for (Map.Entry<Clave, long[]> entry : filas.entrySet()) {
+			long[] v = entry.getValue();
+			if (v[0] == 0 && v[1] == 0 && v[2] == 0) {
+				continue;
+			}
+			parametros.add(conId
+					? new Object[] { entry.getKey().dia(), entry.getKey().id(), v[0], v[1], v[2] }
+					: new Object[] { entry.getKey().dia(), v[0], v[1], v[2] });
+		}
+		if (!parametros.isEmpty()) {
+			jdbcTemplate.batchUpdate(sql, parametros);
+		}
+	}
+
+	// Dia de la venta; las ventas antiguas sin fechaHora se interpretan desde el texto.
+	// Devuelve null si la fecha no se puede interpretar (esas ventas no forman parte de los resumenes)
+	public static LocalDate diaDe(Venta venta) {
+		return diaDe(venta.getFechaHora(), venta.getFecha());
+	}
+
+	public static LocalDate diaDe(LocalDateTime fechaHora, String fechaTexto) {
+		if (fechaHora != null) {
+			return fechaHora.toLocalDate();
+		}
+		LocalDateTime fecha = parsearFecha(fechaTexto);
+		return fecha == null ? null : fecha.toLocalDate();
+	}
+
+	public static LocalDateTime parsearFecha(String fecha) {
+		if (fecha == null) {
+			return null;
+		}
+		for (DateTimeFormatter formato : FORMATOS_FECHA) {
+			try {
+				return LocalDateTime.parse(fecha.trim(), formato);
+			} catch (DateTimeParseException e) {
+				// Se prueba con el siguiente formato
+			}
+		}
+		return null;
+	}
+
+	// REPORTES
+	public List<ResumenDiario> getResumenDiario(LocalDate desde, LocalDate hasta) {
+		return resumenDiarioRepository.findByDiaBetweenOrderByDia(desde, hasta);
+	}
+
+	public List<ResumenDiarioCliente> getResumenCliente(Long clienteId, LocalDate desde, LocalDate hasta) {
+		return resumenDiarioClienteRepository.findByClienteIdAndDiaBetweenOrderByDia(clienteId, desde, hasta);
+	}
+
+	public List<ResumenDiarioProducto> getResumenProducto(Long productoId, LocalDate desde, LocalDate hasta) {
+		return resumenDiarioProductoRepository.findByProductoIdAndDiaBetweenOrderByDia(productoId, desde, hasta);
+	}
+
+	// RECONSTRUIR RESUMENES
+	// Recalcula los tres resumenes desde ventas y venta_producto (y su archivo) y corrige solo las filas que no
+	// coinciden con el estado incremental. La correccion se aplica como un delta mas (recalculado - actual), con el
+	// mismo upsert acumulativo que usan las ventas: las que se confirman mientras tanto suman su propio delta encima
+	// y no se pierden, como pasaria al borrar y reinsertar las tablas. Las lecturas de ventas y de resumenes salen de
+	// la misma vista de la transaccion, asi el delta solo incluye la diferencia que ya existia
+	@Transactional
+	public ReconstruccionResumenDTO reconstruir() {
+		int[] completadas = completarFechaHora();
+
+		Map<Clave, long[]> dias = consultar("SELECT CAST(v.fecha_hora AS DATE) AS dia, NULL AS id, "
+				+ "SUM(v.total) AS ingresos, COALESCE(SUM(u.unidades), 0) AS unidades, COUNT(*) AS ventas "
+				+ "FROM " + VENTAS + "v " + UNIDADES_POR_VENTA
+				+ "WHERE v.fecha_hora IS NOT NULL GROUP BY CAST(v.fecha_hora AS DATE)");
+		Map<Clave, long[]> clientes = consultar("SELECT CAST(v.fecha_hora AS DATE) AS dia, v.cliente_id AS id, "
+				+ "SUM(v.total) AS ingresos, COALESCE(SUM(u.unidades), 0) AS unidades, COUNT(*) AS ventas "
+				+ "FROM " + VENTAS + "v " + UNIDADES_POR_VENTA
+				+ "WHERE v.fecha_hora IS NOT NULL GROUP BY CAST(v.fecha_hora AS DATE), v.cliente_id");
+		Map<Clave, long[]> productos = consultar("SELECT CAST(v.fecha_hora AS DATE) AS dia, vp.producto_id AS id, "
+				+ "SUM(vp.precio_unitario * vp.cantidad) AS ingresos, SUM(vp.cantidad) AS unidades, "
+				+ "COUNT(DISTINCT v.id) AS ventas "
+				+ "FROM " + LINEAS + "vp JOIN " + VENTAS + "v ON v.id = vp.venta_id "
+				+ "WHERE v.fecha_hora IS NOT NULL GROUP BY CAST(v.fecha_hora AS DATE), vp.producto_id");
+
+		Map<Clave, long[]> correccionDias = correccion(dias,
+				consultar("SELECT dia, NULL AS id, ingresos, unidades, ventas FROM resumen_diario"));
+		Map<Clave, long[]> correccionClientes = correccion(clientes,
+				consultar("SELECT dia, cliente_id AS id, ingresos, unidades, ventas FROM resumen_diario_cliente"));
+		Map<Clave, long[]> correccionProductos = correccion(productos,
+				consultar("SELECT dia, producto_id AS id, ingresos, unidades, ventas FROM resumen_diario_producto"));
+
+		upsert(UPSERT_DIA, correccionDias, false);
+		upsert(UPSERT_CLIENTE, correccionClientes, true);
+		upsert(UPSERT_PRODUCTO, correccionProductos, true);
+		// Las filas que la correccion dejo en cero equivalen a no existir. El borrado compara contra el valor
+		// confirmado: una fila a la que otra venta ya le sumo algo no se borra
+		for (String tabla : List.of("resumen_diario", "resumen_diario_cliente", "resumen_diario_producto")) {
+			jdbcTemplate.update("DELETE FROM " + tabla + " WHERE ingresos = 0 AND unidades = 0 AND ventas = 0");
+		}
+
+		return new ReconstruccionResumenDTO(completadas[0], completadas[1],
+				dias.size() + clientes.size() + productos.size(),
+				correccionDias.size() + correccionClientes.size() + correccionProductos.size());
+	}
+
+	// Completa fecha_hora de las ventas antiguas a partir del texto de fecha. Devuelve {completadas, sin fecha}
+	private int[] completarFechaHora() {
+		List<Object[]> actualizaciones = new ArrayList<>();
+		int[] sinFecha = new int[1];
+		jdbcTemplate.query("SELECT id, fecha FROM ventas WHERE fecha_hora IS NULL", rs -> {
+			LocalDateTime fecha = parsearFecha(rs.getString("fecha"));
+			if (fecha == null) {
+				sinFecha[0]++;
+			} else {
+				actualizaciones.add(new Object[] { fecha, rs.getLong("id") });
+			}
+		});
+		if (!actualizaciones.isEmpty()) {
+			jdbcTemplate.batchUpdate("UPDATE ventas SET fecha_hora = ? WHERE id = ?", actualizaciones);
+		}
+		return new int[] { actualizaciones.size(), sinFecha[0] };
+	}
+
+	private Map<Clave, long[]> consultar(String sql) {
+		Map<Clave, long[]> filas = new HashMap<>();
+		jdbcTemplate.query(sql, rs -> {
+			long id = rs.getLong("id");
+			Long clave = rs.wasNull() ? null : id;
+			filas.put(new Clave(rs.getObject("dia", LocalDate.class), clave),
+					new long[] { rs.getLong("ingresos"), rs.getLong("unidades"), rs.getLong("ventas") });
+		});
+		return filas;
+	}
+
+	// Delta (recalculado - actual) de las filas que difieren entre el resumen recalculado y el actual
+	// (las filas en cero equivalen a no existir)
+	private Map<Clave, long[]> correccion(Map<Clave, long[]> esperado, Map<Clave, long[]> actual) {
+		Set<Clave> claves = new HashSet<>(esperado.keySet());
+		claves.addAll(actual.keySet());
+		long[] cero = new long[3];
+		Map<Clave, long[]> correccion = new HashMap<>();
+		for (Clave clave : claves) {
+			long[] e = esperado.getOrDefault(clave, cero);
+			long[] a = actual.getOrDefault(clave, cero);
+			if (!Arrays.equals(e, a)) {
+				correccion.put(clave, new long[] { e[0] - a[0], e[1] - a[1], e[2] - a[2] });
+			}
+		}
+		return correccion;
+	}
+}
@@ -0,0 +1,76 @@
+package com.coderhouse.services;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.coderhouse.exceptions.MotivoRechazo;
+import com.coderhouse.exceptions.VentaRechazadaException;
+
+import jakarta.transaction.Transactional;
+
+@Service
+public class StockService {
+
+	// Las actualizaciones de stock van por JDBC: un UPDATE masivo de Hibernate vaciaria toda la region
+	// de productos de la cache de segundo nivel. ProductoCache.invalidar quita solo los productos tocados
+	private static final String DESCONTAR = "UPDATE productos SET stock = stock - ? WHERE id = ? AND stock >= ?";
+	private static final String REPONER = "UPDATE productos SET stock = stock + ? WHERE id = ?";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private ProductoCache productoCache;
+	// Solo existe con facturacion.stock.reservas.habilitado=true
+	@Autowired(required = false)
+	private ReservaStockService reservaStockService;
+
+	// AJUSTAR STOCK
+	// Recibe la cantidad neta por producto: positiva se descuenta, negativa se repone.
+	// Cada producto se actualiza con una sola sentencia condicional, sin leer el stock antes,
+	// y en orden de ID para que dos ventas concurrentes bloqueen las filas en el mismo orden.
+	// Con las reservas en memoria habilitadas la decision se toma ahi y la fila del producto se actualiza despues.
+	@Transactional
+	public void ajustar(Map<Long, Integer> cantidades) {
+		if (reservaStockService != null) {
+			reservaStockService.ajustar(cantidades);
+			return;
+		}
+		for (Map.Entry<Long, Integer> entry : new TreeMap<>(cantidades).entrySet()) {
+			int cantidad = entry.getValue();
+			if (cantidad > 0) {
+				if (jdbcTemplate.update(DESCONTAR, cantidad, entry.getKey(), cantidad) == 0) {
+					throw new VentaRechazadaException(MotivoRechazo.STOCK);
+				}
+			} else if (cantidad < 0) {
+				jdbcTemplate.update(REPONER, -cantidad, entry.getKey());
+			}
+		}
+		productoCache.invalidar(cantidades.keySet());
+	}
+
+	// REPONER STOCK
+	@Transactional
+	public void reponer(Map<Long, Integer> cantidades) {
+		if (reservaStockService != null) {
+			Map<Long, Integer> reposiciones = new HashMap<>();
+			cantidades.forEach((productoId, cantidad) -> {
+				if (cantidad > 0) {
+					reposiciones.put(productoId, -cantidad);
+				}
+			});
+			reservaStockService.ajustar(reposiciones);
+			return;
+		}
+		for (Map.Entry<Long, Integer> entry : new TreeMap<>(cantidades).entrySet()) {
+			if (entry.getValue() > 0) {
+				jdbcTemplate.update(REPONER, entry.getValue(), entry.getKey());
+			}
+		}
+		productoCache.invalidar(cantidades.keySet());
+	}
+}
@@ -0,0 +1,203 @@
+package com.coderhouse.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.coderhouse.dtos.ProductoDTO;
+import com.coderhouse.dtos.VentaDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+@Service
+public class VentaExportService {
+
+	public static final String NDJSON = "ndjson";
+	public static final String CSV = "csv";
+
+	// Ordenar solo por v.id permite recorrer ventas por su clave primaria y las lineas por el indice
+	// de venta_id, sin ordenar la tabla completa antes de devolver la primera fila
+	private static final String CONSULTA = "SELECT v.id, v.fecha, v.total, c.id AS cliente_id, "
+			+ "c.nombre AS cliente_nombre, c.apellido AS cliente_apellido, "
+			+ "vp.producto_id, p.nombre AS producto_nombre, vp.precio_unitario, vp.cantidad "
+			+ "FROM %s v "
+			+ "JOIN clientes c ON c.id = v.cliente_id "
+			+ "LEFT JOIN %s vp ON vp.venta_id = v.id "
+			+ "LEFT JOIN productos p ON p.id = vp.producto_id "
+			+ "ORDER BY v.id";
+
+	// Primero el archivo y despues la tabla activa: cada una se recorre con su propio cursor, sin unirlas
+	// en una consulta que habria que ordenar completa. Las dos corren en una misma transaccion de lectura
+	// REPEATABLE READ: ven la misma foto de la base, asi una venta archivada entre una consulta y la otra
+	// no falta ni sale dos veces. A cambio la foto se mantiene mientras dura la exportacion
+	private static final String[] CONSULTAS = {
+			String.format(CONSULTA, "ventas_archivo", "venta_producto_archivo"),
+			String.format(CONSULTA, "ventas", "venta_producto") };
+
+	private static final String CABECERA_CSV = "venta_id,fecha,cliente_id,cliente_nombre,cliente_apellido,total,"
+			+ "producto_id,producto_nombre,precio_unitario,cantidad\n";
+
+	@Autowired
+	private DataSource dataSource;
+	@Autowired
+	private DataSourceProperties dataSourceProperties;
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	// Filas que el driver trae por cada viaje al servidor (cursor de solo avance)
+	@Value("${facturacion.ventas.exportacion.fetch-size:1000}")
+	private int fetchSize;
+
+	// Parametros que se agregan a spring.datasource.url solo para la exportacion, por ejemplo useCursorFetch=true
+	// para que MySQL respete el fetch size. Vacio: la exportacion usa el pool de la aplicacion
+	@Value("${facturacion.ventas.exportacion.parametros-url:}")
+	private String parametrosUrl;
+
+	// Conexiones del pool de exportacion: tambien limita cuantas exportaciones corren a la vez
+	@Value("${facturacion.ventas.exportacion.maximo-conexiones:2}")
+	private int maximoConexiones;
+
+	private HikariDataSource poolExportacion;
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate lectura;
+
+	@PostConstruct
+	void inicializar() {
+		DataSource origen = dataSource;
+		if (!parametrosUrl.isBlank()) {
+			String url = dataSourceProperties.determineUrl();
+			poolExportacion = dataSourceProperties.initializeDataSourceBuilder()
+					.type(HikariDataSource.class)
+					.url(url + (url.contains("?") ? "&" : "?") + parametrosUrl)
+					.build();
+			poolExportacion.setPoolName("exportacion");
+			poolExportacion.setMaximumPoolSize(maximoConexiones);
+			poolExportacion.setMinimumIdle(0);
+			origen = poolExportacion;
+		}
+		jdbcTemplate = new JdbcTemplate(origen);
+		jdbcTemplate.setFetchSize(fetchSize);
+		lectura = new TransactionTemplate(new DataSourceTransactionManager(origen));
+		lectura.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+		lectura.setReadOnly(true);
+	}
+
+	@PreDestroy
+	void cerrar() {
+		if (poolExportacion != null) {
+			poolExportacion.close();
+		}
+	}
+
+	// EXPORTAR VENTAS
+	// Escribe las ventas a medida que llegan del cursor; en memoria solo queda la venta en curso
+	public void exportar(String formato, OutputStream salida) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+		try {
+			lectura.executeWithoutResult(status -> {
+				if (CSV.equals(formato)) {
+					exportarCsv(writer);
+				} else {
+					exportarNdjson(writer);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		writer.flush();
+	}
+
+	private void exportarNdjson(Writer writer) {
+		VentaDTO[] actual = new VentaDTO[1];
+		for (String consulta : CONSULTAS) {
+			jdbcTemplate.query(consulta, rs -> {
+				long ventaId = rs.getLong("id");
+				if (actual[0] == null || actual[0].getId() != ventaId) {
+					escribirJson(writer, actual[0]);
+					actual[0] = new VentaDTO(ventaId, rs.getLong("cliente_id"), rs.getString("cliente_nombre"),
+							rs.getString("cliente_apellido"), rs.getString("fecha"), new ArrayList<>(), rs.getInt("total"));
+				}
+				long productoId = rs.getLong("producto_id");
+				if (!rs.wasNull()) {
+					actual[0].getProductos().add(new ProductoDTO(productoId, rs.getString("producto_nombre"),
+							rs.getInt("precio_unitario"), rs.getInt("cantidad")));
+				}
+			});
+		}
+		escribirJson(writer, actual[0]);
+	}
+
+	private void exportarCsv(Writer writer) {
+		escribir(writer, CABECERA_CSV);
+		for (String consulta : CONSULTAS) {
+			jdbcTemplate.query(consulta, rs -> {
+				StringBuilder linea = new StringBuilder(128);
+				linea.append(rs.getLong("id")).append(',')
+						.append(csv(rs.getString("fecha"))).append(',')
+						.append(rs.getLong("cliente_id")).append(',')
+						.append(csv(rs.getString("cliente_nombre"))).append(',')
+						.append(csv(rs.getString("cliente_apellido"))).append(',')
+						.append(rs.getInt("total")).append(',');
+				long productoId = rs.getLong("producto_id");
+				if (!rs.wasNull()) {
+					linea.append(productoId).append(',')
+							.append(csv(rs.getString("producto_nombre"))).append(',')
+							.append(rs.getInt("precio_unitario")).append(',')
+							.append(rs.getInt("cantidad"));
+				} else {
+					linea.append(",,,");
+				}
+				escribir(writer, linea.append('\n').toString());
+			});
+		}
+	}
+
+	private void escribirJson(Writer writer, VentaDTO venta) {
+		if (venta == null) {
+			return;
+		}
+		try {
+			escribir(writer, objectMapper.writeValueAsString(venta) + "\n");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void escribir(Writer writer, String texto) {
+		try {
+			writer.write(texto);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	// Escapa un valor segun RFC 4180
+	private String csv(String valor) {
+		if (valor == null) {
+			return "";
+		}
+		if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+			return valor;
+		}
+		return '"' + valor.replace("\"", "\"\"") + '"';
+	}
+}
@@ -0,0 +1,244 @@
+package com.coderhouse.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.coderhouse.dtos.EventoVentaDTO;
+import com.coderhouse.dtos.ProductoDTO;
+import com.coderhouse.dtos.ResultadoVentaDTO;
+import com.coderhouse.dtos.VentaDTO;
+import com.coderhouse.exceptions.MotivoRechazo;
+import com.coderhouse.exceptions.VentaRechazadaException;
+import com.coderhouse.models.Cliente;
+import com.coderhouse.models.Producto;
+import com.coderhouse.models.Venta;
+import com.coderhouse.models.VentaProducto;
+import com.coderhouse.repositories.ClienteRepository;
+import com.coderhouse.repositories.ProductoRepository;
+import com.coderhouse.repositories.VentaRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+@Service
+public class VentaLoteService {
+
+	private static final Logger log = LoggerFactory.getLogger(VentaLoteService.class);
+
+	// Motivo de las ventas que no se guardaron por un error interno; el detalle queda en el log
+	private static final String NO_PROCESADA = "Error interno, la venta no se guardo";
+
+	@Autowired
+	private ClienteRepository clienteRepository;
+	@Autowired
+	private ProductoRepository productoRepository;
+	@Autowired
+	private VentaRepository ventaRepository;
+	@Autowired
+	private VentaService ventaService;
+	@Autowired
+	private StockService stockService;
+	@Autowired
+	private FechaService fechaService;
+	@Autowired
+	private ResumenVentasService resumenVentasService;
+	@Autowired
+	private OutboxService outboxService;
+	@Autowired
+	private EliminacionVentasService eliminacionVentasService;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	// Cantidad de ventas que se guardan en cada transaccion
+	@Value("${facturacion.ventas.lote.tamanio-bloque:500}")
+	private int tamanioBloque;
+
+	// Cantidad maxima de ventas aceptadas en un lote
+	@Value("${facturacion.ventas.lote.maximo:10000}")
+	private int maximoLote;
+
+	// CREAR VENTAS EN LOTE
+	public List<ResultadoVentaDTO> newVentas(List<VentaDTO> ventas) {
+		if (ventas.size() > maximoLote) {
+			throw new IllegalArgumentException("El lote supera el maximo de " + maximoLote + " ventas");
+		}
+
+		// Cargar clientes y productos de todo el lote con una consulta por tabla
+		Set<Long> clienteIds = new HashSet<>();
+		Set<Long> productoIds = new HashSet<>();
+		for (VentaDTO venta : ventas) {
+			if (venta.getClienteId() != null) {
+				clienteIds.add(venta.getClienteId());
+			}
+			if (venta.getProductos() != null) {
+				venta.getProductos().stream().map(ProductoDTO::getId).filter(Objects::nonNull).forEach(productoIds::add);
+			}
+		}
+		Map<Long, Cliente> clientes = new HashMap<>();
+		clienteRepository.findAllById(clienteIds).forEach(c -> clientes.put(c.getId(), c));
+		Map<Long, Producto> productos = new HashMap<>();
+		productoRepository.findAllById(productoIds).forEach(p -> productos.put(p.getId(), p));
+
+		// Stock disponible segun la lectura inicial, se va descontando a medida que se aceptan ventas
+		Map<Long, Integer> disponible = new HashMap<>();
+		productos.values().forEach(p -> disponible.put(p.getId(), p.getStock()));
+
+		ResultadoVentaDTO[] resultados = new ResultadoVentaDTO[ventas.size()];
+		for (int inicio = 0; inicio < ventas.size(); inicio += tamanioBloque) {
+			int desde = inicio;
+			int hasta = Math.min(ventas.size(), inicio + tamanioBloque);
+			try {
+				transactionTemplate.executeWithoutResult(
+						status -> procesarBloque(ventas, desde, hasta, clientes, productos, disponible, resultados));
+			} catch (RuntimeException e) {
+				// El bloque se revirtio: otra venta consumio el stock entre la lectura y el descuento, o alguna venta
+				// del bloque fallo. Se procesa de a una venta, asi el error queda solo en la venta que lo provoca
+				for (int i = desde; i < hasta; i++) {
+					resultados[i] = crearIndividual(i, ventas.get(i));
+				}
+				// Se vuelve a leer el stock real para los bloques siguientes. Si tampoco se puede leer, los bloques
+				// anteriores ya estan confirmados: se informan y el resto del lote queda sin procesar
+				try {
+					productoRepository.findAllById(productoIds).forEach(p -> disponible.put(p.getId(), p.getStock()));
+				} catch (RuntimeException lectura) {
+					log.error("Lote interrumpido despues de {} ventas", hasta, lectura);
+					for (int i = hasta; i < ventas.size(); i++) {
+						resultados[i] = new ResultadoVentaDTO(i, ResultadoVentaDTO.NO_PROCESADA, null, NO_PROCESADA, null);
+					}
+					break;
+				}
+			}
+		}
+		return Arrays.asList(resultados);
+	}
+
+	// Valida y guarda un bloque de ventas en una transaccion, con un solo descuento de stock por producto
+	private void procesarBloque(List<VentaDTO> ventas, int desde, int hasta, Map<Long, Cliente> clientes,
+			Map<Long, Producto> productos, Map<Long, Integer> disponible, ResultadoVentaDTO[] resultados) {
+		Map<Long, Integer> consumoBloque = new HashMap<>();
+		ResumenDelta resumen = new ResumenDelta();
+		List<Venta> nuevas = new ArrayList<>();
+		List<Integer> indices = new ArrayList<>();
+
+		for (int i = desde; i < hasta; i++) {
+			VentaDTO dto = ventas.get(i);
+			MotivoRechazo motivo = validar(dto, clientes, productos, disponible);
+			if (motivo != null) {
+				resultados[i] = new ResultadoVentaDTO(i, ResultadoVentaDTO.RECHAZADA, null, motivo.getMensaje(), motivo);
+				continue;
+			}
+
+			Venta venta = new Venta();
+			venta.setCliente(clientes.get(dto.getClienteId()));
+			List<VentaProducto> lineas = new ArrayList<>();
+			int total = 0;
+			for (ProductoDTO productoDTO : dto.getProductos()) {
+				Producto producto = productos.get(productoDTO.getId());
+				disponible.merge(producto.getId(), -productoDTO.getCantidad(), Integer::sum);
+				consumoBloque.merge(producto.getId(), productoDTO.getCantidad(), Integer::sum);
+
+				VentaProducto linea = new VentaProducto();
+				linea.setVenta(venta);
+				linea.setProducto(producto);
+				linea.setCantidad(productoDTO.getCantidad());
+				linea.setPrecioUnitario(producto.getPrecio());
+				lineas.add(linea);
+				total += producto.getPrecio() * productoDTO.getCantidad();
+			}
+			venta.setVentaProductos(lineas);
+			venta.setTotal(total);
+			fechaService.asignarFecha(venta);
+			resumen.agregar(ResumenVentasService.diaDe(venta), dto.getClienteId(), lineas, 1);
+			nuevas.add(venta);
+			indices.add(i);
+		}
+
+		ventaRepository.saveAll(nuevas);
+		resumenVentasService.aplicar(resumen);
+		stockService.ajustar(consumoBloque);
+		outboxService.registrar(EventoVentaDTO.CREADA, nuevas);
+		entityManager.flush();
+		entityManager.clear();
+
+		for (int j = 0; j < nuevas.size(); j++) {
+			resultados[indices.get(j)] = new ResultadoVentaDTO(indices.get(j), ResultadoVentaDTO.CREADA,
+					toDTO(nuevas.get(j)), null, null);
+		}
+	}
+
+	// Devuelve el motivo de rechazo de la venta, o null si se puede crear
+	private MotivoRechazo validar(VentaDTO dto, Map<Long, Cliente> clientes, Map<Long, Producto> productos,
+			Map<Long, Integer> disponible) {
+		if (dto.getClienteId() == null || !clientes.containsKey(dto.getClienteId())) {
+			return MotivoRechazo.CLIENTE_NO_ENCONTRADO;
+		}
+		// Como en newVenta: las ventas de un cliente que se esta eliminando las borraria el trabajo en curso
+		if (eliminacionVentasService.enEliminacion(dto.getClienteId())) {
+			return MotivoRechazo.CLIENTE_NO_ENCONTRADO;
+		}
+		if (dto.getProductos() == null || dto.getProductos().isEmpty()) {
+			return MotivoRechazo.SIN_PRODUCTOS;
+		}
+		Map<Long, Integer> pedido = new HashMap<>();
+		for (ProductoDTO productoDTO : dto.getProductos()) {
+			if (productoDTO.getId() == null || !productos.containsKey(productoDTO.getId())) {
+				return MotivoRechazo.PRODUCTO_NO_ENCONTRADO;
+			}
+			if (productoDTO.getCantidad() == null || productoDTO.getCantidad() <= 0) {
+				return MotivoRechazo.STOCK;
+			}
+			pedido.merge(productoDTO.getId(), productoDTO.getCantidad(), Integer::sum);
+		}
+		for (Map.Entry<Long, Integer> entry : pedido.entrySet()) {
+			if (disponible.get(entry.getKey()) < entry.getValue()) {
+				return MotivoRechazo.STOCK;
+			}
+		}
+		return null;
+	}
+
+	private ResultadoVentaDTO crearIndividual(int indice, VentaDTO dto) {
+		try {
+			if (dto.getClienteId() == null) {
+				throw new VentaRechazadaException(MotivoRechazo.CLIENTE_NO_ENCONTRADO);
+			}
+			if (dto.getProductos() == null || dto.getProductos().isEmpty()) {
+				throw new VentaRechazadaException(MotivoRechazo.SIN_PRODUCTOS);
+			}
+			VentaDTO creada = ventaService.newVenta(dto.getClienteId(),
+					dto.getProductos().stream().map(ProductoDTO::getId).toList(),
+					dto.getProductos().stream().map(ProductoDTO::getCantidad).toList());
+			return new ResultadoVentaDTO(indice, ResultadoVentaDTO.CREADA, creada, null, null);
+		} catch (IllegalArgumentException e) {
+			MotivoRechazo motivo = e instanceof VentaRechazadaException rechazo ? rechazo.getMotivo() : null;
+			return new ResultadoVentaDTO(indice, ResultadoVentaDTO.RECHAZADA, null, e.getMessage(), motivo);
+		} catch (RuntimeException e) {
+			log.error("Error al crear la venta {} del lote", indice, e);
+			return new ResultadoVentaDTO(indice, ResultadoVentaDTO.NO_PROCESADA, null, NO_PROCESADA, null);
+		}
+	}
+
+	private VentaDTO toDTO(Venta venta) {
+		Cliente cliente = venta.getCliente();
+		return new VentaDTO(venta.getId(), cliente.getId(), cliente.getNombre(), cliente.getApellido(),
+				venta.getFecha(),
+				venta.getVentaProductos().stream().map(vp -> new ProductoDTO(vp.getProducto().getId(),
+						vp.getProducto().getNombre(), vp.getPrecioUnitario(), vp.getCantidad())).toList(),
+				venta.getTotal());
+	}
+}
@@ -0,0 +1,63 @@
+package com.coderhouse.services;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.coderhouse.dtos.ResultadoVentaDTO;
+import com.coderhouse.exceptions.MotivoRechazo;
+import com.coderhouse.exceptions.VentaRechazadaException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Contadores de ventas creadas y rechazadas. Se registran despues del commit, desde el controlador
+@Component
+public class VentaMetricas {
+
+	private final Counter creadas;
+	private final Map<MotivoRechazo, Counter> rechazadas = new EnumMap<>(MotivoRechazo.class);
+	private final Counter rechazadasOtro;
+
+	@Autowired
+	public VentaMetricas(MeterRegistry registry) {
+		creadas = Counter.builder("facturacion.ventas.creadas")
+				.description("Ventas creadas")
+				.register(registry);
+		for (MotivoRechazo motivo : MotivoRechazo.values()) {
+			rechazadas.put(motivo, rechazada(registry, motivo.getEtiqueta()));
+		}
+		rechazadasOtro = rechazada(registry, "otro");
+	}
+
+	private static Counter rechazada(MeterRegistry registry, String motivo) {
+		return Counter.builder("facturacion.ventas.rechazadas")
+				.description("Ventas rechazadas por motivo")
+				.tag("motivo", motivo)
+				.register(registry);
+	}
+
+	public void creada() {
+		creadas.increment();
+	}
+
+	// Las IllegalArgumentException que no son VentaRechazadaException se cuentan como 'otro'
+	public void rechazada(IllegalArgumentException e) {
+		rechazada(e instanceof VentaRechazadaException rechazo ? rechazo.getMotivo() : null);
+	}
+
+	private void rechazada(MotivoRechazo motivo) {
+		(motivo == null ? rechazadasOtro : rechazadas.get(motivo)).increment();
+	}
+
+	public void registrar(ResultadoVentaDTO resultado) {
+		// Las ventas NO_PROCESADA no son rechazos: fallaron por un error interno que queda en el log
+		if (ResultadoVentaDTO.CREADA.equals(resultado.getEstado())) {
+			creada();
+		} else if (ResultadoVentaDTO.RECHAZADA.equals(resultado.getEstado())) {
+			rechazada(resultado.getMotivoRechazo());
+		}
+	}
+}
@@ -1,26 +1,59 @@
 package com.coderhouse.services;
 
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+
+import com.coderhouse.config.LecturaReplica;
+import com.coderhouse.dtos.EstadoCuentaDTO;
+import com.coderhouse.dtos.EventoVentaDTO;
+import com.coderhouse.dtos.LineaVentaDTO;
 import com.coderhouse.dtos.VentaDTO;
+import com.coderhouse.dtos.VentaPaginaDTO;
 import com.coderhouse.dtos.ProductoDTO;
+import com.coderhouse.dtos.ResumenCuentaDTO;
+import com.coderhouse.exceptions.ConflictoException;
+import com.coderhouse.exceptions.MotivoRechazo;
+import com.coderhouse.exceptions.NoEncontradoException;
+import com.coderhouse.exceptions.VentaRechazadaException;
 import com.coderhouse.models.Cliente;
 import com.coderhouse.models.Producto;
 import com.coderhouse.models.Venta;
 import com.coderhouse.models.VentaProducto;
 import com.coderhouse.repositories.ClienteRepository;
 import com.coderhouse.repositories.ProductoRepository;
+import com.coderhouse.repositories.VentaArchivadaRepository;
 import com.coderhouse.repositories.VentaProductoRepository;
 import com.coderhouse.repositories.VentaRepository;
 
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
 
 @Service
+@Timed(value = "facturacion.ventas.servicio", description = "Duracion de los metodos de VentaService", histogram = true)
 public class VentaService {
 
+	// Tamaño maximo de pagina para el listado de ventas
+	private static final int LIMITE_MAXIMO = 500;
+	// Limites del rango cuando no se indica desde o hasta en el estado de cuenta
+	private static final LocalDateTime FECHA_MINIMA = LocalDateTime.of(1970, 1, 1, 0, 0);
+	private static final LocalDateTime FECHA_MAXIMA = LocalDateTime.of(9999, 1, 1, 0, 0);
+
 	@Autowired
 	private VentaRepository ventaRepository;
 	@Autowired
@@ -31,188 +64,387 @@ public class VentaService {
 	private VentaProductoRepository ventaProductoRepository;
 	@Autowired
 	private FechaService fechaService;
+	@Autowired
+	private StockService stockService;
+	@Autowired
+	private ProductoCache productoCache;
+	@Autowired
+	private ResumenVentasService resumenVentasService;
+	@Autowired
+	private OutboxService outboxService;
+	@Autowired
+	private EliminacionVentasService eliminacionVentasService;
+	@Autowired
+	private VentaArchivadaRepository ventaArchivadaRepository;
+	@Autowired
+	private ArchivoVentasService archivoVentasService;
+
+	// GET ALL VENTAS (paginado por keyset: una consulta para las cabeceras y otra para sus lineas)
+	// Las cabeceras salen de la tabla activa y del archivo en la misma sentencia; las lineas del archivo
+	// solo se consultan si la pagina tiene ventas archivadas
+	@LecturaReplica
+	public VentaPaginaDTO getAllVentas(Long after, int limit, Long clienteId) {
+		int tamanio = Math.max(1, Math.min(limit, LIMITE_MAXIMO));
+
+		// Se pide un registro de mas para saber si existe una pagina siguiente
+		List<VentaDTO> ventas = new ArrayList<>();
+		Set<Long> archivadas = new HashSet<>();
+		for (Object[] fila : ventaArchivadaRepository.findPagina(after == null ? 0L : after,
+				clienteId == null ? 0L : clienteId, tamanio + 1)) {
+			VentaDTO venta = new VentaDTO(((Number) fila[0]).longValue(), ((Number) fila[1]).longValue(),
+					(String) fila[2], (String) fila[3], (String) fila[4], ((Number) fila[5]).intValue());
+			if (((Number) fila[6]).intValue() == 1) {
+				archivadas.add(venta.getId());
+			}
+			ventas.add(venta);
+		}
+		boolean hayMas = ventas.size() > tamanio;
+		if (hayMas) {
+			ventas = ventas.subList(0, tamanio);
+		}
+		completarProductos(ventas, archivadas);
+
+		Long siguienteCursor = hayMas ? ventas.get(ventas.size() - 1).getId() : null;
+		return new VentaPaginaDTO(ventas, siguienteCursor);
+	}
+
+	// ESTADO DE CUENTA DE UN CLIENTE
+	// Ventas del rango de la mas reciente a la mas antigua, paginadas por keyset sobre (fechaHora, id).
+	// El resumen sale de una consulta de agregacion y solo se calcula en la primera pagina.
+	// Si el rango empieza antes del horizonte del archivo, pagina y resumen leen tambien ventas_archivo.
+	// No se toca la coleccion Cliente.ventas
+	@LecturaReplica
+	public EstadoCuentaDTO getEstadoCuenta(Long clienteId, LocalDate desde, LocalDate hasta, Long after, int limit) {
+		if (desde != null && hasta != null && desde.isAfter(hasta)) {
+			throw new IllegalArgumentException("Rango de fechas no valido");
+		}
+		Cliente cliente = clienteRepository.findById(clienteId)
+				.orElseThrow(() -> new NoEncontradoException("Cliente no encontrado"));
+		int tamanio = Math.max(1, Math.min(limit, LIMITE_MAXIMO));
+		LocalDateTime inicio = desde == null ? FECHA_MINIMA : desde.atStartOfDay();
+		LocalDateTime fin = hasta == null ? FECHA_MAXIMA : hasta.plusDays(1).atStartOfDay();
+
+		if (inicio.isBefore(archivoVentasService.horizonte())) {
+			return getEstadoCuentaConArchivo(cliente, inicio, fin, after, tamanio);
+		}
+
+		List<VentaDTO> ventas;
+		ResumenCuentaDTO resumen = null;
+		if (after == null) {
+			resumen = ventaRepository.findResumenCuenta(clienteId, inicio, fin);
+			ventas = ventaRepository.findCuentaDTO(clienteId, inicio, fin, PageRequest.of(0, tamanio + 1));
+		} else {
+			LocalDateTime fechaCursor = ventaRepository.findFechaHora(after, clienteId)
+					.orElseThrow(() -> new IllegalArgumentException("Cursor no valido"));
+			ventas = ventaRepository.findCuentaDTODespuesDe(clienteId, inicio, fin, fechaCursor, after,
+					PageRequest.of(0, tamanio + 1));
+		}
+		boolean hayMas = ventas.size() > tamanio;
+		if (hayMas) {
+			ventas = ventas.subList(0, tamanio);
+		}
+		completarProductos(ventas);
 
-	// GET ALL VENTAS
-	public List<VentaDTO> getAllVentas() {
-		return ventaRepository.findAll().stream()
-				.map(venta -> new VentaDTO(venta.getId(), venta.getCliente().getId(), venta.getCliente().getNombre(),
-						venta.getCliente().getApellido(), venta.getFecha(),
-						venta.getVentaProductos().stream()
-								.map(vp -> new ProductoDTO(vp.getProducto().getId(), vp.getProducto().getNombre(),
-										vp.getPrecioUnitario(), vp.getCantidad()))
-								.toList(),
-						venta.getTotal()))
-				.toList();
+		Long siguienteCursor = hayMas ? ventas.get(ventas.size() - 1).getId() : null;
+		return new EstadoCuentaDTO(cliente.getId(), cliente.getNombre(), cliente.getApellido(), resumen, ventas,
+				siguienteCursor);
+	}
+
+	// Estado de cuenta sobre la tabla activa y el archivo: la misma cantidad de sentencias que el camino normal
+	private EstadoCuentaDTO getEstadoCuentaConArchivo(Cliente cliente, LocalDateTime inicio, LocalDateTime fin,
+			Long after, int tamanio) {
+		ResumenCuentaDTO resumen = null;
+		LocalDateTime fechaCursor = fin;
+		long idCursor = Long.MAX_VALUE;
+		if (after == null) {
+			Object[] fila = ventaArchivadaRepository.findResumenCuenta(cliente.getId(), inicio, fin).get(0);
+			resumen = new ResumenCuentaDTO(((Number) fila[0]).longValue(), ((Number) fila[1]).longValue(),
+					fechaHora(fila[2]));
+		} else {
+			// El cursor puede ser una venta archivada en la pagina anterior o entre dos paginas
+			fechaCursor = ventaRepository.findFechaHora(after, cliente.getId())
+					.or(() -> ventaArchivadaRepository.findFechaHora(after, cliente.getId()))
+					.orElseThrow(() -> new IllegalArgumentException("Cursor no valido"));
+			idCursor = after;
+		}
+
+		List<VentaDTO> ventas = new ArrayList<>();
+		Set<Long> archivadas = new HashSet<>();
+		for (Object[] fila : ventaArchivadaRepository.findCuenta(cliente.getId(), inicio, fin, fechaCursor, idCursor,
+				tamanio + 1)) {
+			VentaDTO venta = new VentaDTO(((Number) fila[0]).longValue(), cliente.getId(), cliente.getNombre(),
+					cliente.getApellido(), (String) fila[1], ((Number) fila[2]).intValue());
+			if (((Number) fila[4]).intValue() == 1) {
+				archivadas.add(venta.getId());
+			}
+			ventas.add(venta);
+		}
+		boolean hayMas = ventas.size() > tamanio;
+		if (hayMas) {
+			ventas = ventas.subList(0, tamanio);
+		}
+		completarProductos(ventas, archivadas);
+
+		Long siguienteCursor = hayMas ? ventas.get(ventas.size() - 1).getId() : null;
+		return new EstadoCuentaDTO(cliente.getId(), cliente.getNombre(), cliente.getApellido(), resumen, ventas,
+				siguienteCursor);
+	}
+
+	// Segun el driver, las columnas de fecha de una consulta nativa llegan como Timestamp o como LocalDateTime
+	private static LocalDateTime fechaHora(Object valor) {
+		if (valor instanceof Timestamp timestamp) {
+			return timestamp.toLocalDateTime();
+		}
+		return (LocalDateTime) valor;
 	}
 
 	// GET VENTA BY ID
+	// Si no esta en la tabla activa se busca en el archivo
 	public VentaDTO getVentaById(Long id) {
-		Venta venta = ventaRepository.findById(id)
+		VentaDTO venta = ventaRepository.findDTOById(id).orElse(null);
+		if (venta != null) {
+			completarProductos(List.of(venta));
+			return venta;
+		}
+		venta = ventaArchivadaRepository.findDTOById(id)
 				.orElseThrow(() -> new IllegalArgumentException("Venta no encontrada"));
+		completarProductos(List.of(venta), Set.of(venta.getId()));
+		return venta;
+	}
 
-		return new VentaDTO(venta.getId(), venta.getCliente().getId(), venta.getCliente().getNombre(),
-				venta.getCliente().getApellido(), venta.getFecha(),
-				venta.getVentaProductos().stream().map(vp -> new ProductoDTO(vp.getProducto().getId(), vp.getProducto().getNombre(),
-						vp.getPrecioUnitario(), vp.getCantidad())).toList(),
-				venta.getTotal());
+	// Carga las lineas de todas las ventas recibidas con una sola consulta de proyeccion
+	private void completarProductos(List<VentaDTO> ventas) {
+		completarProductos(ventas, Set.of());
+	}
+
+	// Las lineas de las ventas archivadas se leen del archivo con una consulta aparte
+	private void completarProductos(List<VentaDTO> ventas, Set<Long> archivadas) {
+		if (ventas.isEmpty()) {
+			return;
+		}
+		Map<Long, VentaDTO> ventasPorId = new HashMap<>();
+		List<Long> activas = new ArrayList<>();
+		List<Long> delArchivo = new ArrayList<>();
+		for (VentaDTO venta : ventas) {
+			ventasPorId.put(venta.getId(), venta);
+			if (archivadas.contains(venta.getId())) {
+				delArchivo.add(venta.getId());
+			} else {
+				activas.add(venta.getId());
+			}
+		}
+		if (!activas.isEmpty()) {
+			for (LineaVentaDTO linea : ventaRepository.findLineasDTO(activas)) {
+				ventasPorId.get(linea.getVentaId()).getProductos().add(linea.toProductoDTO());
+			}
+		}
+		if (!delArchivo.isEmpty()) {
+			for (LineaVentaDTO linea : ventaArchivadaRepository.findLineasDTO(delArchivo)) {
+				ventasPorId.get(linea.getVentaId()).getProductos().add(linea.toProductoDTO());
+			}
+		}
 	}
 
 	// CREAR VENTA/COMPROBANTE
 	@Transactional
 	public VentaDTO newVenta(Long clienteId, List<Long> productosId, List<Integer> cantidad) {
 		Cliente cliente = clienteRepository.findById(clienteId)
-				.orElseThrow(() -> new IllegalArgumentException("Cliente no encontrado"));
+				.orElseThrow(() -> new VentaRechazadaException(MotivoRechazo.CLIENTE_NO_ENCONTRADO));
+		if (eliminacionVentasService.enEliminacion(clienteId)) {
+			throw new VentaRechazadaException(MotivoRechazo.CLIENTE_NO_ENCONTRADO);
+		}
+
+		// Precio y nombre de los productos desde la cache (los que falten se leen en una sola consulta)
+		Map<Long, Producto> productos = productoCache.getAll(
+				productosId.stream().filter(Objects::nonNull).collect(Collectors.toSet()));
 
 		List<VentaProducto> ventaProductos = new ArrayList<>();
+		Map<Long, Integer> consumo = new HashMap<>();
 		int total = 0;
 
 		// Crear la venta
 		Venta nuevaVenta = new Venta();
 		nuevaVenta.setCliente(cliente);
 		nuevaVenta.setVentaProductos(ventaProductos);
-		nuevaVenta.setTotal(total);
-
-		// Asignar fecha y guardar la venta primero
-		fechaService.asignarFecha(nuevaVenta);
-		Venta ventaGuardada = ventaRepository.save(nuevaVenta);
 
 		// Procesar productos
 		for (int i = 0; i < productosId.size(); i++) {
-			Long productoId = productosId.get(i);
+			Producto producto = productos.get(productosId.get(i));
 			Integer cantidades = cantidad.get(i);
 
-			Producto producto = productoRepository.findById(productoId)
-					.orElseThrow(() -> new IllegalArgumentException("Producto no encontrado"));
-
-			// Validar cantidad y stock
-			if (cantidades <= 0 || producto.getStock() < cantidades) {
-				throw new IllegalArgumentException("Stock insuficiente o cantidad no válida");
+			if (producto == null) {
+				throw new VentaRechazadaException(MotivoRechazo.PRODUCTO_NO_ENCONTRADO);
 			}
 
-			// Reducir stock dentro de una transacción
-			producto.setStock(producto.getStock() - cantidades);
-			productoRepository.save(producto);
+			// Validar cantidad (el stock se valida al descontarlo)
+			if (cantidades == null || cantidades <= 0) {
+				throw new VentaRechazadaException(MotivoRechazo.STOCK);
+			}
+			consumo.merge(producto.getId(), cantidades, Integer::sum);
 
 			// Crear registro de venta producto
 			VentaProducto ventaProducto = new VentaProducto();
-			ventaProducto.setProducto(producto);
+			ventaProducto.setVenta(nuevaVenta);
+			ventaProducto.setProducto(productoRepository.getReferenceById(producto.getId()));
 			ventaProducto.setCantidad(cantidades);
 			ventaProducto.setPrecioUnitario(producto.getPrecio());
 			ventaProductos.add(ventaProducto);
-			
-		    ventaProducto.setVenta(ventaGuardada);
 
 			total += producto.getPrecio() * cantidades;
 		}
-		
-		ventaGuardada.setTotal(total);
-		ventaRepository.save(ventaGuardada);
 
-		for (VentaProducto vp : ventaProductos) {
-			vp.setVenta(ventaGuardada);
-			ventaProductoRepository.save(vp);
-		}
+		// Asignar fecha y total, y guardar la venta una sola vez (las lineas se insertan en cascada)
+		nuevaVenta.setTotal(total);
+		fechaService.asignarFecha(nuevaVenta);
+		Venta ventaGuardada = ventaRepository.save(nuevaVenta);
+
+		// Sumar la venta a los resumenes diarios
+		resumenVentasService.aplicar(new ResumenDelta()
+				.agregar(ResumenVentasService.diaDe(ventaGuardada), cliente.getId(), ventaProductos, 1));
+
+		// Descontar stock al final, con una sentencia condicional por producto
+		stockService.ajustar(consumo);
+
+		// El evento se inserta despues del stock: una venta rechazada no llega a escribir en el outbox
+		outboxService.registrar(EventoVentaDTO.CREADA, ventaGuardada);
 
 		// Retornar DTO con los detalles de la venta
 		return new VentaDTO(ventaGuardada.getId(), cliente.getId(), cliente.getNombre(), cliente.getApellido(),
 				ventaGuardada.getFecha(),
 				ventaProductos.stream().map(vp -> new ProductoDTO(vp.getProducto().getId(),
-						vp.getProducto().getNombre(), vp.getPrecioUnitario(), vp.getCantidad())).toList(),
+						productos.get(vp.getProducto().getId()).getNombre(), vp.getPrecioUnitario(), vp.getCantidad())).toList(),
 				ventaGuardada.getTotal());
 	}
 
 	// ACTUALIZAR VENTA
+	// Compara las lineas actuales con las nuevas y solo toca las que cambian: las de un producto que sigue
+	// en la venta conservan su fila y su precio unitario, las nuevas se insertan y las que ya no estan se borran.
+	// El stock se ajusta solo por la diferencia neta de cada producto
 	@Transactional
 	public VentaDTO updateVentaById(Long id, VentaDTO dto) {
-		Venta venta = ventaRepository.findById(id)
-				.orElseThrow(() -> new IllegalArgumentException("Venta no encontrada"));
+		Venta venta = ventaRepository.findById(id).orElse(null);
+		if (venta == null) {
+			throw ventaArchivadaRepository.existsById(id)
+					? new ConflictoException("Venta archivada") : new IllegalArgumentException("Venta no encontrada");
+		}
+
+		if (dto.getProductos() == null) {
+			throw new IllegalArgumentException("Debe proporcionar los productos de la venta");
+		}
+
+		// Restar la venta original de los resumenes (la nueva version se suma al final)
+		ResumenDelta resumen = new ResumenDelta().agregar(ResumenVentasService.diaDe(venta),
+				venta.getCliente().getId(), venta.getVentaProductos(), -1);
 
 		// Actualizar cliente
-		if (dto.getClienteId() != null) {
+		if (dto.getClienteId() != null && !dto.getClienteId().equals(venta.getCliente().getId())) {
 			Cliente cliente = clienteRepository.findById(dto.getClienteId())
-					.orElseThrow(() -> new IllegalArgumentException("Cliente no encontrado"));
+					.orElseThrow(() -> new VentaRechazadaException(MotivoRechazo.CLIENTE_NO_ENCONTRADO));
 			venta.setCliente(cliente);
 		}
 
-		// Restaurar stock de los productos antes de actualizar
+		// Lineas actuales por producto, en el orden en que estan en la venta
+		Map<Long, Deque<VentaProducto>> actuales = new HashMap<>();
 		for (VentaProducto vp : venta.getVentaProductos()) {
-			Producto producto = vp.getProducto();
-			producto.setStock(producto.getStock() + vp.getCantidad());
-			productoRepository.save(producto);
+			actuales.computeIfAbsent(vp.getProducto().getId(), k -> new ArrayDeque<>()).add(vp);
 		}
 
-		// Eliminar los 'VentaProducto' anteriores
-		ventaProductoRepository.deleteAll(venta.getVentaProductos());
-		venta.getVentaProductos().clear();
+		// Precio de los productos que suman lineas a la venta, desde la cache: los que no estaban y los que
+		// vienen en mas lineas de las que tenian
+		Map<Long, Long> pedidas = dto.getProductos().stream().map(ProductoDTO::getId).filter(Objects::nonNull)
+				.collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+		Map<Long, Producto> agregados = productoCache.getAll(pedidas.entrySet().stream()
+				.filter(e -> e.getValue() > actuales.getOrDefault(e.getKey(), new ArrayDeque<>()).size())
+				.map(Map.Entry::getKey)
+				.collect(Collectors.toSet()));
 
-		// Validar y agregar los nuevos productos
-		List<VentaProducto> nuevosVentaProductos = new ArrayList<>();
-		int nuevoTotal = 0;
+		// Cantidad neta por producto: positiva se descuenta, negativa se repone
+		Map<Long, Integer> consumo = new HashMap<>();
+		List<VentaProducto> lineas = new ArrayList<>();
+		List<VentaProducto> nuevas = new ArrayList<>();
 
 		for (ProductoDTO productoDTO : dto.getProductos()) {
-
-			Producto producto = productoRepository.findById(productoDTO.getId())
-					.orElseThrow(() -> new IllegalArgumentException("Producto no encontrado"));
-
-			if (productoDTO.getCantidad() <= 0) {
-				throw new IllegalArgumentException("Debe proporcionar una cantidad mayor a 0");
+			if (productoDTO.getCantidad() == null || productoDTO.getCantidad() <= 0) {
+				throw new VentaRechazadaException(MotivoRechazo.STOCK, "Debe proporcionar una cantidad mayor a 0");
 			}
-
-			if (producto.getStock() < productoDTO.getCantidad()) {
-				throw new IllegalArgumentException("Stock insuficiente");
+			Deque<VentaProducto> existentes = actuales.get(productoDTO.getId());
+			VentaProducto linea = existentes == null ? null : existentes.poll();
+
+			if (linea != null) {
+				// Linea que sigue en la venta: solo se escribe si cambia la cantidad
+				consumo.merge(productoDTO.getId(), productoDTO.getCantidad() - linea.getCantidad(), Integer::sum);
+				linea.setCantidad(productoDTO.getCantidad());
+			} else {
+				Producto producto = agregados.get(productoDTO.getId());
+				if (producto == null) {
+					throw new VentaRechazadaException(MotivoRechazo.PRODUCTO_NO_ENCONTRADO);
+				}
+				consumo.merge(producto.getId(), productoDTO.getCantidad(), Integer::sum);
+
+				linea = new VentaProducto();
+				linea.setVenta(venta);
+				linea.setProducto(productoRepository.getReferenceById(producto.getId()));
+				linea.setCantidad(productoDTO.getCantidad());
+				linea.setPrecioUnitario(producto.getPrecio());
+				venta.getVentaProductos().add(linea);
+				nuevas.add(linea);
 			}
-
-			// Reducir el stock
-			producto.setStock(producto.getStock() - productoDTO.getCantidad());
-			productoRepository.save(producto);
-
-			// Recalcular el total
-			nuevoTotal += producto.getPrecio() * productoDTO.getCantidad();
-
-			// Crear el nuevo 'VentaProducto'
-			VentaProducto ventaProducto = new VentaProducto();
-			ventaProducto.setProducto(producto);
-			ventaProducto.setCantidad(productoDTO.getCantidad());
-			ventaProducto.setPrecioUnitario(producto.getPrecio());
-			ventaProducto.setVenta(venta);
-			nuevosVentaProductos.add(ventaProducto);
+			lineas.add(linea);
 		}
 
-		venta.setVentaProductos(nuevosVentaProductos);
-		venta.setTotal(nuevoTotal);
+		// Las lineas que no se usaron se eliminan con una sola sentencia y su stock se repone
+		List<VentaProducto> eliminadas = new ArrayList<>();
+		for (Deque<VentaProducto> sobrantes : actuales.values()) {
+			for (VentaProducto vp : sobrantes) {
+				consumo.merge(vp.getProducto().getId(), -vp.getCantidad(), Integer::sum);
+				eliminadas.add(vp);
+			}
+		}
+		if (!eliminadas.isEmpty()) {
+			venta.getVentaProductos().removeAll(eliminadas);
+			ventaProductoRepository.deleteAllInBatch(eliminadas);
+		}
 
-		// Guardar la venta actualizada
-		Venta ventaActualizada = ventaRepository.save(venta);
+		// Insertar las lineas nuevas en lote
+		ventaProductoRepository.saveAll(nuevas);
 
-		// Guardar los nuevos 'VentaProducto'
-		for (VentaProducto vp : nuevosVentaProductos) {
-			ventaProductoRepository.save(vp);
+		// Recalcular el total; la venta y las lineas modificadas se escriben al hacer flush
+		int nuevoTotal = 0;
+		for (VentaProducto vp : lineas) {
+			nuevoTotal += vp.getPrecioUnitario() * vp.getCantidad();
 		}
+		venta.setTotal(nuevoTotal);
 
-		return new VentaDTO(ventaActualizada.getId(), ventaActualizada.getCliente().getId(),
-				ventaActualizada.getCliente().getNombre(), ventaActualizada.getCliente().getApellido(),
-				ventaActualizada.getFecha(),
-				nuevosVentaProductos.stream().map(vp -> new ProductoDTO(vp.getProducto().getId(),
-						vp.getProducto().getNombre(), vp.getPrecioUnitario(), vp.getCantidad())).toList(),
-				ventaActualizada.getTotal());
+		// Aplicar a los resumenes solo la diferencia entre la venta original y la nueva
+		resumen.agregar(ResumenVentasService.diaDe(venta), venta.getCliente().getId(),
+				lineas, 1);
+		resumenVentasService.aplicar(resumen);
+
+		// Aplicar solo la diferencia neta de stock de los productos que cambiaron
+		consumo.values().removeIf(cantidad -> cantidad == 0);
+		stockService.ajustar(consumo);
+		outboxService.registrar(EventoVentaDTO.ACTUALIZADA, venta);
+
+		// Nombres de los productos desde la cache, sin inicializar cada producto de las lineas
+		Map<Long, Producto> productos = productoCache.getAll(
+				lineas.stream().map(vp -> vp.getProducto().getId()).collect(Collectors.toSet()));
+
+		return new VentaDTO(venta.getId(), venta.getCliente().getId(),
+				venta.getCliente().getNombre(), venta.getCliente().getApellido(),
+				venta.getFecha(),
+				lineas.stream().map(vp -> new ProductoDTO(vp.getProducto().getId(),
+						productos.get(vp.getProducto().getId()).getNombre(), vp.getPrecioUnitario(), vp.getCantidad())).toList(),
+				venta.getTotal());
 	}
 
 	// ELIMINAR VENTA
+	// Stock, resumenes, evento y borrado de lineas y cabecera por conjuntos, sin cargar la venta.
+	// Las ventas archivadas no se eliminan
+	@Transactional
 	public void deleteVentaById(Long id) {
-
-		Venta venta = ventaRepository.findById(id)
-				.orElseThrow(() -> new IllegalArgumentException("Venta no encontrada"));
-
-		// Restaurar stock
-		for (VentaProducto vp : venta.getVentaProductos()) {
-			Producto producto = vp.getProducto();
-			producto.setStock(producto.getStock() + vp.getCantidad());
-			productoRepository.save(producto);
+		if (eliminacionVentasService.eliminarVentas(List.of(id)) == 0) {
+			throw ventaArchivadaRepository.existsById(id)
+					? new ConflictoException("Venta archivada") : new IllegalArgumentException("Venta no encontrada");
 		}
-
-		// Eliminar los VentaProducto relacionados
-		ventaProductoRepository.deleteAll(venta.getVentaProductos());
-		// Eliminar la venta
-		ventaRepository.deleteById(id);
 	}
-}
\ No newline at end of file
+}
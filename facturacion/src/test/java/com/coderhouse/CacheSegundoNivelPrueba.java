@@ -0,0 +1,29 @@
+package com.coderhouse;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+// El CacheManager de JCache se comparte en toda la JVM por URI, pero cada contexto de prueba tiene su propia base H2:
+// con un solo CacheManager un contexto leeria de la cache de segundo nivel los productos de otro con el mismo ID.
+// Cada contexto usa uno propio, con las regiones de application.conf
+@Component
+public class CacheSegundoNivelPrueba implements HibernatePropertiesCustomizer {
+
+	private final CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+			.getCacheManager(URI.create("facturacion-" + UUID.randomUUID()), getClass().getClassLoader());
+
+	@Override
+	public void customize(Map<String, Object> hibernateProperties) {
+		hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+	}
+}
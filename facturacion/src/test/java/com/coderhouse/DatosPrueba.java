@@ -0,0 +1,40 @@
+package com.coderhouse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.coderhouse.models.Cliente;
+import com.coderhouse.models.Producto;
+import com.coderhouse.repositories.ClienteRepository;
+import com.coderhouse.repositories.ProductoRepository;
+
+// Altas de clientes y productos para las pruebas que levantan el contexto. Es un bean de las fuentes de prueba:
+// el escaneo de componentes lo encuentra sin @Import, asi las pruebas siguen compartiendo el mismo contexto
+@Component
+public class DatosPrueba {
+
+	@Autowired
+	private ClienteRepository clienteRepository;
+	@Autowired
+	private ProductoRepository productoRepository;
+
+	public Long nuevoCliente(String email) {
+		Cliente cliente = new Cliente();
+		cliente.setNombre("Valeria");
+		cliente.setApellido("Casatti");
+		cliente.setEmail(email);
+		return clienteRepository.save(cliente).getId();
+	}
+
+	public Long nuevoProducto(int stock) {
+		return nuevoProducto("Remera", 100, stock);
+	}
+
+	public Long nuevoProducto(String nombre, int precio, int stock) {
+		Producto producto = new Producto();
+		producto.setNombre(nombre);
+		producto.setPrecio(precio);
+		producto.setStock(stock);
+		return productoRepository.save(producto).getId();
+	}
+}
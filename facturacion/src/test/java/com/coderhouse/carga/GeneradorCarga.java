@@ -0,0 +1,160 @@
+package com.coderhouse.carga;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+// Generador de carga de modelo abierto: las peticiones salen a una tasa fija sin esperar a que terminen las anteriores,
+// cada una en su propio hilo virtual. La latencia se mide desde el momento en que la peticion debia salir,
+// asi una demora del generador o del servidor no esconde la cola (omision coordinada).
+class GeneradorCarga {
+
+	// Latencias hasta 1 minuto con 3 digitos significativos
+	private static final long LATENCIA_MAXIMA = TimeUnit.MINUTES.toNanos(1);
+
+	interface Peticion {
+		// Devuelve el codigo de estado HTTP
+		int enviar() throws Exception;
+	}
+
+	static final class Operacion {
+		final String nombre;
+		final int peso;
+		final Peticion peticion;
+		final Histogram latencias = new ConcurrentHistogram(LATENCIA_MAXIMA, 3);
+		final AtomicLong errores = new AtomicLong();
+
+		Operacion(String nombre, int peso, Peticion peticion) {
+			this.nombre = nombre;
+			this.peso = peso;
+			this.peticion = peticion;
+		}
+	}
+
+	private final Map<String, Operacion> operaciones = new LinkedHashMap<>();
+
+	void agregar(String nombre, int peso, Peticion peticion) {
+		if (peso > 0) {
+			operaciones.put(nombre, new Operacion(nombre, peso, peticion));
+		}
+	}
+
+	// Lanza peticiones a 'tasa' por segundo durante calentamiento + medicion; solo se registran las de la medicion
+	Resultado ejecutar(int tasa, Duration calentamiento, Duration medicion) throws InterruptedException {
+		List<Operacion> lista = new ArrayList<>(operaciones.values());
+		int pesoTotal = lista.stream().mapToInt(o -> o.peso).sum();
+		long intervalo = TimeUnit.SECONDS.toNanos(1) / tasa;
+		long inicio = System.nanoTime();
+		long inicioMedicion = inicio + calentamiento.toNanos();
+		long fin = inicioMedicion + medicion.toNanos();
+		long atrasoMaximo = 0;
+
+		try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (long programada = inicio; programada < fin; programada += intervalo) {
+				long espera = programada - System.nanoTime();
+				if (espera > 0) {
+					LockSupport.parkNanos(espera);
+				} else if (programada >= inicioMedicion) {
+					atrasoMaximo = Math.max(atrasoMaximo, -espera);
+				}
+				Operacion operacion = elegir(lista, pesoTotal);
+				boolean medir = programada >= inicioMedicion;
+				long salida = programada;
+				hilos.execute(() -> {
+					boolean ok;
+					try {
+						ok = operacion.peticion.enviar() / 100 == 2;
+					} catch (Exception e) {
+						ok = false;
+					}
+					if (medir) {
+						operacion.latencias.recordValue(Math.min(System.nanoTime() - salida, LATENCIA_MAXIMA));
+						if (!ok) {
+							operacion.errores.incrementAndGet();
+						}
+					}
+				});
+			}
+		}
+		return new Resultado(tasa, medicion, lista, atrasoMaximo);
+	}
+
+	private Operacion elegir(List<Operacion> lista, int pesoTotal) {
+		int valor = ThreadLocalRandom.current().nextInt(pesoTotal);
+		for (Operacion operacion : lista) {
+			valor -= operacion.peso;
+			if (valor < 0) {
+				return operacion;
+			}
+		}
+		return lista.get(lista.size() - 1);
+	}
+
+	static final class Resultado {
+		final int tasa;
+		final Duration medicion;
+		final List<Operacion> operaciones;
+		// Mayor atraso del generador respecto de la tasa pedida; si es alto la maquina no da abasto
+		final long atrasoMaximo;
+		final Histogram total = new Histogram(LATENCIA_MAXIMA, 3);
+
+		Resultado(int tasa, Duration medicion, List<Operacion> operaciones, long atrasoMaximo) {
+			this.tasa = tasa;
+			this.medicion = medicion;
+			this.operaciones = operaciones;
+			this.atrasoMaximo = atrasoMaximo;
+			operaciones.forEach(o -> total.add(o.latencias));
+		}
+
+		long errores() {
+			return operaciones.stream().mapToLong(o -> o.errores.get()).sum();
+		}
+
+		// Tabla con una fila por operacion y una de total. No lleva fechas ni datos de la maquina para poder compararla entre versiones
+		String tabla() {
+			StringBuilder tabla = new StringBuilder();
+			tabla.append(String.format("%-14s %9s %10s %8s %9s %9s %9s %9s %9s%n",
+					"operacion", "cantidad", "pet/s", "error %", "p50 ms", "p95 ms", "p99 ms", "p999 ms", "max ms"));
+			for (Operacion operacion : operaciones) {
+				tabla.append(fila(operacion.nombre, operacion.latencias, operacion.errores.get()));
+			}
+			tabla.append(fila("total", total, errores()));
+			return tabla.toString();
+		}
+
+		private String fila(String nombre, Histogram latencias, long errores) {
+			long cantidad = latencias.getTotalCount();
+			return String.format("%-14s %9d %10.1f %8.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n", nombre, cantidad,
+					cantidad / (double) medicion.toSeconds(), cantidad == 0 ? 0 : 100.0 * errores / cantidad,
+					ms(latencias, 50), ms(latencias, 95), ms(latencias, 99), ms(latencias, 99.9),
+					latencias.getMaxValue() / 1e6);
+		}
+
+		private double ms(Histogram latencias, double percentil) {
+			return latencias.getValueAtPercentile(percentil) / 1e6;
+		}
+
+		// Distribucion completa en el formato de HdrHistogram (.hgrm), en milisegundos
+		String distribucion(Histogram latencias) {
+			ByteArrayOutputStream salida = new ByteArrayOutputStream();
+			try (PrintStream impresion = new PrintStream(salida, true, StandardCharsets.UTF_8)) {
+				latencias.outputPercentileDistribution(impresion, 1e6);
+			}
+			return salida.toString(StandardCharsets.UTF_8);
+		}
+	}
+}
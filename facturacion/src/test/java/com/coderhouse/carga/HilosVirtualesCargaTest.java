@@ -0,0 +1,235 @@
+package com.coderhouse.carga;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.coderhouse.FacturacionApplication;
+import com.coderhouse.models.Cliente;
+import com.coderhouse.models.Producto;
+import com.coderhouse.repositories.ClienteRepository;
+import com.coderhouse.repositories.ProductoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Compara hilos de plataforma y virtuales para POST /api/ventas y GET /api/ventas/{id}.
+// No corre con el build normal: mvn -Pcarga test -Dtest=HilosVirtualesCargaTest
+@Tag("carga")
+class HilosVirtualesCargaTest {
+
+	private static final int CONCURRENCIA = Integer.getInteger("carga.concurrencia", 400);
+	private static final int SEGUNDOS = Integer.getInteger("carga.segundos", 15);
+	private static final int CALENTAMIENTO = Integer.getInteger("carga.calentamiento", 5);
+	// Cuanto menos throughput se acepta con hilos virtuales que con hilos de plataforma. La comparacion tiene
+	// sentido con mas clientes que hilos de Tomcat (200): por debajo ambos modos atienden todo en paralelo
+	private static final double TOLERANCIA = Double.parseDouble(System.getProperty("carga.tolerancia", "0.10"));
+	private static final int CLIENTES = 100;
+	private static final int PRODUCTOS = 200;
+
+	private static final ObjectMapper JSON = new ObjectMapper();
+	private static final HttpClient HTTP = HttpClient.newBuilder()
+			.executor(Executors.newVirtualThreadPerTaskExecutor())
+			.connectTimeout(Duration.ofSeconds(5))
+			.build();
+
+	@Test
+	void hilosVirtualesVsHilosDePlataforma() throws Exception {
+		List<String> filas = new ArrayList<>();
+		filas.add(String.format("%-12s %-22s %12s %10s %10s %8s", "modo", "endpoint", "peticiones/s", "p50 ms", "p99 ms", "errores"));
+		Resultado[][] resultados = new Resultado[2][];
+		for (boolean virtuales : new boolean[] { false, true }) {
+			try (ConfigurableApplicationContext contexto = iniciar(virtuales)) {
+				String base = "http://localhost:" + ((WebServerApplicationContext) contexto).getWebServer().getPort();
+				Datos datos = cargarDatos(contexto);
+				String modo = virtuales ? "virtuales" : "plataforma";
+
+				Resultado post = medir(() -> crearVenta(base, datos));
+				filas.add(post.fila(modo, "POST /api/ventas"));
+
+				Resultado get = medir(() -> consultarVenta(base, datos));
+				filas.add(get.fila(modo, "GET /api/ventas/{id}"));
+
+				assertEquals(0, post.errores, "Errores en POST con hilos " + modo);
+				assertEquals(0, get.errores, "Errores en GET con hilos " + modo);
+				assertTrue(post.cantidad > 0 && get.cantidad > 0);
+				resultados[virtuales ? 1 : 0] = new Resultado[] { post, get };
+			}
+		}
+
+		String reporte = String.format("Concurrencia %d, %d s de medicion%n", CONCURRENCIA, SEGUNDOS) + String.join(System.lineSeparator(), filas);
+		Path archivo = Path.of("target", "carga", "hilos-virtuales.txt");
+		Files.createDirectories(archivo.getParent());
+		Files.writeString(archivo, reporte + System.lineSeparator());
+
+		// Con hilos virtuales cada endpoint atiende al menos lo mismo que con hilos de plataforma, salvo la tolerancia
+		for (int i = 0; i < 2; i++) {
+			double plataforma = resultados[0][i].porSegundo;
+			double virtuales = resultados[1][i].porSegundo;
+			assertTrue(virtuales >= plataforma * (1 - TOLERANCIA), reporte);
+		}
+	}
+
+	private ConfigurableApplicationContext iniciar(boolean virtuales) {
+		return new SpringApplicationBuilder(FacturacionApplication.class)
+				.properties(
+						"server.port=0",
+						"spring.threads.virtual.enabled=" + virtuales,
+						"spring.datasource.url=jdbc:h2:mem:carga-" + virtuales + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+						"spring.jpa.properties.hibernate.generate_statistics=false",
+						"logging.level.root=WARN")
+				.run();
+	}
+
+	private record Datos(List<Long> clienteIds, List<Long> productoIds, List<Long> ventaIds) {
+	}
+
+	private Datos cargarDatos(ConfigurableApplicationContext contexto) throws Exception {
+		List<Long> clienteIds = new ArrayList<>();
+		List<Cliente> clientes = new ArrayList<>();
+		for (int i = 0; i < CLIENTES; i++) {
+			Cliente cliente = new Cliente();
+			cliente.setNombre("Nombre" + i);
+			cliente.setApellido("Apellido" + i);
+			cliente.setEmail("carga" + i + "@test.com");
+			clientes.add(cliente);
+		}
+		contexto.getBean(ClienteRepository.class).saveAll(clientes).forEach(c -> clienteIds.add(c.getId()));
+
+		List<Long> productoIds = new ArrayList<>();
+		List<Producto> productos = new ArrayList<>();
+		for (int i = 0; i < PRODUCTOS; i++) {
+			Producto producto = new Producto();
+			producto.setNombre("Producto " + i);
+			producto.setPrecio(100 + i);
+			producto.setStock(1_000_000_000);
+			productos.add(producto);
+		}
+		contexto.getBean(ProductoRepository.class).saveAll(productos).forEach(p -> productoIds.add(p.getId()));
+
+		// Ventas existentes para las lecturas
+		String base = "http://localhost:" + ((WebServerApplicationContext) contexto).getWebServer().getPort();
+		Datos datos = new Datos(clienteIds, productoIds, new ArrayList<>());
+		for (int i = 0; i < 500; i++) {
+			datos.ventaIds().add(JSON.readTree(crearVenta(base, datos).body()).get("id").asLong());
+		}
+		return datos;
+	}
+
+	private HttpResponse<String> crearVenta(String base, Datos datos) throws IOException, InterruptedException {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		StringBuilder lineas = new StringBuilder();
+		for (int i = 0; i < 3; i++) {
+			if (i > 0) {
+				lineas.append(',');
+			}
+			lineas.append("{\"id\":").append(datos.productoIds().get(random.nextInt(PRODUCTOS))).append(",\"cantidad\":1}");
+		}
+		String cuerpo = "{\"clienteId\":" + datos.clienteIds().get(random.nextInt(CLIENTES)) + ",\"productos\":[" + lineas + "]}";
+		return HTTP.send(HttpRequest.newBuilder(URI.create(base + "/api/ventas"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(cuerpo)).build(), HttpResponse.BodyHandlers.ofString());
+	}
+
+	private HttpResponse<String> consultarVenta(String base, Datos datos) throws IOException, InterruptedException {
+		Long id = datos.ventaIds().get(ThreadLocalRandom.current().nextInt(datos.ventaIds().size()));
+		return HTTP.send(HttpRequest.newBuilder(URI.create(base + "/api/ventas/" + id)).GET().build(),
+				HttpResponse.BodyHandlers.ofString());
+	}
+
+	private interface Peticion {
+		HttpResponse<String> enviar() throws Exception;
+	}
+
+	private record Resultado(long cantidad, long errores, double porSegundo, double p50, double p99) {
+		String fila(String modo, String endpoint) {
+			return String.format("%-12s %-22s %12.0f %10.2f %10.2f %8d", modo, endpoint, porSegundo, p50, p99, errores);
+		}
+	}
+
+	// Cada cliente simulado envia peticiones sin pausa; solo se cuentan las del periodo de medicion
+	private Resultado medir(Peticion peticion) throws Exception {
+		long inicioMedicion = System.nanoTime() + Duration.ofSeconds(CALENTAMIENTO).toNanos();
+		long fin = inicioMedicion + Duration.ofSeconds(SEGUNDOS).toNanos();
+		List<Future<long[]>> tareas = new ArrayList<>();
+		try (ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < CONCURRENCIA; i++) {
+				tareas.add(clientes.submit(() -> {
+					long[] latencias = new long[1024];
+					int cantidad = 0;
+					long errores = 0;
+					while (System.nanoTime() < fin) {
+						long inicio = System.nanoTime();
+						boolean ok;
+						try {
+							ok = peticion.enviar().statusCode() / 100 == 2;
+						} catch (Exception e) {
+							ok = false;
+						}
+						long duracion = System.nanoTime() - inicio;
+						if (inicio < inicioMedicion) {
+							continue;
+						}
+						if (!ok) {
+							errores++;
+						}
+						if (cantidad == latencias.length) {
+							latencias = Arrays.copyOf(latencias, cantidad * 2);
+						}
+						latencias[cantidad++] = duracion;
+					}
+					// El ultimo elemento lleva la cantidad de errores
+					long[] resultado = Arrays.copyOf(latencias, cantidad + 1);
+					resultado[cantidad] = errores;
+					return resultado;
+				}));
+			}
+		}
+
+		long errores = 0;
+		List<long[]> porCliente = new ArrayList<>();
+		int total = 0;
+		for (Future<long[]> tarea : tareas) {
+			long[] resultado = tarea.get();
+			errores += resultado[resultado.length - 1];
+			porCliente.add(resultado);
+			total += resultado.length - 1;
+		}
+		long[] latencias = new long[total];
+		int posicion = 0;
+		for (long[] resultado : porCliente) {
+			System.arraycopy(resultado, 0, latencias, posicion, resultado.length - 1);
+			posicion += resultado.length - 1;
+		}
+		Arrays.sort(latencias);
+		return new Resultado(total, errores, total / (double) SEGUNDOS,
+				percentil(latencias, 0.50), percentil(latencias, 0.99));
+	}
+
+	private double percentil(long[] ordenadas, double percentil) {
+		if (ordenadas.length == 0) {
+			return 0;
+		}
+		int indice = (int) Math.ceil(percentil * ordenadas.length) - 1;
+		return ordenadas[Math.max(0, indice)] / 1e6;
+	}
+}
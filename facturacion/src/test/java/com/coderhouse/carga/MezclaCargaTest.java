@@ -0,0 +1,203 @@
+package com.coderhouse.carga;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.coderhouse.FacturacionApplication;
+import com.coderhouse.models.Cliente;
+import com.coderhouse.models.Producto;
+import com.coderhouse.repositories.ClienteRepository;
+import com.coderhouse.repositories.ProductoRepository;
+import com.coderhouse.services.VentaService;
+
+// Trafico mixto contra la API a una tasa fija, con la aplicacion levantada sobre H2 y datos de prueba.
+// No corre con el build normal:
+//   mvn -Pcarga test -Dtest=MezclaCargaTest -Dcarga.tasa=500 -Dcarga.mezcla=producto=70,crear-venta=20,venta=10 -Dcarga.etiqueta=v2
+// Deja en target/carga la tabla mezcla-<etiqueta>.txt, pensada para compararla con diff entre versiones,
+// y la distribucion completa de cada operacion en mezcla-<etiqueta>-<operacion>.hgrm
+@Tag("carga")
+class MezclaCargaTest {
+
+	private static final int TASA = Integer.getInteger("carga.tasa", 300);
+	private static final int SEGUNDOS = Integer.getInteger("carga.segundos", 30);
+	private static final int CALENTAMIENTO = Integer.getInteger("carga.calentamiento", 10);
+	private static final String MEZCLA = System.getProperty("carga.mezcla", "producto=70,crear-venta=20,venta=10");
+	private static final String ETIQUETA = System.getProperty("carga.etiqueta", "actual");
+	private static final double ERRORES_MAXIMOS = Double.parseDouble(System.getProperty("carga.errores-maximos", "0.01"));
+	private static final Duration ATRASO_MAXIMO = Duration.ofMillis(Long.getLong("carga.atraso-maximo-ms", 1_000));
+
+	private static final int CLIENTES = Integer.getInteger("carga.clientes", 1_000);
+	private static final int PRODUCTOS = Integer.getInteger("carga.productos", 5_000);
+	private static final int VENTAS = Integer.getInteger("carga.ventas", 5_000);
+	private static final int LINEAS_POR_VENTA = 3;
+
+	private static final HttpClient HTTP = HttpClient.newBuilder()
+			.executor(Executors.newVirtualThreadPerTaskExecutor())
+			.connectTimeout(Duration.ofSeconds(5))
+			.build();
+
+	private record Datos(List<Long> clienteIds, List<Long> productoIds, List<Long> ventaIds) {
+	}
+
+	@Test
+	void mezclaDeOperacionesATasaFija() throws Exception {
+		try (ConfigurableApplicationContext contexto = iniciar()) {
+			String base = "http://localhost:" + ((WebServerApplicationContext) contexto).getWebServer().getPort();
+			Datos datos = cargarDatos(contexto);
+
+			GeneradorCarga generador = new GeneradorCarga();
+			for (Map.Entry<String, Integer> entry : mezcla().entrySet()) {
+				generador.agregar(entry.getKey(), entry.getValue(), peticion(entry.getKey(), base, datos));
+			}
+			GeneradorCarga.Resultado resultado = generador.ejecutar(TASA, Duration.ofSeconds(CALENTAMIENTO),
+					Duration.ofSeconds(SEGUNDOS));
+
+			String reporte = String.format("Etiqueta %s%nTasa objetivo %d pet/s, %d s de medicion, mezcla %s%n"
+					+ "Datos: %d clientes, %d productos, %d ventas%nAtraso maximo del generador: %.2f ms%n%n%s",
+					ETIQUETA, TASA, SEGUNDOS, MEZCLA, CLIENTES, PRODUCTOS, VENTAS, resultado.atrasoMaximo / 1e6,
+					resultado.tabla());
+
+			Path carpeta = Path.of("target", "carga");
+			Files.createDirectories(carpeta);
+			Files.writeString(carpeta.resolve("mezcla-" + ETIQUETA + ".txt"), reporte);
+			for (GeneradorCarga.Operacion operacion : resultado.operaciones) {
+				Files.writeString(carpeta.resolve("mezcla-" + ETIQUETA + "-" + operacion.nombre + ".hgrm"),
+						resultado.distribucion(operacion.latencias));
+			}
+
+			long cantidad = resultado.total.getTotalCount();
+			assertTrue(cantidad > 0, "No se completo ninguna peticion");
+			assertTrue(resultado.errores() <= cantidad * ERRORES_MAXIMOS,
+					"Demasiados errores: " + resultado.errores() + " de " + cantidad);
+			// Si el generador se atrasa no sostuvo la tasa objetivo y las latencias no son comparables entre corridas
+			assertTrue(resultado.atrasoMaximo <= ATRASO_MAXIMO.toNanos(), reporte);
+		}
+	}
+
+	// Formato "operacion=peso,operacion=peso"
+	private Map<String, Integer> mezcla() {
+		Map<String, Integer> pesos = new LinkedHashMap<>();
+		for (String parte : MEZCLA.split(",")) {
+			String[] clavePeso = parte.trim().split("=");
+			if (clavePeso.length != 2) {
+				throw new IllegalArgumentException("Mezcla no valida: " + MEZCLA);
+			}
+			pesos.put(clavePeso[0].trim(), Integer.parseInt(clavePeso[1].trim()));
+		}
+		return pesos;
+	}
+
+	private GeneradorCarga.Peticion peticion(String operacion, String base, Datos datos) {
+		return switch (operacion) {
+			case "producto" -> () -> get(base + "/api/productos/" + alAzar(datos.productoIds()));
+			case "productos" -> () -> get(base + "/api/productos");
+			case "venta" -> () -> get(base + "/api/ventas/" + alAzar(datos.ventaIds()));
+			case "ventas" -> () -> get(base + "/api/ventas?limit=50&clienteId=" + alAzar(datos.clienteIds()));
+			case "cliente" -> () -> get(base + "/api/clientes/" + alAzar(datos.clienteIds()));
+			case "clientes" -> () -> get(base + "/api/clientes?apellido=Apellido" + ThreadLocalRandom.current().nextInt(10));
+			case "crear-venta" -> () -> crearVenta(base, datos);
+			default -> throw new IllegalArgumentException("Operacion desconocida: " + operacion
+					+ " (producto, productos, venta, ventas, cliente, clientes, crear-venta)");
+		};
+	}
+
+	private ConfigurableApplicationContext iniciar() {
+		return new SpringApplicationBuilder(FacturacionApplication.class)
+				.properties(
+						"server.port=0",
+						"spring.datasource.url=jdbc:h2:mem:carga-mezcla;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+						"spring.jpa.properties.hibernate.generate_statistics=false",
+						"facturacion.fecha.sincronizacion.habilitada=false",
+						"facturacion.outbox.archivo.habilitado=false",
+						"logging.level.root=WARN")
+				.run();
+	}
+
+	private Datos cargarDatos(ConfigurableApplicationContext contexto) {
+		List<Cliente> clientes = new ArrayList<>();
+		for (int i = 0; i < CLIENTES; i++) {
+			Cliente cliente = new Cliente();
+			cliente.setNombre("Nombre" + i);
+			cliente.setApellido("Apellido" + (i % 10));
+			cliente.setEmail("mezcla" + i + "@test.com");
+			clientes.add(cliente);
+		}
+		List<Long> clienteIds = new ArrayList<>();
+		contexto.getBean(ClienteRepository.class).saveAll(clientes).forEach(c -> clienteIds.add(c.getId()));
+
+		List<Producto> productos = new ArrayList<>();
+		for (int i = 0; i < PRODUCTOS; i++) {
+			Producto producto = new Producto();
+			producto.setNombre("Producto " + i);
+			producto.setPrecio(100 + i % 900);
+			producto.setStock(1_000_000_000);
+			productos.add(producto);
+		}
+		List<Long> productoIds = new ArrayList<>();
+		contexto.getBean(ProductoRepository.class).saveAll(productos).forEach(p -> productoIds.add(p.getId()));
+
+		// Ventas existentes para las lecturas, creadas por el servicio para no medir la carga inicial
+		VentaService ventaService = contexto.getBean(VentaService.class);
+		List<Long> ventaIds = new ArrayList<>();
+		List<Integer> cantidades = Collections.nCopies(LINEAS_POR_VENTA, 1);
+		for (int i = 0; i < VENTAS; i++) {
+			ventaIds.add(ventaService.newVenta(clienteIds.get(i % CLIENTES), productosAlAzar(productoIds), cantidades).getId());
+		}
+		return new Datos(clienteIds, productoIds, ventaIds);
+	}
+
+	private int crearVenta(String base, Datos datos) throws Exception {
+		StringBuilder lineas = new StringBuilder();
+		for (Long productoId : productosAlAzar(datos.productoIds())) {
+			if (lineas.length() > 0) {
+				lineas.append(',');
+			}
+			lineas.append("{\"id\":").append(productoId).append(",\"cantidad\":1}");
+		}
+		String cuerpo = "{\"clienteId\":" + alAzar(datos.clienteIds()) + ",\"productos\":[" + lineas + "]}";
+		return HTTP.send(HttpRequest.newBuilder(URI.create(base + "/api/ventas"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(cuerpo)).build(), HttpResponse.BodyHandlers.discarding())
+				.statusCode();
+	}
+
+	private int get(String url) throws Exception {
+		return HTTP.send(HttpRequest.newBuilder(URI.create(url)).GET().build(), HttpResponse.BodyHandlers.discarding())
+				.statusCode();
+	}
+
+	private List<Long> productosAlAzar(List<Long> productoIds) {
+		List<Long> elegidos = new ArrayList<>(LINEAS_POR_VENTA);
+		while (elegidos.size() < LINEAS_POR_VENTA) {
+			Long productoId = alAzar(productoIds);
+			if (!elegidos.contains(productoId)) {
+				elegidos.add(productoId);
+			}
+		}
+		return elegidos;
+	}
+
+	private Long alAzar(List<Long> ids) {
+		return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+	}
+}
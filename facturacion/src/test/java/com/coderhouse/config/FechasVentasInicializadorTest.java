@@ -0,0 +1,61 @@
+package com.coderhouse.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.coderhouse.DatosPrueba;
+import com.coderhouse.dtos.EstadoCuentaDTO;
+import com.coderhouse.dtos.VentaDTO;
+import com.coderhouse.services.VentaService;
+
+@SpringBootTest
+class FechasVentasInicializadorTest {
+
+	@Autowired
+	private DatosPrueba datos;
+	@Autowired
+	private VentaService ventaService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private FechasVentasInicializador inicializador;
+
+	@Test
+	void lasVentasSinFechaHoraAparecenEnElEstadoDeCuenta() {
+		Long clienteId = datos.nuevoCliente("fechas-legado@test.com");
+		Long productoId = datos.nuevoProducto(10);
+		// Ventas guardadas antes de fecha_hora: solo tienen el texto, en alguno de los formatos que se usaron
+		Long legado = ventaLegado(clienteId, productoId, "2024-03-05 09:30:00");
+		Long otroFormato = ventaLegado(clienteId, productoId, "03/06/2024 18:45");
+		Long ilegible = ventaLegado(clienteId, productoId, "ayer");
+
+		inicializador.completar();
+
+		assertEquals(LocalDateTime.of(2024, 3, 5, 9, 30), fechaHora(legado));
+		assertEquals(LocalDateTime.of(2024, 3, 6, 18, 45), fechaHora(otroFormato));
+		assertNull(fechaHora(ilegible));
+		EstadoCuentaDTO cuenta = ventaService.getEstadoCuenta(clienteId, LocalDate.of(2024, 3, 1),
+				LocalDate.of(2024, 3, 31), null, 10);
+		assertEquals(2, cuenta.getResumen().getCantidadVentas());
+		assertEquals(List.of(otroFormato, legado), cuenta.getVentas().stream().map(VentaDTO::getId).toList());
+	}
+
+	private Long ventaLegado(Long clienteId, Long productoId, String fecha) {
+		Long ventaId = ventaService.newVenta(clienteId, List.of(productoId), List.of(1)).getId();
+		jdbcTemplate.update("UPDATE ventas SET fecha = ?, fecha_hora = NULL WHERE id = ?", fecha, ventaId);
+		return ventaId;
+	}
+
+	private LocalDateTime fechaHora(Long ventaId) {
+		return jdbcTemplate.queryForObject("SELECT fecha_hora FROM ventas WHERE id = ?", LocalDateTime.class, ventaId);
+	}
+}
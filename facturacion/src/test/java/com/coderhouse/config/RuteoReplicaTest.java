@@ -0,0 +1,197 @@
+package com.coderhouse.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.coderhouse.DatosPrueba;
+import com.coderhouse.dtos.VentaDTO;
+import com.coderhouse.models.Producto;
+import com.coderhouse.services.ProductoService;
+import com.coderhouse.services.VentaService;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.Cookie;
+
+// Primario y replica como dos bases H2 en memoria. La replicacion se simula copiando el primario entero
+@SpringBootTest(properties = {
+		"facturacion.replica.habilitada=true",
+		"facturacion.replica.tolerancia=2s",
+		"facturacion.replica.latido-ms=3600000",
+		"spring.datasource.url=" + RuteoReplicaTest.URL_PRIMARIO,
+		"facturacion.replica.datasource.jdbc-url=" + RuteoReplicaTest.URL_REPLICA,
+		"facturacion.replica.datasource.username=sa" })
+class RuteoReplicaTest {
+
+	static final String URL_PRIMARIO = "jdbc:h2:mem:facturacion-primario;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+	static final String URL_REPLICA = "jdbc:h2:mem:facturacion-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private DatosPrueba datos;
+	@Autowired
+	private VentaService ventaService;
+	@Autowired
+	private ProductoService productoService;
+	@Autowired
+	private ReplicaMonitor monitor;
+	@Autowired
+	@Qualifier("primarioDataSource")
+	private DataSource primario;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void leeDeLaReplicaSiEstaAlDia() throws Exception {
+		Long clienteId = datos.nuevoCliente("replica-al-dia@test.com");
+		ventaService.newVenta(clienteId, List.of(datos.nuevoProducto(10)), List.of(1));
+		replicar();
+		enReplica("UPDATE clientes SET nombre = 'En la replica' WHERE id = " + clienteId);
+
+		assertTrue(monitor.disponible());
+		assertEquals("En la replica", primeraVenta(clienteId).getClienteNombre());
+	}
+
+	@Test
+	void vuelveAlPrimarioSiLaReplicaSeAtrasa() throws Exception {
+		Long clienteId = datos.nuevoCliente("replica-atrasada@test.com");
+		ventaService.newVenta(clienteId, List.of(datos.nuevoProducto(10)), List.of(1));
+		replicar();
+		enReplica("UPDATE clientes SET nombre = 'En la replica' WHERE id = " + clienteId);
+
+		// La replica deja de recibir latidos y su retraso supera la tolerancia
+		Thread.sleep(2_500);
+		monitor.latido();
+
+		assertFalse(monitor.disponible());
+		assertEquals("Valeria", primeraVenta(clienteId).getClienteNombre());
+	}
+
+	@Test
+	void laSesionLeeSuPropiaVentaHastaQueLlegaALaReplica() throws Exception {
+		Long clienteId = datos.nuevoCliente("replica-propia@test.com");
+		Long productoId = datos.nuevoProducto(10);
+		replicar();
+
+		MockHttpServletResponse respuesta = new MockHttpServletResponse();
+		enPeticion(null, respuesta, () -> ventaService.newVenta(clienteId, List.of(productoId), List.of(1)));
+		Cookie escritura = respuesta.getCookie(RuteoDataSource.COOKIE_ESCRITURA);
+		assertNotNull(escritura);
+
+		// La replica esta al dia en retraso pero todavia no tiene la venta
+		assertTrue(monitor.disponible());
+		assertEquals(1, ventas(escritura, clienteId).size());
+		assertEquals(0, ventas(null, clienteId).size());
+
+		replicar();
+		enReplica("UPDATE clientes SET nombre = 'En la replica' WHERE id = " + clienteId);
+		assertEquals("En la replica", ventas(escritura, clienteId).get(0).getClienteNombre());
+	}
+
+	@Test
+	void elListadoDeProductosEnCacheSeLeeDelPrimario() throws Exception {
+		Producto nuevo = new Producto();
+		nuevo.setNombre("Remera");
+		nuevo.setPrecio(100);
+		nuevo.setStock(10);
+		Long productoId = productoService.newProducto(nuevo).getId();
+		replicar();
+		enReplica("UPDATE productos SET nombre = 'En la replica' WHERE id = " + productoId);
+
+		// El listado queda en memoria para todas las sesiones: aunque la replica este al dia no se carga desde ella
+		assertTrue(monitor.disponible());
+		assertEquals("Remera", productoService.getAllProductos().stream()
+				.filter(p -> p.getId().equals(productoId))
+				.findFirst().orElseThrow().getNombre());
+	}
+
+	@Test
+	void laSesionDeLaPeticionVuelveAGuardarEnCacheDespuesDeLeerDeLaReplica() throws Exception {
+		Long clienteId = datos.nuevoCliente("replica-modo-cache@test.com");
+		ventaService.newVenta(clienteId, List.of(datos.nuevoProducto(10)), List.of(1));
+		replicar();
+
+		// Como open-in-view: la misma sesion atraviesa la lectura de la replica y lo que sigue en la peticion
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+		try {
+			primeraVenta(clienteId);
+			assertEquals(CacheMode.NORMAL, entityManager.unwrap(Session.class).getCacheMode());
+		} finally {
+			TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+			entityManager.close();
+		}
+	}
+
+	private VentaDTO primeraVenta(Long clienteId) {
+		return ventaService.getAllVentas(null, 10, clienteId).getVentas().get(0);
+	}
+
+	private List<VentaDTO> ventas(Cookie escritura, Long clienteId) {
+		return enPeticion(escritura, new MockHttpServletResponse(),
+				() -> ventaService.getAllVentas(null, 10, clienteId).getVentas());
+	}
+
+	private <T> T enPeticion(Cookie escritura, MockHttpServletResponse respuesta, Supplier<T> accion) {
+		MockHttpServletRequest peticion = new MockHttpServletRequest();
+		if (escritura != null) {
+			peticion.setCookies(escritura);
+		}
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(peticion, respuesta));
+		try {
+			return accion.get();
+		} finally {
+			RequestContextHolder.resetRequestAttributes();
+		}
+	}
+
+	// Copia el primario completo a la replica entre dos latidos, como lo haria la replicacion
+	private void replicar() throws Exception {
+		// El latido tiene que ser posterior (en milisegundos) a lo ya confirmado
+		Thread.sleep(5);
+		monitor.latido();
+		Path script = Files.createTempFile("replica", ".sql");
+		try {
+			try (Connection conexion = primario.getConnection(); Statement sentencia = conexion.createStatement()) {
+				sentencia.execute("SCRIPT TO '" + script.toAbsolutePath().toString().replace('\\', '/') + "'");
+			}
+			enReplica("DROP ALL OBJECTS", "RUNSCRIPT FROM '" + script.toAbsolutePath().toString().replace('\\', '/') + "'");
+		} finally {
+			Files.deleteIfExists(script);
+		}
+		monitor.latido();
+	}
+
+	private void enReplica(String... sentencias) throws Exception {
+		try (Connection conexion = DriverManager.getConnection(URL_REPLICA, "sa", "");
+				Statement sentencia = conexion.createStatement()) {
+			for (String sql : sentencias) {
+				sentencia.execute(sql);
+			}
+		}
+	}
+}
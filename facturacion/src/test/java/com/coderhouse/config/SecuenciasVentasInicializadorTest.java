@@ -0,0 +1,49 @@
+package com.coderhouse.config;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.coderhouse.DatosPrueba;
+import com.coderhouse.models.Venta;
+import com.coderhouse.services.VentaService;
+
+@SpringBootTest
+class SecuenciasVentasInicializadorTest {
+
+	@Autowired
+	private DatosPrueba datos;
+	@Autowired
+	private VentaService ventaService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private SecuenciasVentasInicializador inicializador;
+
+	@Test
+	void lasSecuenciasQuedanPorEncimaDeLosIdsExistentes() {
+		Long clienteId = datos.nuevoCliente("secuencias@test.com");
+		Long productoId = datos.nuevoProducto(10);
+		// Una venta guardada antes de pasar a secuencias, con un ID que la secuencia todavia no entrego
+		long existente = ventaService.newVenta(clienteId, List.of(productoId), List.of(1)).getId() + 10_000;
+		jdbcTemplate.update("INSERT INTO ventas (id, fecha, fecha_hora, total, cliente_id) VALUES (?, '2025/01/17', ?, 100, ?)",
+				existente, LocalDateTime.now(), clienteId);
+		jdbcTemplate.update("INSERT INTO venta_producto (id, venta_id, producto_id, cantidad, precio_unitario) "
+				+ "VALUES (?, ?, ?, 1, 100)", existente, existente, productoId);
+
+		inicializador.alinear();
+		inicializador.alinear();
+
+		// El primer ID del proximo bloque de cada secuencia es posterior al existente
+		for (String secuencia : List.of("ventas_seq", "venta_producto_seq")) {
+			long siguiente = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + secuencia, Long.class);
+			assertTrue(siguiente - Venta.ASIGNACION_IDS + 1 > existente, secuencia + ": " + siguiente);
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package com.coderhouse.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.coderhouse.models.Producto;
+import com.coderhouse.repositories.ProductoRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class FormatosRespuestaTest {
+
+	private static final String CBOR = "application/cbor";
+	private static final String SMILE = "application/x-jackson-smile";
+
+	private static final HttpClient HTTP = HttpClient.newHttpClient();
+
+	@LocalServerPort
+	private int puerto;
+
+	@Autowired
+	private ProductoRepository productoRepository;
+
+	@BeforeEach
+	void cargarProductos() {
+		// Suficientes productos para que la lista supere el minimo de compresion (2KB)
+		List<Producto> productos = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			Producto producto = new Producto();
+			producto.setNombre("Producto formato " + i);
+			producto.setPrecio(100 + i);
+			producto.setStock(10);
+			productos.add(producto);
+		}
+		productoRepository.saveAll(productos);
+	}
+
+	@Test
+	void jsonSigueSiendoElFormatoPorDefecto() throws Exception {
+		HttpResponse<byte[]> respuesta = pedir("/api/productos", "*/*", null);
+
+		assertEquals(200, respuesta.statusCode());
+		assertTrue(tipo(respuesta).startsWith("application/json"));
+	}
+
+	@Test
+	void cborYSmileDevuelvenLoMismoQueJsonEnMenosBytes() throws Exception {
+		HttpResponse<byte[]> json = pedir("/api/productos", "application/json", null);
+		HttpResponse<byte[]> cbor = pedir("/api/productos", CBOR, null);
+		HttpResponse<byte[]> smile = pedir("/api/productos", SMILE, null);
+
+		assertTrue(tipo(cbor).startsWith(CBOR));
+		assertTrue(tipo(smile).startsWith(SMILE));
+
+		JsonNode esperado = new ObjectMapper().readTree(json.body());
+		assertEquals(esperado, new CBORMapper().readTree(cbor.body()));
+		assertEquals(esperado, new SmileMapper().readTree(smile.body()));
+		assertTrue(cbor.body().length < json.body().length);
+		assertTrue(smile.body().length < json.body().length);
+	}
+
+	@Test
+	void paginaDeVentasEnCbor() throws Exception {
+		HttpResponse<byte[]> respuesta = pedir("/api/ventas?limit=10", CBOR, null);
+
+		assertEquals(200, respuesta.statusCode());
+		assertTrue(tipo(respuesta).startsWith(CBOR));
+		assertTrue(new CBORMapper().readTree(respuesta.body()).has("ventas"));
+	}
+
+	@Test
+	void comprimeSoloLasRespuestasGrandes() throws Exception {
+		HttpResponse<byte[]> plana = pedir("/api/productos", "application/json", null);
+		HttpResponse<byte[]> comprimida = pedir("/api/productos", "application/json", "gzip");
+
+		assertEquals("gzip", comprimida.headers().firstValue("Content-Encoding").orElse(null));
+		// Pasado el minimo el cuerpo no se junta entero en memoria: sale sin largo
+		assertTrue(plana.headers().firstValue("Content-Length").isEmpty());
+		assertTrue(comprimida.body().length < plana.body().length);
+		try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(comprimida.body()))) {
+			assertEquals(new ObjectMapper().readTree(plana.body()), new ObjectMapper().readTree(gzip.readAllBytes()));
+		}
+
+		// Un producto solo queda por debajo del minimo y viaja sin comprimir
+		Long id = productoRepository.findAll().get(0).getId();
+		HttpResponse<byte[]> chica = pedir("/api/productos/" + id, "application/json", "gzip");
+		assertEquals(200, chica.statusCode());
+		assertTrue(chica.headers().firstValue("Content-Encoding").isEmpty());
+		assertEquals(chica.body().length, Integer.parseInt(chica.headers().firstValue("Content-Length").orElseThrow()));
+	}
+
+	private HttpResponse<byte[]> pedir(String ruta, String accept, String encoding) throws Exception {
+		HttpRequest.Builder pedido = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + ruta))
+				.header("Accept", accept)
+				.GET();
+		if (encoding != null) {
+			pedido.header("Accept-Encoding", encoding);
+		}
+		return HTTP.send(pedido.build(), HttpResponse.BodyHandlers.ofByteArray());
+	}
+
+	private String tipo(HttpResponse<byte[]> respuesta) {
+		return respuesta.headers().firstValue("Content-Type").orElse("");
+	}
+}
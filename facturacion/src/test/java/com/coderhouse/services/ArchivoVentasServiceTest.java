@@ -0,0 +1,201 @@
+package com.coderhouse.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.coderhouse.DatosPrueba;
+import com.coderhouse.dtos.EstadoCuentaDTO;
+import com.coderhouse.dtos.VentaDTO;
+import com.coderhouse.dtos.VentaPaginaDTO;
+import com.coderhouse.exceptions.ConflictoException;
+
+// Las ventas a archivar se llevan a 1990. Con una antiguedad de unos 27 años el horizonte queda antes de las
+// fechas que usan las otras pruebas, y los bloques de 2 ventas prueban el corte en varias transacciones
+@SpringBootTest(properties = {
+		"facturacion.ventas.archivo.antiguedad=10000d",
+		"facturacion.ventas.archivo.tamanio-bloque=2" })
+@AutoConfigureMockMvc
+class ArchivoVentasServiceTest {
+
+	private static final LocalDateTime ANTIGUA = LocalDateTime.of(1990, 3, 1, 10, 0);
+	private static final LocalDateTime LIMITE = LocalDateTime.of(1991, 1, 1, 0, 0);
+
+	@Autowired
+	private DatosPrueba datos;
+	@Autowired
+	private ArchivoVentasService archivoVentasService;
+	@Autowired
+	private VentaService ventaService;
+	@Autowired
+	private ClienteService clienteService;
+	@Autowired
+	private EliminacionVentasService eliminacionVentasService;
+	@Autowired
+	private VentaExportService ventaExportService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void lasVentasArchivadasSeSiguenLeyendo() throws Exception {
+		Long clienteId = datos.nuevoCliente("archivo-lectura@test.com");
+		Long productoId = datos.nuevoProducto(1000);
+		List<Long> viejas = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			viejas.add(nuevaVenta(clienteId, productoId, ANTIGUA.plusDays(i)));
+		}
+		Long reciente = ventaService.newVenta(clienteId, List.of(productoId), List.of(1)).getId();
+
+		assertEquals(3, archivoVentasService.archivar(LIMITE));
+		assertEquals(1, contar("SELECT COUNT(*) FROM ventas WHERE cliente_id = ?", clienteId));
+		assertEquals(3, contar("SELECT COUNT(*) FROM ventas_archivo WHERE cliente_id = ?", clienteId));
+		assertEquals(3, contar("SELECT COUNT(*) FROM venta_producto_archivo vp JOIN ventas_archivo v ON v.id = vp.venta_id "
+				+ "WHERE v.cliente_id = ?", clienteId));
+
+		// Por ID
+		VentaDTO archivada = ventaService.getVentaById(viejas.get(0));
+		assertEquals(clienteId, archivada.getClienteId());
+		assertEquals(1, archivada.getProductos().size());
+		assertEquals(100, archivada.getTotal());
+
+		// Listado por id, pasando del archivo a la tabla activa entre paginas
+		List<Long> listadas = new ArrayList<>();
+		Long cursor = null;
+		do {
+			VentaPaginaDTO pagina = ventaService.getAllVentas(cursor, 2, clienteId);
+			pagina.getVentas().forEach(v -> {
+				assertEquals(1, v.getProductos().size());
+				listadas.add(v.getId());
+			});
+			cursor = pagina.getSiguienteCursor();
+		} while (cursor != null);
+		assertEquals(List.of(viejas.get(0), viejas.get(1), viejas.get(2), reciente), listadas);
+
+		// Estado de cuenta: resumen de las dos tablas y paginas de la mas reciente a la mas antigua
+		EstadoCuentaDTO cuenta = ventaService.getEstadoCuenta(clienteId, null, null, null, 2);
+		assertEquals(4, cuenta.getResumen().getCantidadVentas());
+		assertEquals(400, cuenta.getResumen().getTotalGastado());
+		List<Long> enCuenta = new ArrayList<>();
+		cuenta.getVentas().forEach(v -> enCuenta.add(v.getId()));
+		cuenta = ventaService.getEstadoCuenta(clienteId, null, null, cuenta.getSiguienteCursor(), 2);
+		cuenta.getVentas().forEach(v -> enCuenta.add(v.getId()));
+		assertNull(cuenta.getSiguienteCursor());
+		assertEquals(List.of(reciente, viejas.get(2), viejas.get(1), viejas.get(0)), enCuenta);
+
+		// Un rango posterior al horizonte no necesita el archivo
+		EstadoCuentaDTO ultimoMes = ventaService.getEstadoCuenta(clienteId, LocalDate.now().minusDays(30), null, null, 10);
+		assertEquals(1, ultimoMes.getResumen().getCantidadVentas());
+		assertEquals(List.of(reciente), ultimoMes.getVentas().stream().map(VentaDTO::getId).toList());
+
+		ByteArrayOutputStream salida = new ByteArrayOutputStream();
+		ventaExportService.exportar(VentaExportService.NDJSON, salida);
+		String exportado = salida.toString(StandardCharsets.UTF_8);
+		assertTrue(exportado.contains("\"id\":" + viejas.get(0) + ","));
+		assertTrue(exportado.contains("\"id\":" + reciente + ","));
+	}
+
+	@Test
+	void laExportacionNoPierdeUnaVentaArchivadaMientrasExporta() throws Exception {
+		Long clienteId = datos.nuevoCliente("archivo-exportacion@test.com");
+		Long productoId = datos.nuevoProducto(1000);
+		// Suficientes ventas archivadas para que la exportacion escriba mientras todavia recorre el archivo
+		for (int i = 0; i < 100; i++) {
+			nuevaVenta(clienteId, productoId, ANTIGUA);
+		}
+		archivoVentasService.archivar(LIMITE);
+		Long movida = nuevaVenta(clienteId, productoId, ANTIGUA);
+
+		// La venta pasa al archivo despues de leerlo y antes de leer la tabla activa
+		ByteArrayOutputStream salida = new ByteArrayOutputStream() {
+			boolean archivada;
+
+			@Override
+			public synchronized void write(byte[] b, int off, int len) {
+				if (!archivada) {
+					archivada = true;
+					CompletableFuture.runAsync(() -> archivoVentasService.archivar(LIMITE)).join();
+				}
+				super.write(b, off, len);
+			}
+		};
+		ventaExportService.exportar(VentaExportService.NDJSON, salida);
+
+		assertEquals(1, contar("SELECT COUNT(*) FROM ventas_archivo WHERE id = ?", movida));
+		assertEquals(1, salida.toString(StandardCharsets.UTF_8).lines()
+				.filter(linea -> linea.startsWith("{\"id\":" + movida + ","))
+				.count());
+	}
+
+	@Test
+	void lasVentasArchivadasNoSeModificanNiSeEliminan() throws Exception {
+		Long clienteId = datos.nuevoCliente("archivo-escritura@test.com");
+		Long productoId = datos.nuevoProducto(1000);
+		Long ventaId = nuevaVenta(clienteId, productoId, ANTIGUA);
+		archivoVentasService.archivar(LIMITE);
+
+		VentaDTO cambios = ventaService.getVentaById(ventaId);
+		assertThrows(ConflictoException.class, () -> ventaService.updateVentaById(ventaId, cambios));
+		assertThrows(ConflictoException.class, () -> ventaService.deleteVentaById(ventaId));
+		assertThrows(ConflictoException.class, () -> clienteService.deleteClienteById(clienteId));
+
+		mockMvc.perform(delete("/api/ventas/" + ventaId)).andExpect(status().isConflict());
+		mockMvc.perform(delete("/api/clientes/" + clienteId)).andExpect(status().isConflict());
+		mockMvc.perform(delete("/api/ventas/" + Long.MAX_VALUE)).andExpect(status().isNotFound());
+	}
+
+	@Test
+	void laEliminacionVuelveAComprobarElArchivoConElClienteBloqueado() {
+		Long clienteId = datos.nuevoCliente("archivo-eliminacion@test.com");
+		Long productoId = datos.nuevoProducto(1000);
+		nuevaVenta(clienteId, productoId, ANTIGUA);
+		Long reciente = ventaService.newVenta(clienteId, List.of(productoId), List.of(1)).getId();
+		archivoVentasService.archivar(LIMITE);
+
+		// Como si el archivo hubiera corrido despues de la comprobacion de ClienteService
+		assertThrows(ConflictoException.class, () -> eliminacionVentasService.eliminarCliente(clienteId));
+		assertEquals(1, contar("SELECT COUNT(*) FROM clientes WHERE id = ?", clienteId));
+		assertEquals(1, contar("SELECT COUNT(*) FROM ventas WHERE id = ?", reciente));
+		assertFalse(eliminacionVentasService.enEliminacion(clienteId));
+	}
+
+	@Test
+	void noArchivaVentasPosterioresAlHorizonte() {
+		Long clienteId = datos.nuevoCliente("archivo-horizonte@test.com");
+		Long ventaId = ventaService.newVenta(clienteId, List.of(datos.nuevoProducto(1000)), List.of(1)).getId();
+
+		// Un limite posterior se recorta al horizonte configurado
+		archivoVentasService.archivar(LocalDateTime.now().plusDays(1));
+		assertEquals(1, contar("SELECT COUNT(*) FROM ventas WHERE id = ?", ventaId));
+	}
+
+	private Long nuevaVenta(Long clienteId, Long productoId, LocalDateTime fechaHora) {
+		Long ventaId = ventaService.newVenta(clienteId, List.of(productoId), List.of(1)).getId();
+		jdbcTemplate.update("UPDATE ventas SET fecha_hora = ? WHERE id = ?", fechaHora, ventaId);
+		return ventaId;
+	}
+
+	private long contar(String sql, Object... parametros) {
+		return jdbcTemplate.queryForObject(sql, Long.class, parametros);
+	}
+}
@@ -0,0 +1,151 @@
+package com.coderhouse.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.coderhouse.DatosPrueba;
+import com.coderhouse.config.ContadorSentencias;
+import com.coderhouse.models.Cliente;
+import com.coderhouse.models.Producto;
+import com.coderhouse.repositories.ClienteRepository;
+import com.coderhouse.repositories.ProductoRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+
+@SpringBootTest
+class CacheSegundoNivelTest {
+
+	@Autowired
+	private DatosPrueba datos;
+	@Autowired
+	private VentaService ventaService;
+	@Autowired
+	private ProductoService productoService;
+	@Autowired
+	private ClienteService clienteService;
+	@Autowired
+	private StockService stockService;
+	@Autowired
+	private ClienteRepository clienteRepository;
+	@Autowired
+	private ProductoRepository productoRepository;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Test
+	void clienteYProductoSeLeenDesdeLaCache() {
+		Long clienteId = datos.nuevoCliente("segundo-nivel@test.com");
+		Long productoId = datos.nuevoProducto(10);
+		entityManagerFactory.getCache().evictAll();
+
+		assertEquals(1, sentencias(() -> clienteRepository.findById(clienteId)));
+		assertEquals(0, sentencias(() -> clienteRepository.findById(clienteId)));
+		assertEquals(1, sentencias(() -> productoRepository.findById(productoId)));
+		assertEquals(0, sentencias(() -> productoRepository.findById(productoId)));
+		// Consulta por email en la region de consultas
+		assertEquals(1, sentencias(() -> clienteRepository.findByEmail("segundo-nivel@test.com")));
+		assertEquals(0, sentencias(() -> clienteRepository.findByEmail("segundo-nivel@test.com")));
+	}
+
+	@Test
+	void lasEscriturasNoDejanValoresViejosEnLaCache() {
+		Long clienteId = datos.nuevoCliente("segundo-nivel-escrituras@test.com");
+		Long productoId = datos.nuevoProducto(10);
+		productoRepository.findById(productoId);
+		clienteRepository.findByEmail("segundo-nivel-escrituras@test.com");
+
+		// Stock por JDBC: se quita solo ese producto de la cache
+		transactionTemplate.executeWithoutResult(s -> stockService.ajustar(Map.of(productoId, 3)));
+		assertEquals(7, productoRepository.findById(productoId).orElseThrow().getStock());
+
+		// Escrituras por JPA: Hibernate actualiza la cache al confirmar
+		Producto cambios = new Producto();
+		cambios.setPrecio(250);
+		productoService.updateProductoById(productoId, cambios);
+		assertEquals(250, productoRepository.findById(productoId).orElseThrow().getPrecio());
+
+		Cliente cliente = new Cliente();
+		cliente.setEmail("segundo-nivel-nuevo@test.com");
+		clienteService.updateClienteById(clienteId, cliente);
+		assertTrue(clienteRepository.findByEmail("segundo-nivel-escrituras@test.com").isEmpty());
+		assertEquals(clienteId, clienteRepository.findByEmail("segundo-nivel-nuevo@test.com").orElseThrow().getId());
+	}
+
+	@Test
+	void nuevaVentaEjecutaMenosSentenciasConLaCacheCargada() {
+		Long clienteId = datos.nuevoCliente("segundo-nivel-venta@test.com");
+		Long productoId = datos.nuevoProducto(100);
+		// La primera venta carga tambien ProductoCache, que no depende de la cache de segundo nivel
+		ventaService.newVenta(clienteId, List.of(productoId), List.of(1));
+
+		entityManagerFactory.getCache().evictAll();
+		int sinCache = sentencias(() -> ventaService.newVenta(clienteId, List.of(productoId), List.of(1)));
+		int conCache = sentencias(() -> ventaService.newVenta(clienteId, List.of(productoId), List.of(1)));
+
+		assertTrue(conCache < sinCache, "Sin cache " + sinCache + ", con cache " + conCache);
+	}
+
+	@Test
+	void unaCargaEmpezadaAntesDelCommitNoGuardaElStockViejo() throws Exception {
+		Long productoId = datos.nuevoProducto(10);
+		entityManagerFactory.getCache().evictAll();
+		EntityPersister persister = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+				.getMappingMetamodel().getEntityDescriptor(Producto.class);
+		EntityDataAccess region = persister.getCacheAccessStrategy();
+		CountDownLatch empezada = new CountDownLatch(1);
+		CountDownLatch confirmado = new CountDownLatch(1);
+
+		try (ExecutorService hilo = Executors.newSingleThreadExecutor()) {
+			// Una lectura que empezo antes del ajuste y llega a guardar en la region despues del commit
+			Future<Boolean> carga = hilo.submit(() -> transactionTemplate.execute(status -> {
+				SharedSessionContractImplementor sesion = entityManager.unwrap(SharedSessionContractImplementor.class);
+				Object clave = region.generateCacheKey(productoId, persister, sesion.getFactory(), null);
+				empezada.countDown();
+				try {
+					confirmado.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return region.putFromLoad(sesion, clave, "stock 10", null);
+			}));
+			empezada.await();
+
+			transactionTemplate.executeWithoutResult(s -> stockService.ajustar(Map.of(productoId, 3)));
+			confirmado.countDown();
+
+			assertFalse(carga.get(10, TimeUnit.SECONDS));
+		}
+		assertEquals(7, productoRepository.findById(productoId).orElseThrow().getStock());
+	}
+
+	private int sentencias(Runnable operacion) {
+		ContadorSentencias.reiniciar();
+		operacion.run();
+		return ContadorSentencias.cantidad();
+	}
+}
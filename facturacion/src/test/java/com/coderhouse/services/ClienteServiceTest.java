@@ -0,0 +1,130 @@
+package com.coderhouse.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.coderhouse.dtos.ClientePaginaDTO;
+import com.coderhouse.models.Cliente;
+import com.coderhouse.repositories.ClienteRepository;
+
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ClienteServiceTest {
+
+	private static final int CLIENTES = 5_000;
+	private static final int CRECIMIENTO = 4;
+
+	@Autowired
+	private ClienteService clienteService;
+	@Autowired
+	private ClienteRepository clienteRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeAll
+	void cargarClientes() {
+		List<Cliente> clientes = new ArrayList<>();
+		for (int i = 0; i < CLIENTES; i++) {
+			// Apellidos repetidos para que el cursor tenga que desempatar por nombre e id
+			clientes.add(cliente("Nombre" + (i % 7), "Busqueda" + (i % 50), "busqueda" + i + "@test.com"));
+		}
+		clientes.add(cliente("Ana", "Busq_100%", "comodines@test.com"));
+		clienteRepository.saveAll(clientes);
+	}
+
+	@Test
+	void recorrePorPrefijoDeApellidoSinRepetirNiSaltearClientes() {
+		List<Long> ids = new ArrayList<>();
+		String anterior = "";
+		String cursor = null;
+		do {
+			ClientePaginaDTO pagina = clienteService.buscarClientes("Busqueda1", null, null, cursor, 37);
+			for (Cliente cliente : pagina.getClientes()) {
+				String clave = cliente.getApellido() + " " + cliente.getNombre();
+				assertTrue(clave.compareTo(anterior) >= 0, "Orden por apellido y nombre");
+				anterior = clave;
+				ids.add(cliente.getId());
+			}
+			cursor = pagina.getSiguienteCursor();
+		} while (cursor != null);
+
+		// Busqueda1 y Busqueda10..19: 11 apellidos de 100 clientes cada uno
+		assertEquals(1_100, ids.size());
+		assertEquals(ids.size(), ids.stream().distinct().count());
+	}
+
+	@Test
+	void filtraPorNombreYPorEmail() {
+		ClientePaginaDTO porNombre = clienteService.buscarClientes(null, "Nombre3", null, null, 100);
+		assertTrue(porNombre.getClientes().stream().allMatch(c -> c.getNombre().equals("Nombre3")));
+
+		ClientePaginaDTO porEmail = clienteService.buscarClientes(null, null, "busqueda42@test.com", null, 20);
+		assertEquals(1, porEmail.getClientes().size());
+		assertNull(porEmail.getSiguienteCursor());
+	}
+
+	@Test
+	void losComodinesDelTextoBuscadoSeTratanComoLiterales() {
+		ClientePaginaDTO pagina = clienteService.buscarClientes("Busq_", null, null, null, 100);
+		assertEquals(1, pagina.getClientes().size());
+		assertEquals("comodines@test.com", pagina.getClientes().get(0).getEmail());
+	}
+
+	@Test
+	void cursorInvalido() {
+		assertThrows(IllegalArgumentException.class, () -> clienteService.buscarClientes("B", null, null, "no-es-un-cursor", 20));
+	}
+
+	@Test
+	void laBusquedaPorPrefijoNoCreceConLaTabla() {
+		String antes = planDePagina();
+		assertTrue(antes.contains("idx_clientes_apellido_nombre"), antes);
+
+		// Cuatro veces mas clientes, con apellidos que no coinciden con el prefijo buscado
+		List<Cliente> otros = new ArrayList<>();
+		for (int i = 0; i < CLIENTES * CRECIMIENTO; i++) {
+			otros.add(cliente("Nombre" + (i % 7), "Crecimiento" + (i % 50), "crecimiento" + i + "@test.com"));
+		}
+		clienteRepository.saveAll(otros);
+		String despues = planDePagina();
+
+		// Con el indice por apellido la pagina lee las mismas filas; sin el, las filas leidas crecerian con la tabla
+		assertEquals(filasLeidas(antes), filasLeidas(despues), despues);
+	}
+
+	// Plan ejecutado de la consulta de buscarPorApellido para la primera pagina de 20 clientes
+	private String planDePagina() {
+		return jdbcTemplate.queryForList("EXPLAIN ANALYZE SELECT * FROM clientes "
+				+ "WHERE apellido LIKE 'Busqueda1%' ESCAPE '!' AND nombre LIKE '%' ESCAPE '!' "
+				+ "AND (apellido > '' OR (apellido = '' AND (nombre > '' OR (nombre = '' AND id > 0)))) "
+				+ "ORDER BY apellido, nombre, id LIMIT 20", String.class).get(0);
+	}
+
+	private long filasLeidas(String plan) {
+		Matcher matcher = Pattern.compile("scanCount: (\\d+)").matcher(plan);
+		assertTrue(matcher.find(), plan);
+		return Long.parseLong(matcher.group(1));
+	}
+
+	private Cliente cliente(String nombre, String apellido, String email) {
+		Cliente cliente = new Cliente();
+		cliente.setNombre(nombre);
+		cliente.setApellido(apellido);
+		cliente.setEmail(email);
+		return cliente;
+	}
+}
@@ -0,0 +1,117 @@
+package com.coderhouse.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.coderhouse.DatosPrueba;
+import com.coderhouse.dtos.EliminacionClienteDTO;
+import com.coderhouse.repositories.ClienteRepository;
+import com.coderhouse.repositories.ProductoRepository;
+
+// Bloques de 7 ventas y hasta 20 ventas en la misma peticion, para probar los dos caminos con pocos datos
+@SpringBootTest(properties = {
+		"facturacion.eliminacion.tamanio-bloque=7",
+		"facturacion.eliminacion.maximo-sincronico=20" })
+class EliminacionVentasServiceTest {
+
+	private static final int STOCK_INICIAL = 1000;
+
+	@Autowired
+	private DatosPrueba datos;
+	@Autowired
+	private ClienteService clienteService;
+	@Autowired
+	private VentaService ventaService;
+	@Autowired
+	private ResumenVentasService resumenVentasService;
+	@Autowired
+	private ClienteRepository clienteRepository;
+	@Autowired
+	private ProductoRepository productoRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void eliminarVentaReponeStockYBorraLineas() {
+		Long clienteId = datos.nuevoCliente("eliminar-venta@test.com");
+		Long remera = datos.nuevoProducto(STOCK_INICIAL);
+		Long buzo = datos.nuevoProducto(STOCK_INICIAL);
+		Long ventaId = ventaService.newVenta(clienteId, List.of(remera, buzo), List.of(3, 2)).getId();
+
+		ventaService.deleteVentaById(ventaId);
+
+		assertEquals(STOCK_INICIAL, stock(remera));
+		assertEquals(STOCK_INICIAL, stock(buzo));
+		assertEquals(0, contar("SELECT COUNT(*) FROM venta_producto WHERE venta_id = ?", ventaId));
+		assertThrows(IllegalArgumentException.class, () -> ventaService.deleteVentaById(ventaId));
+	}
+
+	@Test
+	void clienteConPocasVentasSeEliminaEnLaMismaPeticion() {
+		// Otras pruebas insertan ventas directamente con el repositorio: se parte de resumenes recalculados
+		resumenVentasService.reconstruir();
+		Long clienteId = datos.nuevoCliente("eliminar-sincronico@test.com");
+		List<Long> productos = List.of(datos.nuevoProducto(STOCK_INICIAL), datos.nuevoProducto(STOCK_INICIAL));
+		crearVentas(clienteId, productos, 15);
+
+		EliminacionClienteDTO eliminacion = clienteService.deleteClienteById(clienteId);
+
+		assertEquals(EliminacionClienteDTO.TERMINADA, eliminacion.getEstado());
+		assertEquals(15, eliminacion.getVentasEliminadas());
+		// El resultado del camino sincronico tambien queda para consultarlo, como el de un trabajo en segundo plano
+		assertEquals(15, clienteService.getEliminacionCliente(clienteId).getVentasEliminadas());
+		verificarEliminado(clienteId, productos);
+		// Los resumenes descontados por conjuntos coinciden con recalcularlos desde las ventas
+		assertEquals(0, resumenVentasService.reconstruir().getDiferencias());
+	}
+
+	@Test
+	void clienteConMuchasVentasSeEliminaEnSegundoPlano() throws Exception {
+		Long clienteId = datos.nuevoCliente("eliminar-segundo-plano@test.com");
+		List<Long> productos = List.of(datos.nuevoProducto(STOCK_INICIAL), datos.nuevoProducto(STOCK_INICIAL));
+		crearVentas(clienteId, productos, 30);
+
+		EliminacionClienteDTO eliminacion = clienteService.deleteClienteById(clienteId);
+		assertEquals(EliminacionClienteDTO.EN_CURSO, eliminacion.getEstado());
+		assertEquals(30, eliminacion.getVentasTotales());
+
+		long limite = System.currentTimeMillis() + 30_000;
+		while (EliminacionClienteDTO.EN_CURSO.equals(eliminacion.getEstado()) && System.currentTimeMillis() < limite) {
+			Thread.sleep(50);
+			eliminacion = clienteService.getEliminacionCliente(clienteId);
+		}
+		assertEquals(EliminacionClienteDTO.TERMINADA, eliminacion.getEstado());
+		assertEquals(30, eliminacion.getVentasEliminadas());
+		verificarEliminado(clienteId, productos);
+	}
+
+	private void crearVentas(Long clienteId, List<Long> productos, int cantidad) {
+		for (int i = 0; i < cantidad; i++) {
+			ventaService.newVenta(clienteId, productos, List.of(1, 2));
+		}
+	}
+
+	private void verificarEliminado(Long clienteId, List<Long> productos) {
+		assertFalse(clienteRepository.existsById(clienteId));
+		assertEquals(0, contar("SELECT COUNT(*) FROM ventas WHERE cliente_id = ?", clienteId));
+		for (Long productoId : productos) {
+			assertEquals(STOCK_INICIAL, stock(productoId));
+		}
+	}
+
+	private int contar(String sql, Long id) {
+		return jdbcTemplate.queryForObject(sql, Integer.class, id);
+	}
+
+	private int stock(Long productoId) {
+		return productoRepository.findById(productoId).orElseThrow().getStock();
+	}
+}
@@ -0,0 +1,107 @@
+package com.coderhouse.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.coderhouse.models.Venta;
+import com.sun.net.httpserver.HttpServer;
+
+@SpringBootTest(properties = {
+		"facturacion.fecha.sincronizacion.habilitada=true",
+		"facturacion.fecha.sincronizacion.intervalo-ms=3600000" })
+class FechaSincronizadorTest {
+
+	private static final ZoneId ZONA = ZoneId.of("America/Argentina/Buenos_Aires");
+
+	// Servidor HTTP local que reemplaza a timeapi.io
+	private static HttpServer servidor;
+	private static volatile Duration adelantoRemoto = Duration.ZERO;
+	private static volatile int estadoRespuesta = 200;
+
+	@Autowired
+	private FechaSincronizador sincronizador;
+	@Autowired
+	private FechaService fechaService;
+
+	@DynamicPropertySource
+	static void apiLocal(DynamicPropertyRegistry registry) throws IOException {
+		servidor = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		servidor.createContext("/api/Time/current/zone", exchange -> {
+			String cuerpo = "{\"dateTime\":\"" + LocalDateTime.now(ZONA).plus(adelantoRemoto) + "\"}";
+			byte[] bytes = cuerpo.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(estadoRespuesta, bytes.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(bytes);
+			}
+		});
+		servidor.start();
+		registry.add("facturacion.fecha.api-url", () -> "http://localhost:" + servidor.getAddress().getPort()
+				+ "/api/Time/current/zone?timeZone=America/Argentina/Buenos_Aires");
+	}
+
+	@AfterAll
+	static void detenerServidor() {
+		servidor.stop(0);
+	}
+
+	@BeforeEach
+	void reiniciar() {
+		adelantoRemoto = Duration.ZERO;
+		estadoRespuesta = 200;
+		fechaService.ajustarDesfase(Duration.ZERO);
+	}
+
+	@Test
+	void sincronizarGuardaElDesfaseDeLaApi() {
+		adelantoRemoto = Duration.ofMinutes(10);
+
+		sincronizador.sincronizar();
+
+		long diferencia = Math.abs(fechaService.getDesfase().minus(adelantoRemoto).toMillis());
+		assertTrue(diferencia < 2000, "desfase inesperado: " + fechaService.getDesfase());
+
+		Venta venta = new Venta();
+		fechaService.asignarFecha(venta);
+		LocalDateTime fecha = LocalDateTime.parse(venta.getFecha(), DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+		assertTrue(fecha.isAfter(LocalDateTime.now(ZONA).plusMinutes(9)));
+	}
+
+	@Test
+	void errorDeLaApiConservaElDesfaseAnterior() {
+		fechaService.ajustarDesfase(Duration.ofSeconds(3));
+		estadoRespuesta = 500;
+
+		sincronizador.sincronizar();
+
+		assertEquals(Duration.ofSeconds(3), fechaService.getDesfase());
+	}
+
+	@Test
+	void asignarFechaNoDependeDeLaApi() {
+		Venta venta = new Venta();
+
+		long inicio = System.nanoTime();
+		fechaService.asignarFecha(venta);
+
+		assertTrue(venta.getFecha() != null);
+		assertTrue(System.nanoTime() - inicio < Duration.ofMillis(50).toNanos());
+	}
+}
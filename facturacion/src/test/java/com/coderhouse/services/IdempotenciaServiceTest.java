@@ -0,0 +1,159 @@
+package com.coderhouse.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.coderhouse.DatosPrueba;
+import com.coderhouse.dtos.VentaDTO;
+import com.coderhouse.exceptions.IdempotenciaConflictoException;
+import com.coderhouse.models.Producto;
+import com.coderhouse.repositories.ProductoRepository;
+
+@SpringBootTest
+class IdempotenciaServiceTest {
+
+	@Autowired
+	private DatosPrueba datos;
+	@Autowired
+	private IdempotenciaService idempotenciaService;
+	@Autowired
+	private VentaService ventaService;
+	@Autowired
+	private ProductoRepository productoRepository;
+
+	@Test
+	void elReintentoDevuelveLaMismaVentaSinDescontarStockDeNuevo() {
+		Long clienteId = datos.nuevoCliente("idempotencia@test.com");
+		Long productoId = datos.nuevoProducto(10);
+		String huella = IdempotenciaService.huella(clienteId, List.of(productoId), List.of(3));
+
+		IdempotenciaService.Resultado primero = idempotenciaService.ejecutar("clave-1", huella,
+				() -> ventaService.newVenta(clienteId, List.of(productoId), List.of(3)));
+		IdempotenciaService.Resultado reintento = idempotenciaService.ejecutar("clave-1", huella,
+				() -> ventaService.newVenta(clienteId, List.of(productoId), List.of(3)));
+
+		assertFalse(primero.repetida());
+		assertTrue(reintento.repetida());
+		assertEquals(primero.venta().getId(), reintento.venta().getId());
+		assertEquals(7, productoRepository.findById(productoId).orElseThrow().getStock());
+	}
+
+	@Test
+	void losPedidosSimultaneosConLaMismaClaveCreanUnaSolaVenta() throws Exception {
+		Long clienteId = datos.nuevoCliente("idempotencia-concurrente@test.com");
+		Long productoId = datos.nuevoProducto(100);
+		String huella = IdempotenciaService.huella(clienteId, List.of(productoId), List.of(1));
+		AtomicInteger ejecuciones = new AtomicInteger();
+		CountDownLatch largada = new CountDownLatch(1);
+
+		List<Future<VentaDTO>> pedidos = new ArrayList<>();
+		try (ExecutorService hilos = Executors.newFixedThreadPool(16)) {
+			for (int i = 0; i < 16; i++) {
+				pedidos.add(hilos.submit(() -> {
+					largada.await();
+					return idempotenciaService.ejecutar("clave-concurrente", huella, () -> {
+						ejecuciones.incrementAndGet();
+						return ventaService.newVenta(clienteId, List.of(productoId), List.of(1));
+					}).venta();
+				}));
+			}
+			largada.countDown();
+		}
+
+		Long ventaId = pedidos.get(0).get().getId();
+		for (Future<VentaDTO> pedido : pedidos) {
+			assertEquals(ventaId, pedido.get().getId());
+		}
+		assertEquals(1, ejecuciones.get());
+		assertEquals(99, productoRepository.findById(productoId).orElseThrow().getStock());
+	}
+
+	@Test
+	void laMismaClaveConOtraVentaSeRechaza() {
+		Long clienteId = datos.nuevoCliente("idempotencia-otra@test.com");
+		Long productoId = datos.nuevoProducto(10);
+		idempotenciaService.ejecutar("clave-2", IdempotenciaService.huella(clienteId, List.of(productoId), List.of(1)),
+				() -> ventaService.newVenta(clienteId, List.of(productoId), List.of(1)));
+
+		assertThrows(IdempotenciaConflictoException.class, () -> idempotenciaService.ejecutar("clave-2",
+				IdempotenciaService.huella(clienteId, List.of(productoId), List.of(2)),
+				() -> ventaService.newVenta(clienteId, List.of(productoId), List.of(2))));
+	}
+
+	@Test
+	void unaVentaRechazadaNoGuardaLaClave() {
+		Long clienteId = datos.nuevoCliente("idempotencia-rechazo@test.com");
+		Long productoId = datos.nuevoProducto(1);
+		String huella = IdempotenciaService.huella(clienteId, List.of(productoId), List.of(2));
+
+		assertThrows(IllegalArgumentException.class, () -> idempotenciaService.ejecutar("clave-3", huella,
+				() -> ventaService.newVenta(clienteId, List.of(productoId), List.of(2))));
+
+		// Con stock repuesto el reintento con la misma clave se ejecuta
+		Producto producto = productoRepository.findById(productoId).orElseThrow();
+		producto.setStock(5);
+		productoRepository.save(producto);
+		IdempotenciaService.Resultado reintento = idempotenciaService.ejecutar("clave-3", huella,
+				() -> ventaService.newVenta(clienteId, List.of(productoId), List.of(2)));
+		assertFalse(reintento.repetida());
+	}
+
+	@Test
+	void unErrorLiberaLaClaveYLlegaALosQueEsperan() throws Exception {
+		Long clienteId = datos.nuevoCliente("idempotencia-error@test.com");
+		Long productoId = datos.nuevoProducto(10);
+		String huella = IdempotenciaService.huella(clienteId, List.of(productoId), List.of(1));
+		Error error = new Error("Error al crear la venta");
+		CountDownLatch adentro = new CountDownLatch(1);
+		CountDownLatch fallar = new CountDownLatch(1);
+		AtomicReference<Thread> segundo = new AtomicReference<>();
+
+		try (ExecutorService hilos = Executors.newFixedThreadPool(2)) {
+			Future<VentaDTO> primero = hilos.submit(() -> idempotenciaService.ejecutar("clave-error", huella, () -> {
+				adentro.countDown();
+				try {
+					fallar.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				throw error;
+			}).venta());
+			adentro.await();
+			Future<VentaDTO> espera = hilos.submit(() -> {
+				segundo.set(Thread.currentThread());
+				return idempotenciaService.ejecutar("clave-error", huella,
+						() -> ventaService.newVenta(clienteId, List.of(productoId), List.of(1))).venta();
+			});
+			// El segundo pedido encontro la clave tomada y espera el resultado del primero
+			while (segundo.get() == null || segundo.get().getState() != Thread.State.WAITING) {
+				Thread.sleep(10);
+			}
+			fallar.countDown();
+
+			assertSame(error, assertThrows(ExecutionException.class, primero::get).getCause());
+			assertSame(error, assertThrows(ExecutionException.class, () -> espera.get(10, TimeUnit.SECONDS)).getCause());
+		}
+
+		IdempotenciaService.Resultado reintento = idempotenciaService.ejecutar("clave-error", huella,
+				() -> ventaService.newVenta(clienteId, List.of(productoId), List.of(1)));
+		assertFalse(reintento.repetida());
+	}
+}
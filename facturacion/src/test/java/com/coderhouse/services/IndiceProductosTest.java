@@ -0,0 +1,117 @@
+package com.coderhouse.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.coderhouse.models.Producto;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class IndiceProductosTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private ProductoService productoService;
+	@Autowired
+	private IndiceProductos indiceProductos;
+
+	@Test
+	void buscaPorPrefijoSinTildesYConErroresDeTipeo() {
+		Long pantalon = nuevoProducto("Pantalón Quetzal Ñandú");
+		Long remera = nuevoProducto("Remera Quetzal");
+
+		assertEquals(List.of(pantalon), ids("pantalon quetzal"));
+		assertEquals(List.of(pantalon), ids("PANT quetz"));
+		assertEquals(List.of(pantalon), ids("nandu"));
+		assertEquals(List.of(pantalon), ids("patnalon quetzal"));
+		assertTrue(ids("quetzal").containsAll(List.of(pantalon, remera)));
+		assertEquals(List.of(), ids("quetzal zapatilla"));
+	}
+
+	@Test
+	void lasCoincidenciasExactasVanPrimero() {
+		Long prefijo = nuevoProducto("Camisa Ornitorrincos");
+		Long aproximada = nuevoProducto("Camisa Ornitorrinca");
+		Long exacta = nuevoProducto("Camisa Ornitorrinco");
+
+		assertEquals(List.of(exacta, prefijo, aproximada), ids("ornitorrinco"));
+	}
+
+	@Test
+	void sigueLosCambiosYLasBajas() {
+		Long id = nuevoProducto("Buzo Capibara");
+		assertEquals(List.of(id), ids("capibara"));
+
+		Producto cambios = new Producto();
+		cambios.setNombre("Buzo Yaguarete");
+		cambios.setStock(10);
+		productoService.updateProductoById(id, cambios);
+		assertEquals(List.of(), ids("capibara"));
+		assertEquals(List.of(id), ids("yaguarete"));
+
+		productoService.deleteProductoById(id);
+		assertEquals(List.of(), ids("yaguarete"));
+	}
+
+	@Test
+	void seReconstruyeDesdeLaBase() {
+		Long id = nuevoProducto("Gorra Tapir");
+		indiceProductos.reconstruir();
+
+		assertEquals(List.of(id), ids("tapir"));
+		assertTrue(indiceProductos.getTamanio() > 0);
+	}
+
+	@Test
+	void lasBusquedasDuranteLaReconstruccionVenElIndiceAnterior() {
+		Long id = nuevoProducto("Bufanda Guanaco");
+		List<List<Long>> durante = new ArrayList<>();
+		try {
+			// A mitad de la carga el indice nuevo todavia no se publico
+			indiceProductos.reconstruir(agregar -> {
+				durante.add(ids("guanaco"));
+				agregar.accept(id, "Bufanda Vicuña");
+				durante.add(ids("guanaco"));
+			});
+			assertEquals(List.of(List.of(id), List.of(id)), durante);
+			assertEquals(List.of(), ids("guanaco"));
+			assertEquals(List.of(id), ids("vicuna"));
+		} finally {
+			indiceProductos.reconstruir();
+		}
+	}
+
+	@Test
+	void endpointDeBusqueda() throws Exception {
+		nuevoProducto("Mochila Carpincho");
+
+		mockMvc.perform(get("/api/productos/search").param("q", "carpinch")).andExpect(status().isOk());
+		mockMvc.perform(get("/api/productos/search").param("q", " ")).andExpect(status().isBadRequest());
+		assertThrows(IllegalArgumentException.class, () -> productoService.buscarProductos(null, 10));
+	}
+
+	private List<Long> ids(String texto) {
+		return productoService.buscarProductos(texto, 10).stream().map(Producto::getId).toList();
+	}
+
+	private Long nuevoProducto(String nombre) {
+		Producto producto = new Producto();
+		producto.setNombre(nombre);
+		producto.setPrecio(100);
+		producto.setStock(10);
+		return productoService.newProducto(producto).getId();
+	}
+}
@@ -0,0 +1,210 @@
+package com.coderhouse.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.coderhouse.DatosPrueba;
+import com.coderhouse.dtos.CabeceraVentaDTO;
+import com.coderhouse.dtos.EventoVentaDTO;
+import com.coderhouse.dtos.ProductoDTO;
+import com.coderhouse.dtos.VentaDTO;
+
+@SpringBootTest
+class OutboxPublicadorTest {
+
+	// Los eventos se guardan por destino al registrarlos: los destinos de prueba tienen que ser beans
+	@TestConfiguration
+	static class DestinosPrueba {
+
+		@Bean
+		DestinoConFallo destinoConFallo() {
+			return new DestinoConFallo();
+		}
+
+		@Bean
+		DestinoSaturado destinoSaturado() {
+			return new DestinoSaturado();
+		}
+	}
+
+	static class DestinoConFallo implements EventoVentaDestino {
+
+		volatile boolean fallar;
+		final List<EventoVentaDTO> recibidos = new ArrayList<>();
+
+		@Override
+		public String getNombre() {
+			return "prueba-error";
+		}
+
+		@Override
+		public int publicar(List<EventoVentaDTO> eventos) {
+			if (fallar) {
+				throw new IllegalStateException("Destino caido");
+			}
+			recibidos.addAll(eventos);
+			return eventos.size();
+		}
+	}
+
+	// Acepta un evento por vuelta
+	static class DestinoSaturado implements EventoVentaDestino {
+
+		@Override
+		public String getNombre() {
+			return "prueba-saturado";
+		}
+
+		@Override
+		public int publicar(List<EventoVentaDTO> eventos) {
+			return 1;
+		}
+	}
+
+	@Autowired
+	private DatosPrueba datos;
+	@Autowired
+	private OutboxPublicador outboxPublicador;
+	@Autowired
+	private MemoriaEventoVentaDestino memoria;
+	@Autowired
+	private DestinoConFallo destinoConFallo;
+	@Autowired
+	private DestinoSaturado destinoSaturado;
+	@Autowired
+	private OutboxService outboxService;
+	@Autowired
+	private VentaService ventaService;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void publicaCadaCambioDeLaVentaEnOrden() {
+		Long clienteId = datos.nuevoCliente("outbox@test.com");
+		Long productoId = datos.nuevoProducto(10);
+
+		VentaDTO venta = ventaService.newVenta(clienteId, List.of(productoId), List.of(2));
+		ventaService.updateVentaById(venta.getId(), new VentaDTO(null, null, null, null, null,
+				List.of(new ProductoDTO(productoId, null, 0, 3)), null));
+		ventaService.deleteVentaById(venta.getId());
+
+		List<String> tipos = publicarEnMemoria().stream()
+				.filter(e -> e.getVentaId().equals(venta.getId()))
+				.map(EventoVentaDTO::getTipo).toList();
+		assertEquals(List.of(EventoVentaDTO.CREADA, EventoVentaDTO.ACTUALIZADA, EventoVentaDTO.ELIMINADA), tipos);
+	}
+
+	@Test
+	void unaTransaccionLentaNoPierdeSusEventos() throws Exception {
+		Long clienteId = datos.nuevoCliente("outbox-lenta@test.com");
+		Long productoId = datos.nuevoProducto(10);
+		Long lentaId = ventaService.newVenta(clienteId, List.of(productoId), List.of(1)).getId();
+		publicarEnMemoria();
+		CountDownLatch registrado = new CountDownLatch(1);
+		CountDownLatch confirmar = new CountDownLatch(1);
+
+		try (ExecutorService hilo = Executors.newSingleThreadExecutor()) {
+			// Toma el ID del evento y demora el commit, como una eliminacion grande
+			Future<?> lenta = hilo.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+				outboxService.registrarCabeceras(EventoVentaDTO.ELIMINADA,
+						List.of(new CabeceraVentaDTO(lentaId, clienteId, LocalDateTime.now(), null, 100)));
+				registrado.countDown();
+				try {
+					confirmar.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}));
+			registrado.await();
+
+			// Una venta posterior confirma antes y se entrega; el evento sin confirmar todavia no se ve
+			Long posteriorId = ventaService.newVenta(clienteId, List.of(productoId), List.of(1)).getId();
+			List<EventoVentaDTO> primeros = publicarEnMemoria();
+			assertTrue(primeros.stream().anyMatch(e -> e.getVentaId().equals(posteriorId)));
+			assertTrue(primeros.stream().noneMatch(e -> e.getVentaId().equals(lentaId)));
+
+			confirmar.countDown();
+			lenta.get(10, TimeUnit.SECONDS);
+		}
+
+		// Con un cursor por ID este evento habria quedado atras; como sigue pendiente se entrega en la vuelta siguiente
+		List<String> tipos = publicarEnMemoria().stream()
+				.filter(e -> e.getVentaId().equals(lentaId))
+				.map(EventoVentaDTO::getTipo).toList();
+		assertEquals(List.of(EventoVentaDTO.ELIMINADA), tipos);
+	}
+
+	@Test
+	void unErrorDelDestinoDejaLosEventosPendientes() {
+		Long clienteId = datos.nuevoCliente("outbox-error@test.com");
+		Long ventaId = ventaService.newVenta(clienteId, List.of(datos.nuevoProducto(10)), List.of(1)).getId();
+
+		destinoConFallo.fallar = true;
+		assertEquals(0, outboxPublicador.publicar(destinoConFallo));
+		assertTrue(pendientes("prueba-error") > 0);
+
+		destinoConFallo.fallar = false;
+		assertTrue(outboxPublicador.publicar(destinoConFallo) > 0);
+		assertEquals(0, pendientes("prueba-error"));
+		assertTrue(destinoConFallo.recibidos.stream().anyMatch(e -> e.getVentaId().equals(ventaId)));
+	}
+
+	@Test
+	void unDestinoSaturadoRecibeSoloLoQueAcepta() {
+		Long clienteId = datos.nuevoCliente("outbox-saturado@test.com");
+		ventaService.newVenta(clienteId, List.of(datos.nuevoProducto(10)), List.of(1));
+		ventaService.newVenta(clienteId, List.of(datos.nuevoProducto(10)), List.of(1));
+
+		// Acepta un evento por vuelta: se marca entregado de a uno
+		long antes = pendientes("prueba-saturado");
+		assertEquals(1, outboxPublicador.publicar(destinoSaturado));
+		assertEquals(antes - 1, pendientes("prueba-saturado"));
+		assertEquals(1, outboxPublicador.publicar(destinoSaturado));
+		assertEquals(antes - 2, pendientes("prueba-saturado"));
+	}
+
+	@Test
+	void laPurgaSoloBorraEventosEntregados() {
+		Long clienteId = datos.nuevoCliente("outbox-purga@test.com");
+		ventaService.newVenta(clienteId, List.of(datos.nuevoProducto(10)), List.of(1));
+		publicarEnMemoria();
+		long pendientesSaturado = pendientes("prueba-saturado");
+
+		outboxService.purgar(LocalDateTime.now().plusMinutes(1));
+
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM eventos_venta WHERE destino = 'memoria'", Long.class));
+		assertEquals(pendientesSaturado, pendientes("prueba-saturado"));
+	}
+
+	private List<EventoVentaDTO> publicarEnMemoria() {
+		List<EventoVentaDTO> recibidos = new ArrayList<>(memoria.tomar());
+		while (outboxPublicador.publicar(memoria) > 0) {
+			recibidos.addAll(memoria.tomar());
+		}
+		return recibidos;
+	}
+
+	private long pendientes(String destino) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM eventos_venta WHERE destino = ? AND entregado IS NULL",
+				Long.class, destino);
+	}
+}
@@ -0,0 +1,97 @@
+package com.coderhouse.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.coderhouse.DatosPrueba;
+import com.coderhouse.config.ContadorSentencias;
+import com.coderhouse.models.Producto;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductoCacheTest {
+
+	private static final int LECTURAS = 100;
+
+	@Autowired
+	private DatosPrueba datos;
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private ProductoService productoService;
+	@Autowired
+	private VentaService ventaService;
+	@Autowired
+	private ProductoCache productoCache;
+
+	@Test
+	void escriturasInvalidanLaCache() {
+		Long productoId = datos.nuevoProducto(10);
+		assertEquals(100, productoService.getProductoById(productoId).getPrecio());
+
+		Producto cambios = new Producto();
+		cambios.setPrecio(150);
+		cambios.setStock(10);
+		productoService.updateProductoById(productoId, cambios);
+		assertEquals(150, productoService.getProductoById(productoId).getPrecio());
+
+		Long clienteId = datos.nuevoCliente("cache@test.com");
+		ventaService.newVenta(clienteId, List.of(productoId), List.of(3));
+		assertEquals(7, productoService.getProductoById(productoId).getStock());
+	}
+
+	@Test
+	void unaCargaQueEmpezoAntesDeUnaInvalidacionNoQuedaEnLaCache() {
+		Long productoId = datos.nuevoProducto(10);
+		productoCache.invalidar(List.of(productoId));
+
+		// Mientras se carga el listado otra operacion cambia un producto: lo leido puede ser anterior al cambio
+		List<Producto> anterior = new ArrayList<>();
+		assertSame(anterior, productoCache.getListado(() -> {
+			productoCache.invalidar(List.of(productoId));
+			return anterior;
+		}));
+
+		// La siguiente lectura vuelve a cargar en lugar de devolver el listado anterior
+		List<Producto> recargado = new ArrayList<>();
+		assertSame(recargado, productoCache.getListado(() -> recargado));
+	}
+
+	@Test
+	void lasLecturasConCacheNoConsultanLaBase() throws Exception {
+		Long productoId = datos.nuevoProducto(10);
+
+		// Despues de invalidar, la primera lectura va a la base
+		productoCache.invalidar(List.of(productoId));
+		long fallosAntes = productoCache.estadisticas().getFallos();
+		ContadorSentencias.reiniciar();
+		leer(productoId);
+		assertTrue(ContadorSentencias.cantidad() > 0);
+		assertTrue(productoCache.estadisticas().getFallos() > fallosAntes);
+
+		// Las siguientes se resuelven en memoria, sin ninguna sentencia
+		long aciertosAntes = productoCache.estadisticas().getAciertos();
+		ContadorSentencias.reiniciar();
+		for (int i = 0; i < LECTURAS; i++) {
+			leer(productoId);
+		}
+		assertEquals(0, ContadorSentencias.cantidad());
+		assertTrue(productoCache.estadisticas().getAciertos() - aciertosAntes >= LECTURAS);
+	}
+
+	private void leer(Long productoId) throws Exception {
+		mockMvc.perform(get("/api/productos/{id}", productoId)).andExpect(status().isOk());
+	}
+}
@@ -0,0 +1,217 @@
+package com.coderhouse.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.coderhouse.DatosPrueba;
+import com.coderhouse.exceptions.VentaRechazadaException;
+import com.coderhouse.models.Producto;
+import com.coderhouse.repositories.ProductoRepository;
+
+@SpringBootTest(properties = {
+		"facturacion.stock.reservas.habilitado=true",
+		"facturacion.stock.reservas.escritura-ms=3600000",
+		"facturacion.stock.reservas.reconciliacion-ms=3600000" })
+class ReservaStockConcurrenciaTest {
+
+	private static final int HILOS = 16;
+	private static final int INTENTOS_POR_HILO = 25;
+	private static final int STOCK_INICIAL = 100;
+
+	@Autowired
+	private DatosPrueba datos;
+	@Autowired
+	private VentaService ventaService;
+	@Autowired
+	private StockService stockService;
+	@Autowired
+	private ProductoService productoService;
+	@Autowired
+	private ReservaStockService reservaStockService;
+	@Autowired
+	private ProductoRepository productoRepository;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void ventasConcurrentesSobreUnProductoNoSobrevenden() throws Exception {
+		Long clienteId = datos.nuevoCliente("reservas-ventas@test.com");
+		Long productoId = datos.nuevoProducto(STOCK_INICIAL);
+
+		int exitos = ejecutarConcurrente(() -> ventaService.newVenta(clienteId, List.of(productoId), List.of(1)));
+
+		assertEquals(STOCK_INICIAL, exitos);
+		assertEquals(0, reservaStockService.getDisponible(productoId));
+		// La fila del producto se actualiza recien cuando corre el escritor
+		reservaStockService.escribir();
+		assertEquals(0, productoRepository.findById(productoId).orElseThrow().getStock());
+		assertEquals(0, pendientes(productoId));
+	}
+
+	@Test
+	void olvidarElProductoMientrasSeVendeNoPierdeVentas() throws Exception {
+		Long clienteId = datos.nuevoCliente("reservas-olvidar@test.com");
+		Long productoId = datos.nuevoProducto(STOCK_INICIAL);
+
+		// Descarta el estado en memoria sin pausa, como las ediciones del producto durante una venta flash
+		AtomicBoolean vendiendo = new AtomicBoolean(true);
+		Thread olvidos = Thread.ofPlatform().start(() -> {
+			while (vendiendo.get()) {
+				reservaStockService.olvidar(productoId);
+			}
+		});
+		AtomicReference<RuntimeException> inesperado = new AtomicReference<>();
+		int exitos;
+		try {
+			exitos = ejecutarConcurrente(() -> {
+				try {
+					ventaService.newVenta(clienteId, List.of(productoId), List.of(1));
+				} catch (VentaRechazadaException e) {
+					throw e;
+				} catch (RuntimeException e) {
+					inesperado.compareAndSet(null, e);
+					throw e;
+				}
+			});
+		} finally {
+			vendiendo.set(false);
+			olvidos.join();
+		}
+
+		// Los intentos fallidos son solo rechazos por stock: un estado descartado se vuelve a leer de la base
+		assertNull(inesperado.get(), () -> "Error inesperado: " + inesperado.get());
+		assertEquals(STOCK_INICIAL, exitos);
+		reservaStockService.escribir();
+		assertEquals(0, productoRepository.findById(productoId).orElseThrow().getStock());
+	}
+
+	@Test
+	void rollbackDevuelveLaReservaYNoDejaMovimientos() {
+		Long productoId = datos.nuevoProducto(5);
+
+		assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(s -> {
+			stockService.ajustar(Map.of(productoId, 3));
+			throw new IllegalStateException("falla despues de reservar");
+		}));
+		assertEquals(5, reservaStockService.getDisponible(productoId));
+		assertEquals(0, pendientes(productoId));
+
+		assertThrows(IllegalArgumentException.class,
+				() -> transactionTemplate.executeWithoutResult(s -> stockService.ajustar(Map.of(productoId, 6))));
+		assertEquals(5, reservaStockService.getDisponible(productoId));
+	}
+
+	@Test
+	void reposicionSeSumaAlConfirmarYSeEscribeEnLaBase() {
+		Long productoId = datos.nuevoProducto(10);
+
+		transactionTemplate.executeWithoutResult(s -> stockService.ajustar(Map.of(productoId, 4)));
+		transactionTemplate.executeWithoutResult(s -> stockService.reponer(Map.of(productoId, 1)));
+		assertEquals(7, reservaStockService.getDisponible(productoId));
+		assertEquals(10, productoRepository.findById(productoId).orElseThrow().getStock());
+
+		reservaStockService.escribir();
+		assertEquals(7, productoRepository.findById(productoId).orElseThrow().getStock());
+		assertEquals(0, reservaStockService.reconciliar());
+	}
+
+	@Test
+	void reconciliacionCorrigeCambiosHechosPorFuera() {
+		Long productoId = datos.nuevoProducto(10);
+		transactionTemplate.executeWithoutResult(s -> stockService.ajustar(Map.of(productoId, 2)));
+
+		jdbcTemplate.update("UPDATE productos SET stock = 50 WHERE id = ?", productoId);
+
+		// Quedan 2 unidades sin escribir: el disponible real es 50 - 2
+		reservaStockService.reconciliar();
+		assertEquals(48, reservaStockService.getDisponible(productoId));
+	}
+
+	@Test
+	void laLecturaDelStockNoUsaLaFotoDeLaTransaccionDeLaVenta() {
+		Long productoId = datos.nuevoProducto(5);
+		TransactionTemplate repetible = new TransactionTemplate(transactionTemplate.getTransactionManager());
+		repetible.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+		RuntimeException error = assertThrows(RuntimeException.class, () -> repetible.executeWithoutResult(s -> {
+			// La transaccion toma su foto con el stock en 5
+			jdbcTemplate.queryForObject("SELECT stock FROM productos WHERE id = ?", Integer.class, productoId);
+
+			// Otra transaccion baja el stock a 1 y descarta el estado en memoria
+			Producto cambios = new Producto();
+			cambios.setStock(1);
+			CompletableFuture.runAsync(() -> productoService.updateProductoById(productoId, cambios)).join();
+
+			stockService.ajustar(Map.of(productoId, 3));
+		}));
+		// MySQL lee el stock confirmado y rechaza la venta; H2 rechaza la lectura bloqueante de una fila cambiada
+		// despues de la foto. En los dos casos no se vende con el stock viejo
+		assertTrue(error instanceof VentaRechazadaException || error instanceof CannotAcquireLockException,
+				error::toString);
+		assertEquals(0, pendientes(productoId));
+		assertThrows(VentaRechazadaException.class,
+				() -> transactionTemplate.executeWithoutResult(s -> stockService.ajustar(Map.of(productoId, 3))));
+		assertEquals(1, reservaStockService.getDisponible(productoId));
+	}
+
+	private int pendientes(Long productoId) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movimientos_stock WHERE producto_id = ?",
+				Integer.class, productoId);
+	}
+
+	// Ejecuta la operacion desde varios hilos a la vez y devuelve cuantas veces terminó sin error
+	private int ejecutarConcurrente(Runnable operacion) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+		CountDownLatch largada = new CountDownLatch(1);
+		AtomicInteger exitos = new AtomicInteger();
+		List<Future<?>> tareas = new ArrayList<>();
+		try {
+			for (int h = 0; h < HILOS; h++) {
+				tareas.add(executor.submit(() -> {
+					largada.await();
+					for (int i = 0; i < INTENTOS_POR_HILO; i++) {
+						try {
+							operacion.run();
+							exitos.incrementAndGet();
+						} catch (RuntimeException e) {
+							// Stock agotado: el intento cuenta como rechazado
+						}
+					}
+					return null;
+				}));
+			}
+			largada.countDown();
+			for (Future<?> tarea : tareas) {
+				tarea.get(1, TimeUnit.MINUTES);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return exitos.get();
+	}
+}
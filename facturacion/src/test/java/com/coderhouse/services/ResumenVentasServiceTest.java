@@ -0,0 +1,116 @@
+package com.coderhouse.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.coderhouse.DatosPrueba;
+import com.coderhouse.dtos.ProductoDTO;
+import com.coderhouse.dtos.VentaDTO;
+import com.coderhouse.models.ResumenDiarioCliente;
+import com.coderhouse.models.ResumenDiarioProducto;
+
+@SpringBootTest
+class ResumenVentasServiceTest {
+
+	@Autowired
+	private DatosPrueba datos;
+	@Autowired
+	private ResumenVentasService resumenVentasService;
+	@Autowired
+	private VentaService ventaService;
+	@Autowired
+	private VentaLoteService ventaLoteService;
+	@Autowired
+	private FechaService fechaService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void resumenIncrementalCoincideConLaReconstruccion() {
+		// Otras pruebas insertan ventas directamente con el repositorio: se parte de resumenes recalculados
+		resumenVentasService.reconstruir();
+
+		Long clienteId = datos.nuevoCliente("resumen@test.com");
+		Long remera = datos.nuevoProducto(100);
+		Long buzo = datos.nuevoProducto(100);
+
+		VentaDTO primera = ventaService.newVenta(clienteId, List.of(remera, buzo), List.of(2, 1));
+		VentaDTO segunda = ventaService.newVenta(clienteId, List.of(remera), List.of(3));
+		ventaService.updateVentaById(primera.getId(), new VentaDTO(null, null, null, null, null,
+				List.of(new ProductoDTO(buzo, null, 0, 4)), null));
+		ventaService.deleteVentaById(segunda.getId());
+		ventaLoteService.newVentas(List.of(new VentaDTO(null, clienteId, null, null, null,
+				List.of(new ProductoDTO(remera, null, 0, 1)), null)));
+
+		// Los resumenes usan el dia de la venta segun el reloj de la aplicacion, no la zona de la JVM
+		LocalDate hoy = fechaService.ahora().toLocalDate();
+		List<ResumenDiarioCliente> cliente = resumenVentasService.getResumenCliente(clienteId, hoy.minusDays(1), hoy.plusDays(1));
+		assertEquals(1, cliente.size());
+		assertEquals(2, cliente.get(0).getVentas());
+		assertEquals(500, cliente.get(0).getIngresos());
+		assertEquals(5, cliente.get(0).getUnidades());
+
+		List<ResumenDiarioProducto> producto = resumenVentasService.getResumenProducto(remera, hoy.minusDays(1), hoy.plusDays(1));
+		assertEquals(1, producto.get(0).getUnidades());
+
+		assertEquals(0, resumenVentasService.reconstruir().getDiferencias());
+	}
+
+	@Test
+	void laReconstruccionCorrigeSinPerderVentasEnCurso() throws Exception {
+		Long clienteId = datos.nuevoCliente("resumen-en-curso@test.com");
+		Long otroClienteId = datos.nuevoCliente("resumen-desvio@test.com");
+		Long productoId = datos.nuevoProducto(100);
+		ventaService.newVenta(clienteId, List.of(productoId), List.of(1));
+		ventaService.newVenta(otroClienteId, List.of(productoId), List.of(1));
+		resumenVentasService.reconstruir();
+		LocalDate hoy = fechaService.ahora().toLocalDate();
+		jdbcTemplate.update("UPDATE resumen_diario_cliente SET ingresos = ingresos + 1000 WHERE cliente_id = ?", otroClienteId);
+
+		// Una venta queda sin confirmar mientras se reconstruye
+		CountDownLatch creada = new CountDownLatch(1);
+		CountDownLatch confirmar = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<?> enCurso = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+				ventaService.newVenta(clienteId, List.of(productoId), List.of(2));
+				creada.countDown();
+				try {
+					confirmar.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}));
+			assertTrue(creada.await(10, TimeUnit.SECONDS));
+			assertEquals(1, executor.submit(resumenVentasService::reconstruir).get(30, TimeUnit.SECONDS).getDiferencias());
+			confirmar.countDown();
+			enCurso.get(10, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// La correccion quito el desvio y la venta confirmada despues conserva lo que sumo
+		assertEquals(100, resumenVentasService.getResumenCliente(otroClienteId, hoy, hoy).get(0).getIngresos());
+		List<ResumenDiarioCliente> cliente = resumenVentasService.getResumenCliente(clienteId, hoy, hoy);
+		assertEquals(2, cliente.get(0).getVentas());
+		assertEquals(300, cliente.get(0).getIngresos());
+		assertEquals(3, cliente.get(0).getUnidades());
+		assertEquals(0, resumenVentasService.reconstruir().getDiferencias());
+	}
+}
@@ -0,0 +1,98 @@
+package com.coderhouse.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.coderhouse.DatosPrueba;
+import com.coderhouse.repositories.ProductoRepository;
+
+@SpringBootTest
+class StockConcurrenciaTest {
+
+	private static final int HILOS = 16;
+	private static final int INTENTOS_POR_HILO = 25;
+	private static final int STOCK_INICIAL = 100;
+
+	@Autowired
+	private DatosPrueba datos;
+	@Autowired
+	private VentaService ventaService;
+	@Autowired
+	private StockService stockService;
+	@Autowired
+	private ProductoRepository productoRepository;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void ventasConcurrentesNoSobrevendenElUltimoStock() throws Exception {
+		Long clienteId = datos.nuevoCliente("stock-ventas@test.com");
+		Long productoId = datos.nuevoProducto(STOCK_INICIAL);
+
+		int exitos = ejecutarConcurrente(() -> ventaService.newVenta(clienteId, List.of(productoId), List.of(1)));
+
+		assertEquals(STOCK_INICIAL, exitos);
+		assertEquals(0, productoRepository.findById(productoId).orElseThrow().getStock());
+	}
+
+	@Test
+	void descuentoCondicionalConcurrenteVendeSoloElStockDisponible() throws Exception {
+		// Una sola sentencia UPDATE ... WHERE stock >= cantidad, con mas intentos que stock.
+		// La comparacion de throughput con el codigo anterior esta en DescuentoStockBenchmark
+		int stockInicial = HILOS * INTENTOS_POR_HILO / 2;
+		Long productoId = datos.nuevoProducto(stockInicial);
+
+		int exitos = ejecutarConcurrente(
+				() -> transactionTemplate.executeWithoutResult(s -> stockService.ajustar(Map.of(productoId, 1))));
+
+		int stockFinal = productoRepository.findById(productoId).orElseThrow().getStock();
+		assertEquals(stockInicial, exitos);
+		assertEquals(stockInicial - exitos, stockFinal);
+		assertEquals(0, stockFinal);
+	}
+
+	// Ejecuta la operacion desde varios hilos a la vez y devuelve cuantas veces terminó sin error
+	private int ejecutarConcurrente(Runnable operacion) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+		CountDownLatch largada = new CountDownLatch(1);
+		AtomicInteger exitos = new AtomicInteger();
+		List<Future<?>> tareas = new ArrayList<>();
+		try {
+			for (int h = 0; h < HILOS; h++) {
+				tareas.add(executor.submit(() -> {
+					largada.await();
+					for (int i = 0; i < INTENTOS_POR_HILO; i++) {
+						try {
+							operacion.run();
+							exitos.incrementAndGet();
+						} catch (RuntimeException e) {
+							// Stock agotado o conflicto: el intento cuenta como rechazado
+						}
+					}
+					return null;
+				}));
+			}
+			largada.countDown();
+			for (Future<?> tarea : tareas) {
+				tarea.get(1, TimeUnit.MINUTES);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return exitos.get();
+	}
+}
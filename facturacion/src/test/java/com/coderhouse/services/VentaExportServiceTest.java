@@ -0,0 +1,100 @@
+package com.coderhouse.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.coderhouse.DatosPrueba;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class VentaExportServiceTest {
+
+	// Suficientes ventas para que la exportacion ocupe varias veces el buffer del writer
+	private static final int VENTAS = 300;
+
+	@Autowired
+	private DatosPrueba datos;
+	@Autowired
+	private VentaService ventaService;
+	@Autowired
+	private VentaExportService ventaExportService;
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void escribeLasVentasAMedidaQueLasLee() throws Exception {
+		Long clienteId = crearVentas("export-ndjson@test.com", VENTAS);
+		SalidaRegistrada salida = new SalidaRegistrada();
+
+		ventaExportService.exportar(VentaExportService.NDJSON, salida);
+
+		// Cada vez que se llena el buffer del writer las ventas ya leidas pasan a la salida: la primera escritura
+		// trae solo una parte de la exportacion
+		assertTrue(salida.escrituras > 1, "Escrituras: " + salida.escrituras);
+		assertTrue(salida.primeraEscritura < salida.size() / 2,
+				"Primera escritura " + salida.primeraEscritura + " de " + salida.size() + " bytes");
+		long delCliente = salida.toString(StandardCharsets.UTF_8).lines()
+				.filter(linea -> linea.contains("\"clienteId\":" + clienteId + ","))
+				.count();
+		assertEquals(VENTAS, delCliente);
+	}
+
+	@Test
+	void elEndpointExportaCsvConSuPropioTiempoMaximo() throws Exception {
+		Long clienteId = crearVentas("export-csv@test.com", 3);
+
+		MvcResult resultado = mockMvc.perform(get("/api/ventas/export").param("formato", VentaExportService.CSV))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		assertEquals(Duration.ofHours(1).toMillis(), resultado.getRequest().getAsyncContext().getTimeout());
+
+		String csv = mockMvc.perform(asyncDispatch(resultado))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+		assertTrue(csv.startsWith("venta_id,fecha,cliente_id,"));
+		long delCliente = csv.lines()
+				.filter(linea -> linea.split(",")[2].equals(String.valueOf(clienteId)))
+				.count();
+		assertEquals(3, delCliente);
+	}
+
+	private Long crearVentas(String email, int cantidad) {
+		Long clienteId = datos.nuevoCliente(email);
+		Long productoId = datos.nuevoProducto(cantidad);
+		for (int i = 0; i < cantidad; i++) {
+			ventaService.newVenta(clienteId, List.of(productoId), List.of(1));
+		}
+		return clienteId;
+	}
+
+	// Registra cuantas veces escribio la exportacion y cuantos bytes trajo la primera escritura
+	private static class SalidaRegistrada extends ByteArrayOutputStream {
+
+		int escrituras;
+		int primeraEscritura;
+
+		@Override
+		public synchronized void write(byte[] b, int off, int len) {
+			if (escrituras++ == 0) {
+				primeraEscritura = len;
+			}
+			super.write(b, off, len);
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package com.coderhouse.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import com.coderhouse.DatosPrueba;
+import com.coderhouse.dtos.ProductoDTO;
+import com.coderhouse.dtos.ResultadoVentaDTO;
+import com.coderhouse.dtos.VentaDTO;
+import com.coderhouse.exceptions.MotivoRechazo;
+import com.coderhouse.repositories.ProductoRepository;
+
+@SpringBootTest
+class VentaLoteServiceTest {
+
+	// Tamaño de bloque por defecto de VentaLoteService
+	private static final int TAMANIO_BLOQUE = 500;
+	// Cuantas veces mas rapido que las ventas individuales debe ser el lote, con margen para la variacion entre corridas
+	private static final double MEJORA_MINIMA = 5;
+
+	// Producto cuyo descuento de stock falla con un error inesperado, como una caida de la base en medio de un bloque
+	private static volatile Long productoFallido;
+
+	@TestConfiguration
+	static class StockConFallo {
+
+		@Bean
+		@Primary
+		StockService stockServiceConFallo() {
+			return new StockServiceConFallo();
+		}
+	}
+
+	static class StockServiceConFallo extends StockService {
+
+		@Override
+		public void ajustar(Map<Long, Integer> cantidades) {
+			if (productoFallido != null && cantidades.containsKey(productoFallido)) {
+				throw new IllegalStateException("Fallo simulado");
+			}
+			super.ajustar(cantidades);
+		}
+	}
+
+	// Cliente que figura con una eliminacion en curso
+	private static volatile Long clienteEnEliminacion;
+
+	@TestConfiguration
+	static class EliminacionEnCurso {
+
+		@Bean
+		@Primary
+		EliminacionVentasService eliminacionVentasServiceEnCurso() {
+			return new EliminacionVentasServiceEnCurso();
+		}
+	}
+
+	static class EliminacionVentasServiceEnCurso extends EliminacionVentasService {
+
+		@Override
+		public boolean enEliminacion(Long clienteId) {
+			return clienteId.equals(clienteEnEliminacion) || super.enEliminacion(clienteId);
+		}
+	}
+
+	@Autowired
+	private DatosPrueba datos;
+	@Autowired
+	private VentaLoteService ventaLoteService;
+	@Autowired
+	private VentaService ventaService;
+	@Autowired
+	private ProductoRepository productoRepository;
+
+	@Test
+	void loteDevuelveUnResultadoPorVentaYDescuentaElStockTotal() {
+		Long clienteId = datos.nuevoCliente("lote@test.com");
+		Long productoId = datos.nuevoProducto(5);
+
+		List<ResultadoVentaDTO> resultados = ventaLoteService.newVentas(List.of(
+				venta(clienteId, productoId, 3),
+				venta(-1L, productoId, 1),
+				venta(clienteId, productoId, 3),
+				venta(clienteId, productoId, 2)));
+
+		assertEquals(ResultadoVentaDTO.CREADA, resultados.get(0).getEstado());
+		assertNotNull(resultados.get(0).getVenta().getId());
+		assertEquals("Cliente no encontrado", resultados.get(1).getMotivo());
+		assertEquals(MotivoRechazo.CLIENTE_NO_ENCONTRADO, resultados.get(1).getMotivoRechazo());
+		assertEquals(ResultadoVentaDTO.RECHAZADA, resultados.get(2).getEstado());
+		assertEquals(MotivoRechazo.STOCK, resultados.get(2).getMotivoRechazo());
+		assertEquals(ResultadoVentaDTO.CREADA, resultados.get(3).getEstado());
+		assertEquals(0, productoRepository.findById(productoId).orElseThrow().getStock());
+	}
+
+	@Test
+	void rechazaLasVentasDeUnClienteQueSeEstaEliminando() {
+		Long eliminandoId = datos.nuevoCliente("lote-eliminacion@test.com");
+		Long clienteId = datos.nuevoCliente("lote-activo@test.com");
+		Long productoId = datos.nuevoProducto(10);
+
+		List<ResultadoVentaDTO> resultados;
+		clienteEnEliminacion = eliminandoId;
+		try {
+			resultados = ventaLoteService.newVentas(List.of(
+					venta(eliminandoId, productoId, 2),
+					venta(clienteId, productoId, 3)));
+		} finally {
+			clienteEnEliminacion = null;
+		}
+
+		// Se rechaza como en una venta individual y no descuenta stock; el resto del lote se crea
+		assertEquals(ResultadoVentaDTO.RECHAZADA, resultados.get(0).getEstado());
+		assertEquals(MotivoRechazo.CLIENTE_NO_ENCONTRADO, resultados.get(0).getMotivoRechazo());
+		assertEquals(ResultadoVentaDTO.CREADA, resultados.get(1).getEstado());
+		assertEquals(7, productoRepository.findById(productoId).orElseThrow().getStock());
+	}
+
+	@Test
+	void throughputLoteVsVentaIndividual() {
+		int cantidadVentas = 1000;
+		Long clienteId = datos.nuevoCliente("lote-throughput@test.com");
+		List<Long> productoIds = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			productoIds.add(datos.nuevoProducto(cantidadVentas * 10));
+		}
+		List<VentaDTO> ventas = new ArrayList<>();
+		for (int i = 0; i < cantidadVentas; i++) {
+			List<ProductoDTO> lineas = productoIds.stream().map(id -> new ProductoDTO(id, null, 0, 1)).toList();
+			ventas.add(new VentaDTO(null, clienteId, null, null, null, lineas, null));
+		}
+
+		List<Integer> cantidades = productoIds.stream().map(id -> 1).toList();
+		long inicio = System.nanoTime();
+		for (int i = 0; i < cantidadVentas; i++) {
+			ventaService.newVenta(clienteId, productoIds, cantidades);
+		}
+		double segundosIndividual = (System.nanoTime() - inicio) / 1e9;
+
+		inicio = System.nanoTime();
+		List<ResultadoVentaDTO> resultados = ventaLoteService.newVentas(ventas);
+		double segundosLote = (System.nanoTime() - inicio) / 1e9;
+
+		assertEquals(cantidadVentas,
+				resultados.stream().filter(r -> ResultadoVentaDTO.CREADA.equals(r.getEstado())).count());
+		assertTrue(segundosIndividual / segundosLote >= MEJORA_MINIMA,
+				String.format("Individual %.3f s, lote %.3f s", segundosIndividual, segundosLote));
+	}
+
+	@Test
+	void unErrorInesperadoQuedaSoloEnLaVentaQueLoProvoca() {
+		Long clienteId = datos.nuevoCliente("lote-error@test.com");
+		Long productoId = datos.nuevoProducto(1000);
+		Long fallidoId = datos.nuevoProducto(1000);
+
+		// El error aparece en el segundo bloque, cuando el primero ya se confirmo
+		List<VentaDTO> ventas = new ArrayList<>();
+		for (int i = 0; i < TAMANIO_BLOQUE + 2; i++) {
+			ventas.add(venta(clienteId, productoId, 1));
+		}
+		ventas.add(venta(clienteId, fallidoId, 1));
+		List<ResultadoVentaDTO> resultados;
+		productoFallido = fallidoId;
+		try {
+			resultados = ventaLoteService.newVentas(ventas);
+		} finally {
+			productoFallido = null;
+		}
+
+		for (int i = 0; i < TAMANIO_BLOQUE + 2; i++) {
+			assertEquals(ResultadoVentaDTO.CREADA, resultados.get(i).getEstado());
+		}
+		assertEquals(ResultadoVentaDTO.NO_PROCESADA, resultados.get(TAMANIO_BLOQUE + 2).getEstado());
+		assertEquals(1000 - TAMANIO_BLOQUE - 2, productoRepository.findById(productoId).orElseThrow().getStock());
+		assertEquals(1000, productoRepository.findById(fallidoId).orElseThrow().getStock());
+	}
+
+	private VentaDTO venta(Long clienteId, Long productoId, int cantidad) {
+		return new VentaDTO(null, clienteId, null, null, null,
+				List.of(new ProductoDTO(productoId, null, 0, cantidad)), null);
+	}
+}
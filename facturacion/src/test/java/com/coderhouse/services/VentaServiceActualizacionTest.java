@@ -0,0 +1,102 @@
+package com.coderhouse.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.coderhouse.DatosPrueba;
+import com.coderhouse.config.ContadorSentencias;
+import com.coderhouse.dtos.ProductoDTO;
+import com.coderhouse.dtos.VentaDTO;
+import com.coderhouse.repositories.ProductoRepository;
+
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class VentaServiceActualizacionTest {
+
+	// Sentencias de Hibernate para cambiar una linea: venta, lineas, cliente, linea modificada,
+	// total de la venta y nombres de productos que no estan en cache (el stock se actualiza por JDBC)
+	private static final int SENTENCIAS_MAXIMAS = 7;
+
+	@Autowired
+	private DatosPrueba datos;
+	@Autowired
+	private VentaService ventaService;
+	@Autowired
+	private ProductoRepository productoRepository;
+
+	private Long clienteId;
+	private final List<Long> productoIds = new ArrayList<>();
+
+	@BeforeAll
+	void cargarDatos() {
+		clienteId = datos.nuevoCliente("actualizacion@test.com");
+		for (int i = 0; i < 100; i++) {
+			productoIds.add(datos.nuevoProducto("Producto " + i, 100 + i, 1000));
+		}
+	}
+
+	@Test
+	void cambiarUnaLineaNoDependeDelTamanioDeLaVenta() {
+		int sentenciasDiezLineas = sentenciasAlCambiarUnaLinea(10);
+		int sentenciasCienLineas = sentenciasAlCambiarUnaLinea(100);
+
+		assertEquals(sentenciasDiezLineas, sentenciasCienLineas);
+		assertTrue(sentenciasCienLineas <= SENTENCIAS_MAXIMAS, "Sentencias: " + sentenciasCienLineas);
+	}
+
+	@Test
+	void soloSeAjustaElStockDeLosProductosQueCambian() {
+		List<Long> ids = productoIds.subList(0, 3);
+		VentaDTO venta = ventaService.newVenta(clienteId, ids, List.of(2, 2, 2));
+		int[] stockAntes = ids.stream().mapToInt(id -> productoRepository.findById(id).orElseThrow().getStock()).toArray();
+
+		// Se cambia la cantidad del primero, se quita el segundo y se mantiene el tercero
+		VentaDTO actualizada = ventaService.updateVentaById(venta.getId(), new VentaDTO(null, null, null, null, null,
+				List.of(new ProductoDTO(ids.get(0), null, 0, 5), new ProductoDTO(ids.get(2), null, 0, 2)), null));
+
+		assertEquals(stockAntes[0] - 3, productoRepository.findById(ids.get(0)).orElseThrow().getStock());
+		assertEquals(stockAntes[1] + 2, productoRepository.findById(ids.get(1)).orElseThrow().getStock());
+		assertEquals(stockAntes[2], productoRepository.findById(ids.get(2)).orElseThrow().getStock());
+		assertEquals(2, ventaService.getVentaById(venta.getId()).getProductos().size());
+		assertEquals(100 * 5 + 102 * 2, actualizada.getTotal());
+	}
+
+	@Test
+	void agregaUnaSegundaLineaDeUnProductoQueYaEstabaEnLaVenta() {
+		Long productoId = productoIds.get(3);
+		VentaDTO venta = ventaService.newVenta(clienteId, List.of(productoId), List.of(1));
+		int stockAntes = productoRepository.findById(productoId).orElseThrow().getStock();
+
+		VentaDTO actualizada = ventaService.updateVentaById(venta.getId(), new VentaDTO(null, null, null, null, null,
+				List.of(new ProductoDTO(productoId, null, 0, 1), new ProductoDTO(productoId, null, 0, 2)), null));
+
+		assertEquals(stockAntes - 2, productoRepository.findById(productoId).orElseThrow().getStock());
+		assertEquals(2, ventaService.getVentaById(venta.getId()).getProductos().size());
+		assertEquals(103 * 3, actualizada.getTotal());
+	}
+
+	private int sentenciasAlCambiarUnaLinea(int cantidadLineas) {
+		List<Long> ids = productoIds.subList(0, cantidadLineas);
+		VentaDTO venta = ventaService.newVenta(clienteId, ids, Collections.nCopies(cantidadLineas, 1));
+
+		List<ProductoDTO> lineas = new ArrayList<>();
+		for (Long id : ids) {
+			lineas.add(new ProductoDTO(id, null, 0, 1));
+		}
+		lineas.get(cantidadLineas / 2).setCantidad(3);
+
+		ContadorSentencias.reiniciar();
+		ventaService.updateVentaById(venta.getId(), new VentaDTO(null, null, null, null, null, lineas, null));
+		return ContadorSentencias.cantidad();
+	}
+}
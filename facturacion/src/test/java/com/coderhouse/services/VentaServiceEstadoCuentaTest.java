@@ -0,0 +1,122 @@
+package com.coderhouse.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.coderhouse.DatosPrueba;
+import com.coderhouse.config.ContadorSentencias;
+import com.coderhouse.dtos.EstadoCuentaDTO;
+import com.coderhouse.dtos.VentaDTO;
+import com.coderhouse.exceptions.NoEncontradoException;
+
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class VentaServiceEstadoCuentaTest {
+
+	private static final int VENTAS = 12;
+	private static final LocalDateTime PRIMER_DIA = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+	@Autowired
+	private DatosPrueba datos;
+	@Autowired
+	private VentaService ventaService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Long clienteId;
+	// IDs de las ventas en el orden esperado: de la mas reciente a la mas antigua
+	private final List<Long> esperadas = new ArrayList<>();
+	private long totalEsperado;
+
+	@BeforeAll
+	void cargarDatos() {
+		clienteId = datos.nuevoCliente("estado-cuenta@test.com");
+		Long productoId = datos.nuevoProducto(1000);
+
+		// Una venta por dia, y las dos ultimas con la misma fecha y hora para probar el desempate por ID
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < VENTAS; i++) {
+			VentaDTO venta = ventaService.newVenta(clienteId, List.of(productoId), List.of(i + 1));
+			LocalDateTime fechaHora = PRIMER_DIA.plusDays(Math.min(i, VENTAS - 2));
+			jdbcTemplate.update("UPDATE ventas SET fecha_hora = ? WHERE id = ?", fechaHora, venta.getId());
+			ids.add(venta.getId());
+			totalEsperado += venta.getTotal();
+		}
+		for (int i = ids.size() - 1; i >= 0; i--) {
+			esperadas.add(ids.get(i));
+		}
+	}
+
+	@Test
+	void recorreTodasLasVentasPorPaginasDeLaMasRecienteALaMasAntigua() {
+		List<Long> recibidas = new ArrayList<>();
+		EstadoCuentaDTO pagina = ventaService.getEstadoCuenta(clienteId, null, null, null, 5);
+		assertEquals(VENTAS, pagina.getResumen().getCantidadVentas());
+		assertEquals(totalEsperado, pagina.getResumen().getTotalGastado());
+		assertEquals(PRIMER_DIA.plusDays(VENTAS - 2), pagina.getResumen().getUltimaCompra());
+		while (true) {
+			pagina.getVentas().forEach(v -> recibidas.add(v.getId()));
+			assertTrue(pagina.getVentas().stream().allMatch(v -> v.getProductos().size() == 1));
+			if (pagina.getSiguienteCursor() == null) {
+				break;
+			}
+			pagina = ventaService.getEstadoCuenta(clienteId, null, null, pagina.getSiguienteCursor(), 5);
+			assertNull(pagina.getResumen());
+		}
+		assertEquals(esperadas, recibidas);
+	}
+
+	@Test
+	void filtraPorRangoDeFechas() {
+		// Dias 3 a 5 inclusive: ventas con indices 2, 3 y 4
+		EstadoCuentaDTO pagina = ventaService.getEstadoCuenta(clienteId, LocalDate.of(2025, 1, 3),
+				LocalDate.of(2025, 1, 5), null, 50);
+
+		assertEquals(3, pagina.getResumen().getCantidadVentas());
+		assertEquals(esperadas.subList(VENTAS - 5, VENTAS - 2), pagina.getVentas().stream().map(VentaDTO::getId).toList());
+		assertEquals(PRIMER_DIA.plusDays(4), pagina.getResumen().getUltimaCompra());
+
+		EstadoCuentaDTO vacio = ventaService.getEstadoCuenta(clienteId, LocalDate.of(2024, 1, 1),
+				LocalDate.of(2024, 12, 31), null, 50);
+		assertEquals(0, vacio.getResumen().getCantidadVentas());
+		assertEquals(0, vacio.getResumen().getTotalGastado());
+		assertNull(vacio.getResumen().getUltimaCompra());
+		assertTrue(vacio.getVentas().isEmpty());
+	}
+
+	@Test
+	void laCantidadDeSentenciasNoDependeDeLasVentasDelCliente() {
+		// Cliente (si no esta en la cache de segundo nivel), resumen, pagina de cabeceras y lineas de la pagina;
+		// la coleccion Cliente.ventas no se carga
+		ContadorSentencias.reiniciar();
+		ventaService.getEstadoCuenta(clienteId, null, null, null, 50);
+		assertTrue(ContadorSentencias.cantidad() <= 4, "Sentencias: " + ContadorSentencias.cantidad());
+	}
+
+	@Test
+	void rechazaClienteInexistenteRangoInvertidoYCursorAjeno() {
+		// El cliente inexistente se distingue por tipo, para responder 404 en lugar de 400
+		NoEncontradoException sinCliente = assertThrows(NoEncontradoException.class,
+				() -> ventaService.getEstadoCuenta(-1L, null, null, null, 50));
+		assertEquals("Cliente no encontrado", sinCliente.getMessage());
+
+		assertThrows(IllegalArgumentException.class, () -> ventaService.getEstadoCuenta(clienteId,
+				LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1), null, 50));
+		assertThrows(IllegalArgumentException.class,
+				() -> ventaService.getEstadoCuenta(clienteId, null, null, -1L, 50));
+	}
+}
@@ -0,0 +1,141 @@
+package com.coderhouse.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.coderhouse.dtos.ProductoDTO;
+import com.coderhouse.dtos.VentaDTO;
+import com.coderhouse.dtos.VentaPaginaDTO;
+import com.coderhouse.models.Cliente;
+import com.coderhouse.models.Producto;
+import com.coderhouse.models.Venta;
+import com.coderhouse.models.VentaProducto;
+import com.coderhouse.repositories.ClienteRepository;
+import com.coderhouse.repositories.ProductoRepository;
+import com.coderhouse.repositories.VentaRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class VentaServiceProyeccionTest {
+
+	private static final int VENTAS = 100;
+	private static final int LINEAS_POR_VENTA = 10;
+
+	@Autowired
+	private VentaService ventaService;
+	@Autowired
+	private VentaRepository ventaRepository;
+	@Autowired
+	private ClienteRepository clienteRepository;
+	@Autowired
+	private ProductoRepository productoRepository;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private Statistics statistics;
+	private Long ventaId;
+	private Long clienteId;
+
+	@BeforeAll
+	void cargarDatos() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		Cliente cliente = new Cliente();
+		cliente.setNombre("Valeria");
+		cliente.setApellido("Casatti");
+		cliente.setEmail("proyeccion@test.com");
+		cliente = clienteRepository.save(cliente);
+		clienteId = cliente.getId();
+
+		List<Producto> productos = new ArrayList<>();
+		for (int i = 0; i < LINEAS_POR_VENTA; i++) {
+			Producto producto = new Producto();
+			producto.setNombre("Producto " + i);
+			producto.setPrecio(100 + i);
+			producto.setStock(1000);
+			productos.add(producto);
+		}
+		productos = productoRepository.saveAll(productos);
+
+		for (int v = 0; v < VENTAS; v++) {
+			Venta venta = new Venta();
+			venta.setCliente(cliente);
+			venta.setFecha("2025-01-17 10:00:00");
+			List<VentaProducto> lineas = new ArrayList<>();
+			int total = 0;
+			for (Producto producto : productos) {
+				VentaProducto linea = new VentaProducto();
+				linea.setVenta(venta);
+				linea.setProducto(producto);
+				linea.setCantidad(1);
+				linea.setPrecioUnitario(producto.getPrecio());
+				lineas.add(linea);
+				total += producto.getPrecio();
+			}
+			venta.setVentaProductos(lineas);
+			venta.setTotal(total);
+			ventaId = ventaRepository.save(venta).getId();
+		}
+	}
+
+	@Test
+	void getVentaByIdUsaDosConsultas() {
+		statistics.clear();
+		VentaDTO venta = ventaService.getVentaById(ventaId);
+
+		assertEquals(2, statistics.getPrepareStatementCount());
+		assertEquals(LINEAS_POR_VENTA, venta.getProductos().size());
+		assertEquals(clienteId, venta.getClienteId());
+	}
+
+	@Test
+	void getAllVentasUsaDosConsultasPorPagina() {
+		statistics.clear();
+		VentaPaginaDTO pagina = ventaService.getAllVentas(null, 50, clienteId);
+
+		assertEquals(2, statistics.getPrepareStatementCount());
+		assertEquals(50, pagina.getVentas().size());
+		assertTrue(pagina.getVentas().stream().allMatch(v -> v.getProductos().size() == LINEAS_POR_VENTA));
+	}
+
+	// La memoria asignada por llamada se mide en VentaConsultaBenchmark.getVentaById (perfil benchmark, -prof gc)
+	@Test
+	void proyeccionComparadaConEntidades() {
+		Supplier<VentaDTO> porEntidades = () -> transactionTemplate.execute(status -> {
+			Venta venta = ventaRepository.findById(ventaId).orElseThrow();
+			return new VentaDTO(venta.getId(), venta.getCliente().getId(), venta.getCliente().getNombre(),
+					venta.getCliente().getApellido(), venta.getFecha(),
+					venta.getVentaProductos().stream().map(vp -> new ProductoDTO(vp.getProducto().getId(),
+							vp.getProducto().getNombre(), vp.getPrecioUnitario(), vp.getCantidad())).toList(),
+					venta.getTotal());
+		});
+		Supplier<VentaDTO> porProyeccion = () -> ventaService.getVentaById(ventaId);
+
+		statistics.clear();
+		porEntidades.get();
+		long consultasEntidades = statistics.getPrepareStatementCount();
+		statistics.clear();
+		porProyeccion.get();
+		long consultasProyeccion = statistics.getPrepareStatementCount();
+
+		assertEquals(2, consultasProyeccion);
+		assertTrue(consultasEntidades > consultasProyeccion, "Consultas por entidades: " + consultasEntidades);
+	}
+}